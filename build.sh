@@ -12,6 +12,7 @@ CONSOLE_JAR=${BASE_DIR}/gomoku-battle-console/target/gomoku-battle-console-*-jar
 POM_FILE=${BASE_DIR}/pom.xml
 
 ALPHA_BETA_SEARCH_JAR=${BASE_DIR}/gomoku-battle-alphabetasearch/target/gomoku-battle-alphabetasearch-*-jar-with-dependencies.jar
+MCTS_JAR=${BASE_DIR}/gomoku-battle-mcts/target/gomoku-battle-mcts-*-jar-with-dependencies.jar
 
 function build_platform {
     mvn clean -f ${POM_FILE}
@@ -24,6 +25,7 @@ function deploy_bin {
     cp -f ${DASHBOARD_JAR} ${BIN_DIR}
     cp -f ${CONSOLE_JAR} ${BIN_DIR}
     cp -f ${ALPHA_BETA_SEARCH_JAR} ${BIN_DIR}
+    cp -f ${MCTS_JAR} ${BIN_DIR}
 }
 
 function main {
@@ -4,7 +4,17 @@
 package com.zhixiangli.gomoku.alphabetasearch;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -19,8 +29,24 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.zhixiangli.gomoku.alphabetasearch.algorithm.AlphaBetaSearchAlgorithm;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.IncrementalChessboard;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.LazySmpSearch;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.OpeningBook;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.PersistentCache;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.ProofNumberSolver;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.SearchResult;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.SearchStatistics;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.SearchTimeoutException;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.VcfSolver;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.VctSolver;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.YoungBrothersWaitSearch;
+import com.zhixiangli.gomoku.alphabetasearch.common.CacheConst;
+import com.zhixiangli.gomoku.alphabetasearch.common.ParallelMode;
 import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchOptions;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
 import com.zhixiangli.gomoku.core.chessboard.Chessboard;
 import com.zhixiangli.gomoku.core.common.GomokuConst;
@@ -37,15 +63,278 @@ public class AlphaBetaSearchAgent extends ConsoleAgent {
 
     private Chessboard chessboard;
 
+    private GameSession session = new GameSession();
+
+    /**
+     * the expected moves from the position before the last move of the agent,
+     * the first one is the last move.
+     */
+    private List<Point> principalVariation = Collections.emptyList();
+
+    /**
+     * the moves expected from the position being searched, the rest of the
+     * principal variation of the last move if the game has gone as expected.
+     */
+    private List<Point> expectedVariation = Collections.emptyList();
+
+    /**
+     * the principal variations after the candidates of the root, from their
+     * last searches which have exact values.
+     */
+    private Map<Point, List<Point>> rootVariations = new ConcurrentHashMap<>();
+
     private AlphaBetaSearchAlgorithm alphaBetaAlgorithm;
 
+    private SearchOptions searchOptions;
+
+    private VcfSolver vcfSolver = new VcfSolver();
+
+    private VctSolver vctSolver;
+
+    private ProofNumberSolver proofNumberSolver = new ProofNumberSolver(SearchConst.PN_MAX_NODES,
+            CacheConst.PN_TABLE_SIZE_BITS);
+
+    private OpeningBook openingBook;
+
+    private LazySmpSearch lazySmpSearch;
+
+    private YoungBrothersWaitSearch youngBrothersWaitSearch;
+
+    /**
+     * the searches stop when System.currentTimeMillis() passes it, the solvers
+     * also stop at their own budgets. pondering has a budget of its own, cut
+     * short when the opponent moves.
+     */
+    private volatile long deadline;
+
+    private ExecutorService ponderExecutor;
+
+    /**
+     * the move found by pondering, or null if the agent is not pondering.
+     */
+    private Future<Point> ponderFuture;
+
+    /**
+     * the game pondered on, with the expected move of the opponent.
+     */
+    private String ponderSgf;
+
+    /**
+     * the number of root searches repeated by failed aspiration windows in the
+     * last search.
+     */
+    private int researchNum;
+
+    /**
+     * the statistics of the searches of the game, added up move by move.
+     */
+    private SearchStatistics gameStatistics = new SearchStatistics();
+
     public AlphaBetaSearchAgent() {
+        this(new SearchOptions());
+    }
+
+    public AlphaBetaSearchAgent(SearchOptions searchOptions) {
         this.alphaBetaAlgorithm = new AlphaBetaSearchAlgorithm();
+        this.searchOptions = searchOptions;
+        this.vctSolver = new VctSolver(SearchConst.VCT_MAX_DEPTH, SearchConst.VCT_MAX_NODES,
+                Math.max(1, (long) (searchOptions.getSearchTimeMillis() * SearchConst.VCT_TIME_RATIO)));
+        if (null != searchOptions.getBookPath()) {
+            try {
+                this.openingBook = OpeningBook.open(Paths.get(searchOptions.getBookPath()));
+                LOGGER.info("opening book loaded: {}, moves: {}", searchOptions.getBookPath(), this.openingBook.size());
+            } catch (IOException e) {
+                LOGGER.error("opening book error: {}", e);
+            }
+        }
+        if (null != searchOptions.getCachePath()) {
+            try {
+                PersistentCache persistentCache = PersistentCache.open(Paths.get(searchOptions.getCachePath()),
+                        CacheConst.PERSISTENT_CACHE_SIZE_BITS);
+                this.alphaBetaAlgorithm.setPersistentCache(persistentCache);
+                LOGGER.info("persistent cache loaded: {}, records: {}", searchOptions.getCachePath(),
+                        persistentCache.size());
+            } catch (IOException e) {
+                LOGGER.error("persistent cache error: {}", e);
+            }
+        }
+        if (ParallelMode.LAZY_SMP == searchOptions.getParallelMode()) {
+            this.lazySmpSearch = new LazySmpSearch(this.alphaBetaAlgorithm, searchOptions.getThreadNum());
+        } else if (ParallelMode.YOUNG_BROTHERS_WAIT == searchOptions.getParallelMode()) {
+            this.youngBrothersWaitSearch = new YoungBrothersWaitSearch(this.alphaBetaAlgorithm,
+                    searchOptions.getThreadNum());
+        }
     }
 
     @Override
     protected Point next(String sgf, ChessType chessType) {
-        this.chessboard = GomokuFormatter.toChessboard(sgf);
+        long newDeadline = System.currentTimeMillis() + this.searchOptions.getSearchTimeMillis();
+        if (null != this.ponderFuture) {
+            boolean isPonderHit = StringUtils.equals(sgf, this.ponderSgf);
+            LOGGER.info("ponder hit: {}", isPonderHit);
+            // a ponder hit goes on with the budget of the move, a miss stops and the
+            // caches it has filled are kept.
+            this.setDeadline(isPonderHit ? newDeadline : Long.MIN_VALUE);
+            Point point = this.stopPondering(this.ponderFuture);
+            if (isPonderHit && null != point) {
+                return point;
+            }
+        }
+        this.setDeadline(newDeadline);
+        return this.search(sgf, chessType);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.zhixiangli.gomoku.console.ConsoleAgent#ponder(java.lang.String,
+     * com.zhixiangli.gomoku.core.chessboard.ChessType)
+     */
+    @Override
+    protected void ponder(String sgf, ChessType chessType) {
+        // the principal variation starts with the move of the agent, then the
+        // expected move of the opponent.
+        if (this.principalVariation.size() < 2 || null != this.ponderFuture) {
+            return;
+        }
+        ChessType opponentChessType = GameReferee.nextChessType(chessType);
+        this.ponderSgf = sgf + ";" + GomokuFormatter.toSGF(Collections
+                .singletonList(ImmutablePair.of(opponentChessType, this.principalVariation.get(1))));
+        if (null == this.ponderExecutor) {
+            this.ponderExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ponder-%d").build());
+        }
+        LOGGER.info("ponder on: {}", this.ponderSgf);
+        this.setDeadline(System.currentTimeMillis()
+                + SearchConst.PONDER_TIME_RATIO * this.searchOptions.getSearchTimeMillis());
+        String newSgf = this.ponderSgf;
+        this.ponderFuture = this.ponderExecutor.submit(() -> this.search(newSgf, chessType));
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.zhixiangli.gomoku.console.ConsoleAgent#stopPondering()
+     */
+    @Override
+    protected void stopPondering() {
+        if (null != this.ponderFuture) {
+            this.setDeadline(Long.MIN_VALUE);
+            this.stopPondering(this.ponderFuture);
+        }
+    }
+
+    /**
+     * 
+     * wait for the pondering to finish.
+     * 
+     * @param future
+     *            the pondering.
+     * @return the move it has found, or null if it has failed.
+     */
+    private Point stopPondering(Future<Point> future) {
+        this.ponderFuture = null;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("ponder error: {}", e);
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the pondering is still searching.
+     */
+    boolean isPondering() {
+        return null != this.ponderFuture && !this.ponderFuture.isDone();
+    }
+
+    /**
+     * @return the game pondered on, or null if the agent is not pondering.
+     */
+    String getPonderSgf() {
+        return null == this.ponderFuture ? null : this.ponderSgf;
+    }
+
+    /**
+     * 
+     * set the deadline of the searches, the running ones included.
+     * 
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it.
+     */
+    private synchronized void setDeadline(long deadline) {
+        this.deadline = deadline;
+        this.alphaBetaAlgorithm.setDeadline(deadline);
+    }
+
+    /**
+     * start the alpha beta search of a move with the current deadline.
+     */
+    private synchronized void startSearch() {
+        this.alphaBetaAlgorithm.newSearch(this.deadline);
+    }
+
+    /**
+     * 
+     * find the move of a game, and log the statistics of the search.
+     * 
+     * @param sgf
+     *            the whole game.
+     * @param chessType
+     *            the chess type to put.
+     * @return the move.
+     */
+    private Point search(String sgf, ChessType chessType) {
+        List<Point> lastVariation = this.principalVariation;
+        this.principalVariation = Collections.emptyList();
+        this.expectedVariation = Collections.emptyList();
+        if (this.session.update(sgf)) {
+            List<Point> newPoints = this.session.getNewMoves().stream().map(Pair::getValue)
+                    .collect(Collectors.toList());
+            boolean isExpected = lastVariation.size() >= newPoints.size()
+                    && lastVariation.subList(0, newPoints.size()).equals(newPoints);
+            LOGGER.info("game continued, new moves: {}, expected: {}", newPoints, isExpected);
+            if (isExpected) {
+                this.expectedVariation = lastVariation.subList(newPoints.size(), lastVariation.size());
+            }
+        } else if (this.session.isNewGame()) {
+            this.gameStatistics = new SearchStatistics();
+        }
+        // the searches evaluate the clones of a copy which keeps the values of the stones.
+        this.chessboard = new IncrementalChessboard(this.session.getChessboard());
+        SearchStatistics statistics = this.alphaBetaAlgorithm.getStatistics();
+        statistics.reset(chessboard.getStoneCount());
+        Point point = this.searchMove(chessType, statistics);
+        LOGGER.info("search statistics of the move: {}", statistics);
+        this.gameStatistics.add(statistics);
+        LOGGER.info("search statistics of the game: moves={} {}", this.gameStatistics.getSearchNum(),
+                this.gameStatistics);
+        return point;
+    }
+
+    /**
+     * 
+     * find the move of the chessboard.
+     * 
+     * @param chessType
+     *            the chess type to put.
+     * @param statistics
+     *            the statistics of the move, the time of every phase is added.
+     * @return the move.
+     */
+    private Point searchMove(ChessType chessType, SearchStatistics statistics) {
+        Stopwatch phaseWatch = Stopwatch.createStarted();
+        if (null != this.openingBook) {
+            Point point = this.openingBook.probe(chessboard);
+            addPhaseTime(statistics, SearchStatistics.Phase.BOOK, phaseWatch);
+            if (null != point) {
+                LOGGER.info("opening book move: {}", point);
+                return point;
+            }
+        }
         Point[] candidates = alphaBetaAlgorithm.nextMoves(chessboard, chessType);
 
         if (ArrayUtils.getLength(candidates) == 0) {
@@ -56,23 +345,262 @@ public class AlphaBetaSearchAgent extends ConsoleAgent {
         } else {
             Point point = null;
             Stopwatch watch = Stopwatch.createStarted();
-            point = this.searchBestPoint(candidates, chessType, SearchConst.MAX_DEPTH);
-            LOGGER.info("alpha beta search cost: {}", watch.elapsed(TimeUnit.SECONDS));
+            phaseWatch.reset().start();
+            List<Point> vcf = this.vcfSolver.solve(chessboard, chessType, () -> this.deadline);
+            addPhaseTime(statistics, SearchStatistics.Phase.VCF, phaseWatch);
+            if (!vcf.isEmpty()) {
+                LOGGER.info("vcf found: {}", vcf);
+                return vcf.get(0);
+            }
+            point = this.vctSolver.solve(chessboard, chessType, () -> this.deadline);
+            addPhaseTime(statistics, SearchStatistics.Phase.VCT, phaseWatch);
+            if (null != point) {
+                LOGGER.info("vct found: {}, cost: {}ms", point, watch.elapsed(TimeUnit.MILLISECONDS));
+                return point;
+            }
+            if (ProofNumberSolver.isSharp(chessboard, chessType)) {
+                long proofNumberDeadline = System.currentTimeMillis()
+                        + (long) (this.searchOptions.getSearchTimeMillis() * SearchConst.PN_TIME_RATIO);
+                point = this.proofNumberSolver.proveWin(chessboard, chessType,
+                        () -> Math.min(proofNumberDeadline, this.deadline));
+                addPhaseTime(statistics, SearchStatistics.Phase.PROOF_NUMBER, phaseWatch);
+                if (null != point) {
+                    LOGGER.info("proof number search found: {}, cost: {}ms", point,
+                            watch.elapsed(TimeUnit.MILLISECONDS));
+                    return point;
+                }
+            }
+            point = this.iterativeDeepeningSearch(candidates, chessType);
+            addPhaseTime(statistics, SearchStatistics.Phase.ALPHA_BETA, phaseWatch);
+            LOGGER.info("alpha beta search cost: {}ms", watch.elapsed(TimeUnit.MILLISECONDS));
             return point;
         }
 
     }
 
-    private Point searchBestPoint(Point[] candidates, ChessType chessType, int depth) {
-        this.alphaBetaAlgorithm.clearCache();
-        List<Pair<Point, Double>> pairs = Stream.of(candidates).parallel().map(point -> {
+    /**
+     * add the time of a phase, and start timing the next one.
+     */
+    private static void addPhaseTime(SearchStatistics statistics, SearchStatistics.Phase phase, Stopwatch watch) {
+        statistics.addPhaseTime(phase, watch.elapsed(TimeUnit.NANOSECONDS));
+        watch.reset().start();
+    }
+
+    /**
+     * 
+     * search depth 0, 1, 2... until the time budget is exhausted, and return the
+     * best point of the last completed iteration. an interrupted iteration is
+     * used if it has completed the best point of the previous one.
+     * 
+     * @param candidates
+     *            candidates ordered by the static evaluation.
+     * @param chessType
+     *            the chess type to put.
+     * @return the best point.
+     */
+    private Point iterativeDeepeningSearch(Point[] candidates, ChessType chessType) {
+        this.startSearch();
+        this.rootVariations.clear();
+        // the position was searched by the previous moves if the game goes as
+        // expected, its best move is searched first.
+        List<Point> variation = this.expectedVariation.isEmpty()
+                ? this.alphaBetaAlgorithm.getPrincipalVariation(chessboard, GameReferee.nextChessType(chessType),
+                        chessType, 1)
+                : this.expectedVariation;
+        int index = variation.isEmpty() ? -1 : ArrayUtils.indexOf(candidates, variation.get(0));
+        if (index > 0) {
+            candidates = candidates.clone();
+            System.arraycopy(candidates, 0, candidates, 1, index);
+            candidates[0] = variation.get(0);
+        }
+        if (null != this.lazySmpSearch) {
+            this.lazySmpSearch.startHelpers(chessboard, candidates, chessType);
+        }
+        Point bestPoint;
+        try {
+            bestPoint = this.runIterations(candidates, chessType);
+        } finally {
+            if (null != this.lazySmpSearch) {
+                this.lazySmpSearch.stopHelpers();
+            }
+            this.alphaBetaAlgorithm.flushPersistentCache();
+        }
+        this.principalVariation = this.getPrincipalVariation(bestPoint, chessType);
+        LOGGER.info("principal variation: {}", this.principalVariation);
+        return bestPoint;
+    }
+
+    /**
+     * 
+     * get the moves expected after the best point, from the principal variation
+     * of its search, followed by the best moves in the transposition table.
+     * 
+     * @param bestPoint
+     *            the best point.
+     * @param chessType
+     *            the chess type of the best point.
+     * @return the best point and the moves after it.
+     */
+    private List<Point> getPrincipalVariation(Point bestPoint, ChessType chessType) {
+        List<Point> variation = new ArrayList<>();
+        variation.add(bestPoint);
+        variation.addAll(this.rootVariations.getOrDefault(bestPoint, Collections.emptyList()));
+        ChessType lastChessType = GameReferee.nextChessType(chessType);
+        for (Point point : variation) {
+            lastChessType = GameReferee.nextChessType(lastChessType);
+            chessboard.setChess(point, lastChessType);
+        }
+        // the variation of the search is cut short where the transposition table
+        // was used.
+        List<Point> cachedVariation = GameReferee.isWin(chessboard, variation.get(variation.size() - 1))
+                ? Collections.emptyList()
+                : this.alphaBetaAlgorithm.getPrincipalVariation(chessboard, lastChessType, chessType,
+                        SearchConst.MAX_DEPTH + 1 - variation.size());
+        for (Point point : variation) {
+            chessboard.setChess(point, ChessType.EMPTY);
+        }
+        variation.addAll(cachedVariation);
+        return variation;
+    }
+
+    /**
+     * @return the principal variation of the last move.
+     */
+    List<Point> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    private Point runIterations(Point[] candidates, ChessType chessType) {
+        Point bestPoint = candidates[0];
+        double[] bestValues = new double[SearchConst.MAX_DEPTH + 1];
+        this.researchNum = 0;
+        for (int depth = 0; depth <= SearchConst.MAX_DEPTH; ++depth) {
+            // the values of the odd and the even depths differ by the reply of the
+            // opponent, so the window is around the value of two depths shallower.
+            double expected = depth >= 2 ? bestValues[depth - 2] : Double.NaN;
+            List<Pair<Point, Double>> pairs = this.searchAspiration(candidates, chessType, depth, expected);
+            List<Pair<Point, Double>> completedPairs = pairs.stream().filter(pair -> null != pair.getValue())
+                    .collect(Collectors.toList());
+            if (null == pairs.get(0).getValue()) {
+                LOGGER.info("alpha beta search timeout at depth {}, best point: {}", depth, bestPoint);
+                break;
+            }
+            double bestValue = completedPairs.stream().map(pair -> pair.getValue()).max(Double::compare).get();
+            List<Pair<Point, Double>> resultPoints = completedPairs.stream()
+                    .filter(pair -> Double.compare(bestValue, pair.getValue()) == 0).collect(Collectors.toList());
+            bestPoint = resultPoints.get(RandomUtils.nextInt(0, resultPoints.size())).getKey();
+            bestValues[depth] = bestValue;
+            LOGGER.info("alpha beta search depth {}, best point: {}, value: {}", depth, bestPoint, bestValue);
+            if (completedPairs.size() < pairs.size() || AlphaBetaSearchAlgorithm.isDecisive(bestValue)) {
+                break;
+            }
+            // search the best points first in the next iteration.
+            candidates = pairs.stream().sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                    .map(pair -> pair.getKey()).toArray(Point[]::new);
+        }
+        LOGGER.info("aspiration re-searches of the move: {}", this.researchNum);
+        return bestPoint;
+    }
+
+    /**
+     * 
+     * search every candidate to the depth inside a window around the expected
+     * value. the window widens and the root is searched again while the best
+     * value falls outside it.
+     * 
+     * @param expected
+     *            the expected value of the best candidate, or NaN to search the
+     *            full window.
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    private List<Pair<Point, Double>> searchAspiration(Point[] candidates, ChessType chessType, int depth,
+            double expected) {
+        double delta = this.searchOptions.getAspirationWindow();
+        double alpha = -Double.MAX_VALUE;
+        double beta = Double.MAX_VALUE;
+        if (!Double.isNaN(expected) && delta > 0 && !AlphaBetaSearchAlgorithm.isDecisive(expected)) {
+            alpha = expected - delta;
+            beta = expected + delta;
+        }
+        List<Pair<Point, Double>> pairs = this.searchRoot(candidates, chessType, depth, alpha, beta);
+        for (int researchNum = 0;; ++researchNum) {
+            if (pairs.stream().anyMatch(pair -> null == pair.getValue())) {
+                return pairs;
+            }
+            double bestValue = pairs.stream().mapToDouble(pair -> pair.getValue()).max().getAsDouble();
+            boolean isFailLow = bestValue <= alpha && alpha > -Double.MAX_VALUE;
+            boolean isFailHigh = bestValue >= beta && beta < Double.MAX_VALUE;
+            if (!isFailLow && !isFailHigh) {
+                return pairs;
+            }
+            delta *= this.searchOptions.getAspirationGrowth();
+            boolean isFullWindow = researchNum + 1 >= SearchConst.ASPIRATION_MAX_RESEARCH_NUM;
+            if (isFailLow) {
+                alpha = isFullWindow ? -Double.MAX_VALUE : expected - delta;
+            } else {
+                beta = isFullWindow ? Double.MAX_VALUE : expected + delta;
+            }
+            ++this.researchNum;
+            LOGGER.info("aspiration window failed {} at depth {}, value: {}, new window: [{}, {}]",
+                    isFailLow ? "low" : "high", depth, bestValue, alpha, beta);
+            List<Pair<Point, Double>> newPairs = this.searchRoot(candidates, chessType, depth, alpha, beta);
+            if (null == newPairs.get(0).getValue() && isFailHigh) {
+                // the candidate failed high is still better than the best one of the last
+                // depth.
+                return pairs;
+            }
+            pairs = newPairs;
+        }
+    }
+
+    /**
+     * 
+     * search every candidate to the depth inside a window.
+     * 
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    private List<Pair<Point, Double>> searchRoot(Point[] candidates, ChessType chessType, int depth, double alpha,
+            double beta) {
+        switch (this.searchOptions.getParallelMode()) {
+        case LAZY_SMP:
+            return this.lazySmpSearch.searchRoot(chessboard, candidates, chessType, depth, alpha, beta);
+        case YOUNG_BROTHERS_WAIT:
+            return this.youngBrothersWaitSearch.searchRoot(chessboard, candidates, chessType, depth, alpha, beta);
+        case ROOT_SPLIT:
+        default:
+            return this.searchBestPoint(candidates, chessType, depth, alpha, beta);
+        }
+    }
+
+    /**
+     * 
+     * search every candidate to the depth inside a window, each by a thread of
+     * the common pool.
+     * 
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    private List<Pair<Point, Double>> searchBestPoint(Point[] candidates, ChessType chessType, int depth,
+            double alpha, double beta) {
+        return Stream.of(candidates).parallel().map(point -> {
             Chessboard newChessboard = chessboard.clone();
             // set chessboard.
             newChessboard.setChess(point, chessType);
-            double value = -Double.MAX_VALUE;
+            Double value = -Double.MAX_VALUE;
             try {
-                value = alphaBetaAlgorithm.search(depth, -Double.MAX_VALUE, Double.MAX_VALUE, newChessboard, point,
-                        chessType, chessType, StringUtils.EMPTY);
+                SearchResult result = alphaBetaAlgorithm.searchPrincipalVariation(depth, alpha, beta, newChessboard,
+                        point, chessType, chessType);
+                value = result.getValue();
+                // the variation of a value outside the window is not the best one.
+                if (value > alpha && value < beta) {
+                    this.rootVariations.put(point, result.getPrincipalVariation());
+                } else {
+                    this.rootVariations.remove(point);
+                }
+            } catch (SearchTimeoutException e) {
+                value = null;
             } catch (Exception e) {
                 LOGGER.error("alpha beta search error: {}", e);
             }
@@ -81,15 +609,25 @@ public class AlphaBetaSearchAgent extends ConsoleAgent {
             Preconditions.checkState(newChessboard.equals(chessboard));
             return ImmutablePair.of(point, value);
         }).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the number of root searches repeated by failed aspiration windows in
+     *         the last search.
+     */
+    int getResearchNum() {
+        return researchNum;
+    }
 
-        double bestValue = pairs.stream().map(pair -> pair.getValue()).max((a, b) -> Double.compare(a, b)).get();
-        List<Pair<Point, Double>> resultPoints = pairs.stream()
-                .filter(pair -> Double.compare(bestValue, pair.getValue()) == 0).collect(Collectors.toList());
-        return resultPoints.get(RandomUtils.nextInt(0, resultPoints.size())).getKey();
+    /**
+     * @return the statistics of the searches of the game.
+     */
+    SearchStatistics getGameStatistics() {
+        return gameStatistics;
     }
 
-    public static void main(String[] args) {
-        ConsoleAgent agent = new AlphaBetaSearchAgent();
+    public static void main(String[] args) throws Exception {
+        ConsoleAgent agent = new AlphaBetaSearchAgent(SearchOptions.parse(args));
         agent.start();
     }
 
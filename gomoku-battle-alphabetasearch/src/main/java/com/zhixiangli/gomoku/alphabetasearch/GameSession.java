@@ -0,0 +1,104 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * the game an agent is playing.
+ * 
+ * the master sends the whole game every move. when it extends the game of the
+ * previous move, only the new moves are put on the chessboard, otherwise the
+ * chessboard is built again.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class GameSession {
+
+    private final Chessboard chessboard = new Chessboard();
+
+    /**
+     * the sgf pieces of the moves on the chessboard.
+     */
+    private final List<String> pieces = new ArrayList<>();
+
+    private List<Pair<ChessType, Point>> newMoves = Collections.emptyList();
+
+    private boolean isContinued;
+
+    private boolean isNewGame;
+
+    /**
+     * 
+     * bring the chessboard to a game.
+     * 
+     * @param sgf
+     *            the whole game.
+     * @return true if the game extends the previous one.
+     */
+    public boolean update(String sgf) {
+        List<String> newPieces = Arrays.asList(StringUtils.split(StringUtils.defaultString(sgf), ';'));
+        this.isContinued = !this.pieces.isEmpty() && newPieces.size() >= this.pieces.size()
+                && newPieces.subList(0, this.pieces.size()).equals(this.pieces);
+        this.isNewGame = !this.isContinued && (newPieces.isEmpty() || newPieces.size() < this.pieces.size());
+        if (!this.isContinued) {
+            this.chessboard.clear();
+            this.pieces.clear();
+        }
+        this.newMoves = new ArrayList<>();
+        for (String piece : newPieces.subList(this.pieces.size(), newPieces.size())) {
+            ChessType chessType = ChessType.getChessType(piece.charAt(0));
+            Point point = new Point(GomokuFormatter.decodeAxis(piece.charAt(2)),
+                    GomokuFormatter.decodeAxis(piece.charAt(3)));
+            this.chessboard.setChess(point, chessType);
+            this.pieces.add(piece);
+            this.newMoves.add(ImmutablePair.of(chessType, point));
+        }
+        return this.isContinued;
+    }
+
+    /**
+     * @return the chessboard of the game, it is updated in place.
+     */
+    public Chessboard getChessboard() {
+        return chessboard;
+    }
+
+    /**
+     * @return the moves put by the last update.
+     */
+    public List<Pair<ChessType, Point>> getNewMoves() {
+        return newMoves;
+    }
+
+    /**
+     * @return true if the last update extended the previous game.
+     */
+    public boolean isContinued() {
+        return isContinued;
+    }
+
+    /**
+     * @return true if the last update started another game, which is empty or
+     *         shorter than the previous one. a game which only replaces the last
+     *         moves, as a missed ponder does, is not a new one.
+     */
+    public boolean isNewGame() {
+        return isNewGame;
+    }
+
+}
@@ -0,0 +1,66 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch;
+
+import java.util.Scanner;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.ProofNumberSolver;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.ProofResult;
+import com.zhixiangli.gomoku.alphabetasearch.common.CacheConst;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * prove the outcomes of positions by the proof number search.
+ * 
+ * every line of stdin is the sgf of a position, the chess type to put is the
+ * one after the last move. every line of stdout is the sgf, the outcome for the
+ * chess type to put and the winning move, separated by tabs.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class GameSolver {
+
+    public static final String MAX_NODES = "nodes";
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        options.addOption(MAX_NODES, true, "the max number of positions to visit in a solve");
+        CommandLine cmd = new DefaultParser().parse(options, args);
+        ProofNumberSolver solver = new ProofNumberSolver(
+                NumberUtils.toInt(cmd.getOptionValue(MAX_NODES), SearchConst.PN_SOLVE_MAX_NODES),
+                CacheConst.PN_TABLE_SIZE_BITS);
+
+        try (Scanner reader = new Scanner(System.in)) {
+            while (reader.hasNext()) {
+                String sgf = StringUtils.strip(reader.nextLine());
+                if (StringUtils.isEmpty(sgf)) {
+                    continue;
+                }
+                ProofResult result = solver.solve(GomokuFormatter.toChessboard(sgf), nextChessType(sgf));
+                System.out.println(StringUtils.joinWith("\t", sgf, result.getOutcome(),
+                        null == result.getMove() ? StringUtils.EMPTY : GomokuFormatter.encodePoint(result.getMove())));
+            }
+        }
+    }
+
+    /**
+     * @return the chess type after the last move, black if there is none.
+     */
+    private static ChessType nextChessType(String sgf) {
+        String[] pieces = StringUtils.split(sgf, ';');
+        return pieces.length == 0 ? ChessType.BLACK
+                : GameReferee.nextChessType(ChessType.getChessType(pieces[pieces.length - 1].charAt(0)));
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch;
+
+import java.awt.Point;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.OpeningBook;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchOptions;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * build an opening book from recorded games and self-play games.
+ * 
+ * a move of the winner weighs 2 and a move of a draw weighs 1, the moves of the
+ * loser are not added.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class OpeningBookBuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpeningBookBuilder.class);
+
+    public static final String GAMES = "games";
+
+    public static final String SELF_PLAY_NUM = "selfplay";
+
+    public static final String MAX_PLY = "plies";
+
+    public static final String OUTPUT = "output";
+
+    private final int maxPly;
+
+    private final SortedMap<Long, Map<Point, Integer>> book = new TreeMap<>();
+
+    /**
+     * 
+     * @param maxPly
+     *            the number of the first moves of a game to add.
+     */
+    public OpeningBookBuilder(int maxPly) {
+        Preconditions.checkArgument(maxPly > 0);
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * 
+     * add the first moves of a game.
+     * 
+     * @param sgf
+     *            the game, it is a draw unless the last move puts a five.
+     */
+    public void addGame(String sgf) {
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        String[] pieces = StringUtils.split(sgf, ';');
+        if (pieces.length == 0) {
+            return;
+        }
+        Point lastMove = decodePoint(pieces[pieces.length - 1]);
+        ChessType winner = GameReferee.isWin(chessboard, lastMove) ? chessboard.getChess(lastMove) : ChessType.EMPTY;
+
+        chessboard.clear();
+        for (int i = 0; i < Math.min(this.maxPly, pieces.length); ++i) {
+            Point move = decodePoint(pieces[i]);
+            ChessType chessType = ChessType.getChessType(pieces[i].charAt(0));
+            int weight = winner == chessType ? 2 : ChessType.EMPTY == winner ? 1 : 0;
+            if (weight > 0) {
+                this.book.computeIfAbsent(chessboard.getZobristKey(), key -> new HashMap<>()).merge(move, weight,
+                        Integer::sum);
+            }
+            chessboard.setChess(move, chessType);
+        }
+    }
+
+    /**
+     * @return the moves and their weights of the positions, by the zobrist key.
+     */
+    public SortedMap<Long, Map<Point, Integer>> getBook() {
+        return book;
+    }
+
+    /**
+     * 
+     * @param agent
+     *            the agent playing both sides.
+     * @return the sgf of a game played to the end.
+     */
+    static String selfPlay(AlphaBetaSearchAgent agent) {
+        List<Pair<ChessType, Point>> history = new ArrayList<>();
+        Chessboard chessboard = new Chessboard();
+        ChessType chessType = ChessType.BLACK;
+        while (!chessboard.isFull()) {
+            Point point = agent.next(GomokuFormatter.toSGF(history), chessType);
+            chessboard.setChess(point, chessType);
+            history.add(ImmutablePair.of(chessType, point));
+            if (GameReferee.isWin(chessboard, point)) {
+                break;
+            }
+            chessType = GameReferee.nextChessType(chessType);
+        }
+        return GomokuFormatter.toSGF(history);
+    }
+
+    private static Point decodePoint(String piece) {
+        return new Point(GomokuFormatter.decodeAxis(piece.charAt(2)), GomokuFormatter.decodeAxis(piece.charAt(3)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        options.addOption(GAMES, true, "a file of recorded games, one sgf a line");
+        options.addOption(SELF_PLAY_NUM, true, "the number of self-play games");
+        options.addOption(MAX_PLY, true, "the number of the first moves of a game to add");
+        options.addOption(OUTPUT, true, "the book file");
+        options.addOption(SearchOptions.SEARCH_TIME, true, "search time of a self-play move in milliseconds");
+        CommandLine cmd = new DefaultParser().parse(options, args);
+        Preconditions.checkArgument(cmd.hasOption(OUTPUT), "the book file is required");
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(
+                NumberUtils.toInt(cmd.getOptionValue(MAX_PLY), SearchConst.BOOK_MAX_PLY));
+        if (cmd.hasOption(GAMES)) {
+            try (Stream<String> lines = Files.lines(Paths.get(cmd.getOptionValue(GAMES)))) {
+                lines.map(StringUtils::strip).filter(StringUtils::isNotEmpty).forEach(builder::addGame);
+            }
+        }
+        int selfPlayNum = NumberUtils.toInt(cmd.getOptionValue(SELF_PLAY_NUM), 0);
+        if (selfPlayNum > 0) {
+            SearchOptions searchOptions = new SearchOptions();
+            searchOptions.setSearchTimeMillis(NumberUtils.toLong(cmd.getOptionValue(SearchOptions.SEARCH_TIME),
+                    searchOptions.getSearchTimeMillis()));
+            AlphaBetaSearchAgent agent = new AlphaBetaSearchAgent(searchOptions);
+            for (int i = 0; i < selfPlayNum; ++i) {
+                String sgf = selfPlay(agent);
+                LOGGER.info("self-play game {}: {}", i, sgf);
+                builder.addGame(sgf);
+            }
+        }
+        Path path = Paths.get(cmd.getOptionValue(OUTPUT));
+        OpeningBook.write(path, builder.getBook());
+        LOGGER.info("opening book written: {}, positions: {}", path, builder.getBook().size());
+    }
+
+}
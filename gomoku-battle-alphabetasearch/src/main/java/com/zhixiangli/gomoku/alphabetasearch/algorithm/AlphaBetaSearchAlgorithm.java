@@ -4,26 +4,25 @@
 package com.zhixiangli.gomoku.alphabetasearch.algorithm;
 
 import java.awt.Point;
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 
 import com.google.common.base.Preconditions;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.zhixiangli.gomoku.alphabetasearch.common.CacheConst;
 import com.zhixiangli.gomoku.alphabetasearch.common.ProphetConst;
 import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
 import com.zhixiangli.gomoku.core.analysis.GameReferee;
-import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
 import com.zhixiangli.gomoku.core.analysis.PatternType;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
 import com.zhixiangli.gomoku.core.chessboard.Chessboard;
-import com.zhixiangli.gomoku.core.common.GomokuConst;
-import com.zhixiangli.gomoku.core.common.GomokuFormatter;
 
 /**
  * @author zhixiangli
@@ -31,24 +30,45 @@ import com.zhixiangli.gomoku.core.common.GomokuFormatter;
  */
 public class AlphaBetaSearchAlgorithm {
 
-    private Cache<String, Double> seachCache;
+    private TranspositionTable transpositionTable;
 
     private boolean isEnableCache;
 
+    /**
+     * false to search the quiet moves with the full depth, and not prune them.
+     */
+    private boolean isEnablePruning = true;
+
+    private MoveHistory moveHistory = new MoveHistory();
+
+    private VcfSolver leafVcfSolver = new VcfSolver(SearchConst.LEAF_VCF_DEPTH);
+
+    /**
+     * the cache shared by games and processes, or null if there is none.
+     */
+    private PersistentCache persistentCache;
+
+    /**
+     * the search stops when System.currentTimeMillis() passes the deadline.
+     */
+    private volatile long deadline = Long.MAX_VALUE;
+
+    private final SearchStatistics statistics = new SearchStatistics();
+
     public AlphaBetaSearchAlgorithm() {
         this(true);
     }
 
     public AlphaBetaSearchAlgorithm(boolean isEnableCache) {
         this.isEnableCache = isEnableCache;
-        this.seachCache = CacheBuilder.newBuilder().maximumSize(CacheConst.MAXIMUM_SIZE)
-                .expireAfterAccess(CacheConst.DURATION_IN_MINUTE, TimeUnit.MINUTES).build();
+        this.transpositionTable = new TranspositionTable(
+                isEnableCache ? CacheConst.TRANSPOSITION_TABLE_SIZE_BITS : 1);
     }
 
     public final double clearCacheAndSearch(int depth, double alpha, double beta, Chessboard chessboard, Point point,
-            ChessType currentChessType, ChessType rootChessType, String path) throws Exception {
+            ChessType currentChessType, ChessType rootChessType) throws Exception {
         this.clearCache();
-        return search(depth, alpha, beta, chessboard, point, currentChessType, rootChessType, path);
+        return search(depth, alpha, beta, chessboard, point, currentChessType, rootChessType);
     }
 
     /**
@@ -65,70 +85,650 @@ public class AlphaBetaSearchAlgorithm {
      *            the point has been put.
      * @param currentChessType
      *            the chess type has been put.
+     * @param rootChessType
+     *            the chess type of the root, values are from its perspective.
      * @return
+     * @throws SearchTimeoutException
+     *             if the deadline has passed.
      * @throws Exception
      */
     public final double search(int depth, double alpha, double beta, Chessboard chessboard, Point point,
-            ChessType currentChessType, ChessType rootChessType, String path) throws Exception {
+            ChessType currentChessType, ChessType rootChessType) throws Exception {
+        return this.search(depth, alpha, beta, chessboard, point, currentChessType, rootChessType, null);
+    }
+
+    /**
+     * 
+     * search like {@link #search(int, double, double, Chessboard, Point, ChessType, ChessType)},
+     * and extract the principal variation.
+     * 
+     * @return the value and the moves after the point that both sides are
+     *         expected to put.
+     * @throws SearchTimeoutException
+     *             if the deadline has passed.
+     * @throws Exception
+     */
+    public final SearchResult searchPrincipalVariation(int depth, double alpha, double beta, Chessboard chessboard,
+            Point point, ChessType currentChessType, ChessType rootChessType) throws Exception {
+        List<Point> principalVariation = new ArrayList<>();
+        double value = this.search(depth, alpha, beta, chessboard, point, currentChessType, rootChessType,
+                principalVariation);
+        return new SearchResult(value, principalVariation);
+    }
+
+    private double search(int depth, double alpha, double beta, Chessboard chessboard, Point point,
+            ChessType currentChessType, ChessType rootChessType, List<Point> principalVariation) throws Exception {
+        if (rootChessType == currentChessType) {
+            return negamax(depth, alpha, beta, chessboard, point, currentChessType, rootChessType,
+                    principalVariation);
+        }
+        return -negamax(depth, -beta, -alpha, chessboard, point, currentChessType, rootChessType,
+                principalVariation);
+    }
+
+    /**
+     * 
+     * principal variation search. the first move is searched with the full
+     * window, the others with a null window that only tells whether they are
+     * better, and they are searched again if so.
+     * 
+     * @param depth
+     *            the current search depth.
+     * @param alpha
+     *            the lower bound estimation of current chess type.
+     * @param beta
+     *            the upper bound estimation of current chess type.
+     * @param chessboard
+     *            the current chessboard.
+     * @param point
+     *            the point has been put.
+     * @param currentChessType
+     *            the chess type has been put, the value is from its perspective.
+     * @param rootChessType
+     *            the chess type of the root, the evaluation is from its
+     *            perspective.
+     * @param principalVariation
+     *            filled with the principal variation, or null if it is not
+     *            needed.
+     * @return the value of current chess type.
+     * @throws SearchTimeoutException
+     *             if the deadline has passed.
+     * @throws Exception
+     */
+    double negamax(int depth, double alpha, double beta, Chessboard chessboard, Point point,
+            ChessType currentChessType, ChessType rootChessType, List<Point> principalVariation) throws Exception {
         Preconditions.checkArgument(GameReferee.isInChessboard(point));
         Preconditions.checkArgument(chessboard.getChess(point) != ChessType.EMPTY);
         Preconditions.checkArgument(currentChessType != ChessType.EMPTY);
+        if (System.currentTimeMillis() > this.deadline) {
+            throw new SearchTimeoutException();
+        }
+        this.statistics.addNode(chessboard.getStoneCount());
+        if (null != principalVariation) {
+            principalVariation.clear();
+        }
+        // the result is decayed on return, so it is compared to the undecayed window.
+        alpha /= SearchConst.DECAY_FACTOR;
+        beta /= SearchConst.DECAY_FACTOR;
 
-        String currentPath = path + GomokuFormatter.encodePoint(point);
-        Callable<Double> callable = () -> {
-            double result = 0;
-            if (GameReferee.isWin(chessboard, point)) {
-                double maxValue = ProphetConst.EVALUATION.get(PatternType.FIVE);
-                result = rootChessType == currentChessType ? maxValue : -maxValue;
-            } else if (depth <= 0) {
-                result = AlphaBetaSearchProphet.evaluateChessboardValue(chessboard, rootChessType);
+        // the same position has the same value, no matter which order the stones were
+        // put in.
+        long cacheKey = cacheKey(chessboard, currentChessType, rootChessType);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        double cachedValue = this.probeCache(cacheKey, depth, alpha, beta, entry);
+        if (!Double.isNaN(cachedValue)) {
+            return cachedValue;
+        }
+        // so are the rotations and reflections of the position.
+        boolean isPersistent = null != this.persistentCache && depth >= SearchConst.PERSISTENT_CACHE_MIN_DEPTH;
+        long persistentKey = isPersistent
+                ? cacheKey(PersistentCache.canonicalKey(chessboard), currentChessType, rootChessType)
+                : 0;
+        if (isPersistent) {
+            cachedValue = this.probePersistentCache(persistentKey, depth, alpha, beta);
+            if (!Double.isNaN(cachedValue)) {
+                return cachedValue;
+            }
+        }
+
+        double result = 0;
+        Point bestMove = null;
+        if (GameReferee.isWin(chessboard, point)) {
+            result = ProphetConst.EVALUATION.get(PatternType.FIVE);
+        } else if (depth <= 0) {
+            // a forced win of the next chess type is beyond the static evaluation.
+            List<Point> vcf = this.leafVcfSolver.solveInPlace(chessboard, GameReferee.nextChessType(currentChessType),
+                    () -> Long.MAX_VALUE);
+            if (!vcf.isEmpty()) {
+                result = -ProphetConst.EVALUATION.get(PatternType.FIVE)
+                        * Math.pow(SearchConst.DECAY_FACTOR, vcf.size());
             } else {
-                ChessType nextChessType = GameReferee.nextChessType(currentChessType);
-                Point[] candidateMoves = nextMoves(chessboard, nextChessType);
-                double newAlpha = alpha, newBeta = beta;
-                for (Point nextPoint : candidateMoves) {
-                    // set chessboard.
-                    chessboard.setChess(nextPoint, nextChessType);
-                    double searchValue = search(depth - 1, newAlpha, newBeta, chessboard, nextPoint, nextChessType,
-                            rootChessType, currentPath);
-                    // unset chessboard.
-                    chessboard.setChess(nextPoint, ChessType.EMPTY);
-                    if (rootChessType == currentChessType) {
-                        result = newBeta = Math.min(newBeta, searchValue);
+                result = this.quiescence(0, alpha, beta, chessboard, point, currentChessType, rootChessType);
+            }
+        } else {
+            ChessType nextChessType = GameReferee.nextChessType(currentChessType);
+            Point[] candidateMoves = orderMoves(chessboard, nextChessType, entry.getBestMove());
+            // the window of the next chess type.
+            double newAlpha = -beta, newBeta = -alpha;
+            double bestValue = -Double.MAX_VALUE;
+            List<Point> nextVariation = null == principalVariation ? null : new ArrayList<>();
+            // the static value of the next chess type, for futility pruning.
+            double staticValue = Double.NaN;
+            if (this.isEnablePruning && depth <= SearchConst.FUTILITY_DEPTH) {
+                double value = AlphaBetaSearchProphet.evaluateChessboardValue(chessboard, rootChessType);
+                staticValue = rootChessType == nextChessType ? value : -value;
+            }
+            for (int i = 0; i < candidateMoves.length; ++i) {
+                Point nextPoint = candidateMoves[i];
+                double searchValue;
+                boolean isFullWindow = 0 == i;
+                boolean isReduced = false;
+                // the cheap conditions go first, telling a quiet move reads the patterns.
+                boolean isLate = this.isEnablePruning && i >= SearchConst.LMR_MIN_MOVE_INDEX
+                        && depth >= SearchConst.LMR_MIN_DEPTH;
+                boolean isFutile = !Double.isNaN(staticValue)
+                        && staticValue + SearchConst.FUTILITY_MARGIN <= newAlpha / SearchConst.DECAY_FACTOR;
+                if (i > 0 && (isLate || isFutile) && isQuiet(chessboard, nextPoint, nextChessType)) {
+                    if (isFutile) {
+                        continue;
+                    }
+                    isReduced = isLate;
+                }
+                // set chessboard.
+                chessboard.setChess(nextPoint, nextChessType);
+                try {
+                    if (isFullWindow) {
+                        searchValue = negamax(depth - 1, newAlpha, newBeta, chessboard, nextPoint, nextChessType,
+                                rootChessType, nextVariation);
                     } else {
-                        result = newAlpha = Math.max(newAlpha, searchValue);
+                        searchValue = -Double.MAX_VALUE;
+                        if (isReduced) {
+                            searchValue = negamax(depth - 1 - SearchConst.LMR_REDUCTION, newAlpha,
+                                    Math.nextUp(newAlpha), chessboard, nextPoint, nextChessType, rootChessType, null);
+                        }
+                        // a reduced move better than the best one is searched again with the full depth.
+                        if (!isReduced || searchValue > newAlpha) {
+                            searchValue = negamax(depth - 1, newAlpha, Math.nextUp(newAlpha), chessboard,
+                                    nextPoint, nextChessType, rootChessType, null);
+                        }
+                        if (searchValue > newAlpha && searchValue < newBeta) {
+                            isFullWindow = true;
+                            searchValue = negamax(depth - 1, newAlpha, newBeta, chessboard, nextPoint,
+                                    nextChessType, rootChessType, nextVariation);
+                        }
                     }
-                    if (newBeta <= newAlpha) {
-                        break;
+                } finally {
+                    // unset chessboard.
+                    chessboard.setChess(nextPoint, ChessType.EMPTY);
+                }
+                if (null == bestMove || searchValue > bestValue) {
+                    bestValue = searchValue;
+                    bestMove = nextPoint;
+                    if (null != principalVariation) {
+                        principalVariation.clear();
+                        principalVariation.add(nextPoint);
+                        if (isFullWindow) {
+                            principalVariation.addAll(nextVariation);
+                        }
                     }
                 }
+                newAlpha = Math.max(newAlpha, searchValue);
+                if (newAlpha >= newBeta) {
+                    this.statistics.addCutoff(i);
+                    this.moveHistory.addCutoff(nextChessType, nextPoint, chessboard.getStoneCount(), depth - 1);
+                    break;
+                }
+            }
+            if (null != bestMove) {
+                result = -bestValue;
             }
-            return result * SearchConst.DECAY_FACTOR;
-        };
-        if (this.isEnableCache) {
-            return seachCache.get(currentPath, callable);
+        }
+        this.storeCache(cacheKey, depth, result, alpha, beta, bestMove);
+        if (isPersistent) {
+            this.storePersistentCache(persistentKey, depth, result, alpha, beta);
+        }
+        return result * SearchConst.DECAY_FACTOR;
+    }
+
+    /**
+     * 
+     * quiescence search at a leaf. the next chess type either takes the static
+     * value or plays a forcing move: a four, an open three at the first level,
+     * and the block of a four which it has to play. so the threats pending at
+     * the leaf are resolved before the static evaluation.
+     * 
+     * @param depth
+     *            0 at the leaf, decreasing with every forcing move.
+     * @param alpha
+     *            the lower bound estimation of current chess type, before decay.
+     * @param beta
+     *            the upper bound estimation of current chess type, before decay.
+     * @param chessboard
+     *            the current chessboard.
+     * @param point
+     *            the point has been put.
+     * @param currentChessType
+     *            the chess type has been put, the value is from its perspective.
+     * @param rootChessType
+     *            the chess type of the root, the evaluation is from its
+     *            perspective.
+     * @return the value of current chess type, before decay.
+     * @throws SearchTimeoutException
+     *             if the deadline has passed.
+     */
+    double quiescence(int depth, double alpha, double beta, Chessboard chessboard, Point point,
+            ChessType currentChessType, ChessType rootChessType) throws SearchTimeoutException {
+        if (System.currentTimeMillis() > this.deadline) {
+            throw new SearchTimeoutException();
+        }
+        if (depth < 0) {
+            // the leaf itself is counted by the negamax.
+            this.statistics.addNode(chessboard.getStoneCount());
+            if (GameReferee.isWin(chessboard, point)) {
+                return ProphetConst.EVALUATION.get(PatternType.FIVE);
+            }
+        }
+        this.statistics.addLeaf();
+        double value = AlphaBetaSearchProphet.evaluateChessboardValue(chessboard, rootChessType);
+        double standPat = rootChessType == currentChessType ? value : -value;
+        if (depth <= -SearchConst.QUIESCENCE_MAX_DEPTH) {
+            return standPat;
+        }
+        ChessType nextChessType = GameReferee.nextChessType(currentChessType);
+        // the values and the window of the next chess type.
+        double bestValue = -standPat;
+        Point[] moves;
+        Set<Point> fivePoints = ThreatAnalyser.getFivePointsThrough(chessboard, point, currentChessType);
+        if (fivePoints.size() > 1) {
+            // only one of the fives can be blocked.
+            return ProphetConst.EVALUATION.get(PatternType.FIVE) * SearchConst.DECAY_FACTOR
+                    * SearchConst.DECAY_FACTOR;
+        } else if (fivePoints.size() == 1) {
+            bestValue = -Double.MAX_VALUE;
+            moves = fivePoints.toArray(new Point[0]);
         } else {
-            return callable.call();
+            if (bestValue >= -alpha) {
+                return standPat;
+            }
+            moves = ThreatAnalyser.getThreatPoints(chessboard, nextChessType, 0 == depth);
+        }
+        double newAlpha = Math.max(-beta, bestValue), newBeta = -alpha;
+        for (int i = 0; i < Math.min(moves.length, SearchConst.QUIESCENCE_MAX_MOVES); ++i) {
+            double searchValue;
+            chessboard.setChess(moves[i], nextChessType);
+            try {
+                // the value of the next level is decayed on return.
+                searchValue = this.quiescence(depth - 1, newAlpha / SearchConst.DECAY_FACTOR,
+                        newBeta / SearchConst.DECAY_FACTOR, chessboard, moves[i], nextChessType, rootChessType)
+                        * SearchConst.DECAY_FACTOR;
+            } finally {
+                chessboard.setChess(moves[i], ChessType.EMPTY);
+            }
+            bestValue = Math.max(bestValue, searchValue);
+            newAlpha = Math.max(newAlpha, searchValue);
+            if (newAlpha >= newBeta) {
+                break;
+            }
         }
+        return -bestValue;
+    }
+
+    /**
+     * 
+     * follow the best moves in the transposition table from a position.
+     * 
+     * @param chessboard
+     *            the position, it is restored before return.
+     * @param lastChessType
+     *            the chess type of the last move.
+     * @param rootChessType
+     *            the chess type of the root of the searches.
+     * @param maxLength
+     *            the max number of moves.
+     * @return the best moves from the position, empty if it has not been
+     *         searched.
+     */
+    public List<Point> getPrincipalVariation(Chessboard chessboard, ChessType lastChessType, ChessType rootChessType,
+            int maxLength) {
+        List<Point> principalVariation = new ArrayList<>();
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        ChessType chessType = lastChessType;
+        while (principalVariation.size() < maxLength && this.isEnableCache
+                && transpositionTable.probe(cacheKey(chessboard, chessType, rootChessType), entry)) {
+            Point point = entry.getBestMove();
+            // a collision of the keys may give an occupied point.
+            if (null == point || !chessboard.isEmpty(point)) {
+                break;
+            }
+            chessType = GameReferee.nextChessType(chessType);
+            chessboard.setChess(point, chessType);
+            principalVariation.add(point);
+            if (GameReferee.isWin(chessboard, point)) {
+                break;
+            }
+        }
+        for (Point point : principalVariation) {
+            chessboard.setChess(point, ChessType.EMPTY);
+        }
+        return principalVariation;
+    }
+
+    /**
+     * @return true if the move neither makes a threat or a combination nor blocks
+     *         one, so it can be reduced or pruned.
+     */
+    private static boolean isQuiet(Chessboard chessboard, Point point, ChessType chessType) {
+        return ThreatAnalyser.isQuiet(chessboard, point, chessType)
+                && ThreatAnalyser.isQuiet(chessboard, point, GameReferee.nextChessType(chessType));
     }
 
     public Point[] nextMoves(Chessboard chessboard, ChessType chessType) {
-        Point[] candidates = GlobalAnalyser.getEmptyPointsAround(chessboard, SearchConst.AROUND_CANDIDATE_RANGE);
-        ArrayUtils.shuffle(candidates, GomokuConst.RANDOM);
-        Stream<Point> candidatesStream = Stream.of(candidates)
-                .map(point -> ImmutablePair.of(point, evaluateValue(chessboard, point)))
-                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue())).limit(SearchConst.MAX_CANDIDATE_NUM)
-                .map(pair -> pair.getKey());
-        return candidatesStream.toArray(Point[]::new);
+        return selectMoves(chessboard).map(pair -> pair.getKey()).toArray(Point[]::new);
+    }
+
+    /**
+     * 
+     * the candidates of {@link #nextMoves(Chessboard, ChessType)}, ordered for
+     * the search: the cached move first, then the killers, then the others by
+     * their static value raised by their history.
+     * 
+     * @param chessboard
+     *            the current chessboard.
+     * @param chessType
+     *            the chess type to put.
+     * @param cachedMove
+     *            the best move in the transposition table, or null.
+     * @return the ordered candidates.
+     */
+    Point[] orderMoves(Chessboard chessboard, ChessType chessType, Point cachedMove) {
+        Point[] candidateMoves = selectMoves(chessboard).map(pair -> ImmutablePair.of(pair.getKey(),
+                pair.getValue() * (1 + historyRatio(this.moveHistory.getHistory(chessType, pair.getKey())))))
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue())).map(pair -> pair.getKey())
+                .toArray(Point[]::new);
+        for (int slot = SearchConst.KILLER_NUM - 1; slot >= 0; --slot) {
+            moveToFront(candidateMoves, this.moveHistory.getKiller(chessboard.getStoneCount(), slot));
+        }
+        moveToFront(candidateMoves, cachedMove);
+        return candidateMoves;
+    }
+
+    private Stream<Pair<Point, Double>> selectMoves(Chessboard chessboard) {
+        Point[] candidates = IncrementalChessboard.getEmptyPointsAround(chessboard);
+        // the shared random would be contended by the search threads.
+        ArrayUtils.shuffle(candidates, ThreadLocalRandom.current());
+        return Stream.of(candidates)
+                .<Pair<Point, Double>> map(point -> ImmutablePair.of(point, evaluateValue(chessboard, point)))
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue())).limit(SearchConst.MAX_CANDIDATE_NUM);
+    }
+
+    /**
+     * @return a ratio in [0, 1), so the history never lifts a move over a twice
+     *         more valuable one.
+     */
+    private static double historyRatio(long history) {
+        return (double) history / (history + SearchConst.HISTORY_SCALE);
     }
 
     public double evaluateValue(Chessboard chessboard, Point point) {
         return AlphaBetaSearchProphet.evaluatePointValue(chessboard, point);
     }
 
+    /**
+     * 
+     * look up a searched position.
+     * 
+     * @param cacheKey
+     *            the key of the position.
+     * @param depth
+     *            the depth to search.
+     * @param alpha
+     *            the lower bound estimation of current chess type.
+     * @param beta
+     *            the upper bound estimation of current chess type.
+     * @param entry
+     *            filled with the stored content if the position is found.
+     * @return the decayed value if the stored one is enough for the window,
+     *         otherwise NaN.
+     */
+    double probeCache(long cacheKey, int depth, double alpha, double beta, TranspositionTable.Entry entry) {
+        if (!this.isEnableCache) {
+            return Double.NaN;
+        }
+        boolean isHit = transpositionTable.probe(cacheKey, entry);
+        this.statistics.addCacheProbe(isHit);
+        return isHit ? boundedValue(entry, depth, alpha, beta) : Double.NaN;
+    }
+
+    /**
+     * 
+     * look up a searched position in the persistent cache.
+     * 
+     * @param persistentKey
+     *            the key of the position and its symmetries.
+     * @param depth
+     *            the depth to search.
+     * @param alpha
+     *            the lower bound estimation of current chess type.
+     * @param beta
+     *            the upper bound estimation of current chess type.
+     * @return the decayed value if the stored one is enough for the window,
+     *         otherwise NaN.
+     */
+    double probePersistentCache(long persistentKey, int depth, double alpha, double beta) {
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        if (!this.persistentCache.probe(persistentKey, entry)) {
+            return Double.NaN;
+        }
+        return boundedValue(entry, depth, alpha, beta);
+    }
+
+    /**
+     * @return the decayed value of the entry if it is enough for the window,
+     *         otherwise NaN.
+     */
+    private static double boundedValue(TranspositionTable.Entry entry, int depth, double alpha, double beta) {
+        if (entry.getDepth() >= depth) {
+            double cachedValue = entry.getScore();
+            switch (entry.getBound()) {
+            case EXACT:
+                return cachedValue * SearchConst.DECAY_FACTOR;
+            case LOWER:
+                if (cachedValue >= beta) {
+                    return cachedValue * SearchConst.DECAY_FACTOR;
+                }
+                break;
+            case UPPER:
+                if (cachedValue <= alpha) {
+                    return cachedValue * SearchConst.DECAY_FACTOR;
+                }
+                break;
+            default:
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * 
+     * store a searched position, the bound is given by the window the result was
+     * searched with.
+     * 
+     * @param cacheKey
+     *            the key of the position.
+     * @param depth
+     *            the searched depth.
+     * @param result
+     *            the value before decay.
+     * @param alpha
+     *            the lower bound of the window.
+     * @param beta
+     *            the upper bound of the window.
+     * @param bestMove
+     *            the best move, or null for a leaf.
+     */
+    void storeCache(long cacheKey, int depth, double result, double alpha, double beta, Point bestMove) {
+        if (!this.isEnableCache) {
+            return;
+        }
+        transpositionTable.store(cacheKey, Math.max(depth, 0), result, bound(result, alpha, beta),
+                bestMove);
+    }
+
+    /**
+     * 
+     * store a searched position in the persistent cache, without its best move
+     * which differs between the symmetries.
+     * 
+     * @param persistentKey
+     *            the key of the position and its symmetries.
+     * @param depth
+     *            the searched depth.
+     * @param result
+     *            the value before decay.
+     * @param alpha
+     *            the lower bound of the window.
+     * @param beta
+     *            the upper bound of the window.
+     */
+    void storePersistentCache(long persistentKey, int depth, double result, double alpha, double beta) {
+        try {
+            this.persistentCache.store(persistentKey, depth, result, bound(result, alpha, beta));
+        } catch (IOException e) {
+            // the position is searched again next time.
+        }
+    }
+
+    /**
+     * append the stores of the search to the persistent cache, if there is one.
+     */
+    public void flushPersistentCache() {
+        if (null == this.persistentCache) {
+            return;
+        }
+        try {
+            this.persistentCache.flush();
+        } catch (IOException e) {
+            // the positions are searched again next time.
+        }
+    }
+
+    private static TranspositionTable.Bound bound(double result, double alpha, double beta) {
+        // a value on the bound of the window is only a bound of the real value,
+        // a leaf included since its quiescence search is cut off by the window.
+        if (result <= alpha) {
+            return TranspositionTable.Bound.UPPER;
+        } else if (result >= beta) {
+            return TranspositionTable.Bound.LOWER;
+        }
+        return TranspositionTable.Bound.EXACT;
+    }
+
+    private static void moveToFront(Point[] candidateMoves, Point point) {
+        if (null == point) {
+            return;
+        }
+        int index = ArrayUtils.indexOf(candidateMoves, point);
+        if (index > 0) {
+            System.arraycopy(candidateMoves, 0, candidateMoves, 1, index);
+            candidateMoves[0] = point;
+        }
+    }
+
+    static long cacheKey(Chessboard chessboard, ChessType currentChessType, ChessType rootChessType) {
+        return cacheKey(chessboard.getZobristKey(), currentChessType, rootChessType);
+    }
+
+    private static long cacheKey(long zobristKey, ChessType currentChessType, ChessType rootChessType) {
+        final long prime = 31;
+        long result = zobristKey;
+        result = prime * result + currentChessType.ordinal();
+        result = prime * result + rootChessType.ordinal();
+        return result;
+    }
+
+    /**
+     * start the search of a new move without deadline, the cache of previous
+     * moves is kept.
+     */
+    public void newSearch() {
+        this.newSearch(Long.MAX_VALUE);
+    }
+
+    /**
+     * 
+     * start the search of a new move, the cache of previous moves is kept.
+     * 
+     * @param deadline
+     *            searches throw {@link SearchTimeoutException} after
+     *            System.currentTimeMillis() passes it.
+     */
+    public void newSearch(long deadline) {
+        this.transpositionTable.newSearch();
+        this.moveHistory.age();
+        this.deadline = deadline;
+    }
+
+    /**
+     * stop the searches of the current move, they throw
+     * {@link SearchTimeoutException} from now on.
+     */
+    public void stop() {
+        this.setDeadline(Long.MIN_VALUE);
+    }
+
+    /**
+     * 
+     * move the deadline of the searches of the current move.
+     * 
+     * @param deadline
+     *            searches throw {@link SearchTimeoutException} after
+     *            System.currentTimeMillis() passes it.
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * 
+     * @param value
+     *            a search value.
+     * @return true if the value means one side has won.
+     */
+    public static boolean isDecisive(double value) {
+        return Math.abs(value) >= ProphetConst.EVALUATION.get(PatternType.FIVE) * SearchConst.DECISIVE_RATIO;
+    }
+
+    /**
+     * 
+     * @param persistentCache
+     *            the cache shared by games and processes, or null for none. it
+     *            is kept by {@link #clearCache()}.
+     */
+    public void setPersistentCache(PersistentCache persistentCache) {
+        this.persistentCache = persistentCache;
+    }
+
+    /**
+     * 
+     * @param isEnablePruning
+     *            false to turn off the late move reductions and the futility
+     *            pruning of the quiet moves.
+     */
+    public void setEnablePruning(boolean isEnablePruning) {
+        this.isEnablePruning = isEnablePruning;
+    }
+
+    /**
+     * @return the counters of the searches, the searches of a move are counted
+     *         after {@link SearchStatistics#reset(int)}.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
     public void clearCache() {
-        this.seachCache.invalidateAll();
-        Preconditions.checkState(this.seachCache.size() == 0);
+        this.transpositionTable.clear();
+        this.moveHistory.clear();
     }
 
 }
@@ -33,11 +33,16 @@ public class AlphaBetaSearchProphet {
     }
 
     public static final int evaluateChessboardValueByChessType(Chessboard chessboard, ChessType chessType) {
+        if (chessboard instanceof IncrementalChessboard) {
+            return (int) ((IncrementalChessboard) chessboard).getValue(chessType);
+        }
         int value = 0;
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
         for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
             for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
                 if (chessboard.getChess(i, j) == chessType) {
-                    value += evaluatePointValueByChessType(chessboard, new Point(i, j), chessType);
+                    GlobalAnalyser.getPatternStatistics(chessboard, i, j, chessType, counter);
+                    value += evaluateChessPatternType(counter);
                 }
             }
         }
@@ -45,55 +50,81 @@ public class AlphaBetaSearchProphet {
     }
 
     public static final double evaluatePointValue(Chessboard chessboard, Point point) {
-        return evaluatePointValueByChessType(chessboard, point, ChessType.BLACK)
-                + evaluatePointValueByChessType(chessboard, point, ChessType.WHITE);
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, ChessType.BLACK, counter);
+        double value = evaluateChessPatternType(counter);
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, ChessType.WHITE, counter);
+        return value + evaluateChessPatternType(counter);
     }
 
     public static final double evaluatePointValueByChessType(Chessboard chessboard, Point point, ChessType chessType) {
-        Map<PatternType, Integer> counter = GlobalAnalyser.getPatternStatistics(chessboard, point, chessType);
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, chessType, counter);
         return evaluateChessPatternType(counter);
     }
 
     public static final double evaluateChessPatternType(Map<PatternType, Integer> counter) {
+        int[] patternCounter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        counter.forEach((patternType, num) -> patternCounter[patternType.ordinal()] = num);
+        return evaluateChessPatternType(patternCounter);
+    }
+
+    /**
+     * 
+     * @param counter
+     *            the number of every pattern, indexed by its ordinal.
+     * @return the value of the patterns and their combinations.
+     */
+    public static final double evaluateChessPatternType(int[] counter) {
         double value = 0;
         // single pattern.
-        for (Map.Entry<PatternType, Integer> entry : counter.entrySet()) {
-            value += ProphetConst.EVALUATION.get(entry.getKey()) * entry.getValue();
+        for (int i = 0; i < counter.length; ++i) {
+            value += ProphetConst.EVALUATION_VALUES[i] * counter[i];
         }
+        value += evaluateCombination(counter);
+        Preconditions.checkState(value >= 0);
+        return value;
+    }
 
+    /**
+     * 
+     * @param counter
+     *            the number of every pattern, indexed by its ordinal.
+     * @return the value of the combinations of the patterns, 0 if there is none.
+     */
+    public static final double evaluateCombination(int[] counter) {
+        double value = 0;
         // special combination.
-        int halfOpenFour = counter.getOrDefault(PatternType.HALF_OPEN_FOUR, 0);
+        int halfOpenFour = counter[PatternType.HALF_OPEN_FOUR.ordinal()];
         // half open four + half open four
         if (halfOpenFour > 1) {
-            value += ProphetConst.EVALUATION.get(PatternType.OPEN_FOUR) * halfOpenFour;
+            value += ProphetConst.EVALUATION_VALUES[PatternType.OPEN_FOUR.ordinal()] * halfOpenFour;
         }
         // half open four + open three
-        int openThree = counter.getOrDefault(PatternType.OPEN_THREE, 0)
-                + counter.getOrDefault(PatternType.SPACED_OPEN_THREE, 0);
+        int openThree = counter[PatternType.OPEN_THREE.ordinal()] + counter[PatternType.SPACED_OPEN_THREE.ordinal()];
         if (halfOpenFour > 0 && openThree > 0) {
-            value += ProphetConst.EVALUATION.get(PatternType.OPEN_FOUR) * (halfOpenFour + openThree);
+            value += ProphetConst.EVALUATION_VALUES[PatternType.OPEN_FOUR.ordinal()] * (halfOpenFour + openThree);
         }
         // open three + open three
         if (openThree > 1) {
-            value += ProphetConst.EVALUATION.get(PatternType.HALF_OPEN_FOUR) * 2 * openThree * openThree;
+            value += ProphetConst.EVALUATION_VALUES[PatternType.HALF_OPEN_FOUR.ordinal()] * 2 * openThree * openThree;
         }
         // open three + half open three
-        int halfOpenThree = counter.getOrDefault(PatternType.HALF_OPEN_THREE, 0);
+        int halfOpenThree = counter[PatternType.HALF_OPEN_THREE.ordinal()];
         if (openThree > 0 && halfOpenThree > 0) {
-            value += ProphetConst.EVALUATION.get(PatternType.HALF_OPEN_FOUR) * 3 * (openThree + halfOpenThree);
+            value += ProphetConst.EVALUATION_VALUES[PatternType.HALF_OPEN_FOUR.ordinal()] * 3
+                    * (openThree + halfOpenThree);
         }
-        int openTwo = counter.getOrDefault(PatternType.OPEN_TWO, 0)
-                + counter.getOrDefault(PatternType.ONE_SPACED_OPEN_TWO, 0)
-                + counter.getOrDefault(PatternType.TWO_SPACED_OPEN_TWO, 0);
+        int openTwo = counter[PatternType.OPEN_TWO.ordinal()] + counter[PatternType.ONE_SPACED_OPEN_TWO.ordinal()]
+                + counter[PatternType.TWO_SPACED_OPEN_TWO.ordinal()];
         // open two + open three
         if (openTwo > 0 && openThree > 0) {
-            value += ProphetConst.EVALUATION.get(PatternType.HALF_OPEN_FOUR);
+            value += ProphetConst.EVALUATION_VALUES[PatternType.HALF_OPEN_FOUR.ordinal()];
         }
         // open two + open two
         if (openTwo > 1) {
-            value += ProphetConst.EVALUATION.get(PatternType.HALF_OPEN_THREE) * openTwo * openTwo;
+            value += ProphetConst.EVALUATION_VALUES[PatternType.HALF_OPEN_THREE.ordinal()] * openTwo * openTwo;
         }
-        Preconditions.checkState(value >= 0);
         return value;
     }
 
@@ -0,0 +1,301 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * a chessboard which keeps the value of every stone, so that
+ * {@link AlphaBetaSearchProphet#evaluateChessboardValue(Chessboard, ChessType)}
+ * does not scan the chessboard.
+ * 
+ * the value of a stone only depends on its patterns along the lines through
+ * it. when a point is put or removed, only the stones within
+ * {@link GomokuConst#CONSECUTIVE_NUM} along the lines through the point are
+ * evaluated again. the points are remembered when they are put, and evaluated
+ * when the value is read. a point taken back before the evaluation is skipped,
+ * so the moves tried by the solvers between two evaluations cost nothing more.
+ * 
+ * the empty points around the stones are kept too, by the number of stones
+ * within {@link SearchConst#AROUND_CANDIDATE_RANGE} of every point. they are
+ * updated when a point is put, so the candidates of a position are read
+ * without scanning the chessboard.
+ * 
+ * the values are updated when they are read, so an instance is not evaluated
+ * by threads at the same time. the searches give every thread its own clone.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class IncrementalChessboard extends Chessboard {
+
+    private static final int POINT_NUM = GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE;
+
+    private static final int DIRECTION_NUM = GomokuConst.DIRECTIONS.length;
+
+    /**
+     * the ordinal of the pattern of every stone along every direction.
+     */
+    private byte[] patternTypes = new byte[POINT_NUM * DIRECTION_NUM];
+
+    /**
+     * the value of every stone.
+     */
+    private double[] stoneValues = new double[POINT_NUM];
+
+    /**
+     * the ordinal of the chess type of every point at the last evaluation, its
+     * stone value is added to the chess type.
+     */
+    private byte[] stoneChessTypes = new byte[POINT_NUM];
+
+    /**
+     * the sum of the stone values, by the ordinal of the chess type.
+     */
+    private double[] values = new double[ChessType.values().length];
+
+    /**
+     * the indexes of the points put since the last evaluation, each once.
+     */
+    private int[] changedPoints = new int[POINT_NUM];
+
+    private boolean[] isChanged = new boolean[POINT_NUM];
+
+    private int changedNum;
+
+    private int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+
+    /**
+     * the number of stones within the candidate range of every point.
+     */
+    private byte[] neighborNums = new byte[POINT_NUM];
+
+    /**
+     * the bitset of the empty points having stones within the candidate range,
+     * by point index.
+     */
+    private long[] candidateBits = new long[(POINT_NUM + Long.SIZE - 1) / Long.SIZE];
+
+    private int candidateNum;
+
+    /**
+     * init an empty chessboard.
+     */
+    public IncrementalChessboard() {
+        super();
+    }
+
+    /**
+     * 
+     * copy a chessboard, and evaluate it.
+     * 
+     * @param chessboard
+     *            the chessboard to copy.
+     */
+    public IncrementalChessboard(Chessboard chessboard) {
+        this();
+        for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
+            for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
+                this.setChess(row, column, chessboard.getChess(row, column));
+            }
+        }
+        this.update();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.zhixiangli.gomoku.core.chessboard.Chessboard#setChess(int, int,
+     * com.zhixiangli.gomoku.core.chessboard.ChessType)
+     */
+    @Override
+    public void setChess(int row, int column, ChessType chessType) {
+        ChessType oldChessType = this.getChess(row, column);
+        if (oldChessType == chessType) {
+            return;
+        }
+        super.setChess(row, column, chessType);
+        if (ChessType.EMPTY == oldChessType) {
+            this.addNeighbor(row, column, 1);
+        } else if (ChessType.EMPTY == chessType) {
+            this.addNeighbor(row, column, -1);
+        }
+        int index = row * GomokuConst.CHESSBOARD_SIZE + column;
+        if (!this.isChanged[index]) {
+            this.isChanged[index] = true;
+            this.changedPoints[this.changedNum++] = index;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.zhixiangli.gomoku.core.chessboard.Chessboard#clear()
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(this.patternTypes, (byte) 0);
+        Arrays.fill(this.stoneValues, 0);
+        Arrays.fill(this.stoneChessTypes, (byte) 0);
+        Arrays.fill(this.values, 0);
+        Arrays.fill(this.isChanged, false);
+        this.changedNum = 0;
+        Arrays.fill(this.neighborNums, (byte) 0);
+        Arrays.fill(this.candidateBits, 0);
+        this.candidateNum = 0;
+    }
+
+    /**
+     * 
+     * get the candidates of a chessboard, from the kept ones if it is an
+     * incremental chessboard.
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @return the empty points within {@link SearchConst#AROUND_CANDIDATE_RANGE}
+     *         of the stones, like
+     *         {@link GlobalAnalyser#getEmptyPointsAround(Chessboard, int)}.
+     */
+    static Point[] getEmptyPointsAround(Chessboard chessboard) {
+        if (chessboard instanceof IncrementalChessboard) {
+            return ((IncrementalChessboard) chessboard).getEmptyPointsAround();
+        }
+        return GlobalAnalyser.getEmptyPointsAround(chessboard, SearchConst.AROUND_CANDIDATE_RANGE);
+    }
+
+    /**
+     * @return the empty points within {@link SearchConst#AROUND_CANDIDATE_RANGE}
+     *         of the stones, in the order of rows and then columns.
+     */
+    public Point[] getEmptyPointsAround() {
+        Point[] points = new Point[this.candidateNum];
+        int size = 0;
+        for (int i = 0; i < this.candidateBits.length; ++i) {
+            for (long bits = this.candidateBits[i]; bits != 0; bits &= bits - 1) {
+                int index = i * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                points[size++] = new Point(index / GomokuConst.CHESSBOARD_SIZE, index % GomokuConst.CHESSBOARD_SIZE);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * count a stone put or removed in the neighbors of its point.
+     */
+    private void addNeighbor(int row, int column, int delta) {
+        int range = SearchConst.AROUND_CANDIDATE_RANGE;
+        for (int i = Math.max(0, row - range); i <= Math.min(GomokuConst.CHESSBOARD_SIZE - 1, row + range); ++i) {
+            for (int j = Math.max(0, column - range); j <= Math.min(GomokuConst.CHESSBOARD_SIZE - 1,
+                    column + range); ++j) {
+                int index = i * GomokuConst.CHESSBOARD_SIZE + j;
+                this.neighborNums[index] += delta;
+                boolean isCandidate = this.neighborNums[index] > 0 && this.isEmpty(i, j);
+                long bit = 1L << index;
+                if (isCandidate != ((this.candidateBits[index / Long.SIZE] & bit) != 0)) {
+                    this.candidateBits[index / Long.SIZE] ^= bit;
+                    this.candidateNum += isCandidate ? 1 : -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 
+     * get the sum of the values of the stones of a chess type, like
+     * {@link AlphaBetaSearchProphet#evaluateChessboardValueByChessType(Chessboard, ChessType)}.
+     * 
+     * @param chessType
+     *            black or white.
+     * @return the value of the chess type.
+     */
+    public double getValue(ChessType chessType) {
+        this.update();
+        return this.values[chessType.ordinal()];
+    }
+
+    /**
+     * evaluate the stones around the points put since the last evaluation.
+     */
+    private void update() {
+        // the points taken back are the same as evaluated, and so are the stones
+        // around them. they are dropped before any stone is evaluated again.
+        int num = 0;
+        for (int i = 0; i < this.changedNum; ++i) {
+            int index = this.changedPoints[i];
+            this.isChanged[index] = false;
+            if (this.getChess(index / GomokuConst.CHESSBOARD_SIZE, index % GomokuConst.CHESSBOARD_SIZE)
+                    .ordinal() != this.stoneChessTypes[index]) {
+                this.changedPoints[num++] = index;
+            }
+        }
+        for (int i = 0; i < num; ++i) {
+            int row = this.changedPoints[i] / GomokuConst.CHESSBOARD_SIZE;
+            int column = this.changedPoints[i] % GomokuConst.CHESSBOARD_SIZE;
+            for (int direction = 0; direction < DIRECTION_NUM; ++direction) {
+                Point d = GomokuConst.DIRECTIONS[direction];
+                for (int j = -GomokuConst.CONSECUTIVE_NUM; j <= GomokuConst.CONSECUTIVE_NUM; ++j) {
+                    int x = row + d.x * j, y = column + d.y * j;
+                    if (GameReferee.isInChessboard(x, y) && (0 == j || !this.isEmpty(x, y))) {
+                        this.updateStone(x, y, direction);
+                    }
+                }
+            }
+        }
+        this.changedNum = 0;
+    }
+
+    /**
+     * evaluate the pattern of a point along a direction, and then the value of
+     * the stone on it.
+     */
+    private void updateStone(int row, int column, int direction) {
+        int index = row * GomokuConst.CHESSBOARD_SIZE + column;
+        this.values[this.stoneChessTypes[index]] -= this.stoneValues[index];
+        ChessType chessType = this.getChess(row, column);
+        if (ChessType.EMPTY == chessType) {
+            this.stoneValues[index] = 0;
+            this.stoneChessTypes[index] = (byte) ChessType.EMPTY.ordinal();
+            return;
+        }
+        this.patternTypes[index * DIRECTION_NUM + direction] = (byte) GlobalAnalyser
+                .getChessPatternType(this, row, column, direction).ordinal();
+        Arrays.fill(this.counter, 0);
+        for (int i = 0; i < DIRECTION_NUM; ++i) {
+            ++this.counter[this.patternTypes[index * DIRECTION_NUM + i]];
+        }
+        this.stoneValues[index] = AlphaBetaSearchProphet.evaluateChessPatternType(this.counter);
+        this.stoneChessTypes[index] = (byte) chessType.ordinal();
+        this.values[chessType.ordinal()] += this.stoneValues[index];
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.zhixiangli.gomoku.core.chessboard.Chessboard#clone()
+     */
+    @Override
+    public IncrementalChessboard clone() {
+        IncrementalChessboard clonedChessboard = (IncrementalChessboard) super.clone();
+        clonedChessboard.patternTypes = this.patternTypes.clone();
+        clonedChessboard.stoneValues = this.stoneValues.clone();
+        clonedChessboard.stoneChessTypes = this.stoneChessTypes.clone();
+        clonedChessboard.values = this.values.clone();
+        clonedChessboard.changedPoints = this.changedPoints.clone();
+        clonedChessboard.isChanged = this.isChanged.clone();
+        clonedChessboard.counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        clonedChessboard.neighborNums = this.neighborNums.clone();
+        clonedChessboard.candidateBits = this.candidateBits.clone();
+        return clonedChessboard;
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * lazy smp parallel search.
+ * 
+ * the main thread searches the root serially, while helper threads search the
+ * same root with staggered depths and move orders. the helpers' results are
+ * thrown away, they only fill the transposition table shared with the main
+ * thread, so the main thread finds most of its subtrees already searched.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class LazySmpSearch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazySmpSearch.class);
+
+    private AlphaBetaSearchAlgorithm algorithm;
+
+    private ExecutorService helperPool;
+
+    private int helperNum;
+
+    private List<Future<?>> helpers = new ArrayList<>();
+
+    /**
+     * 
+     * @param algorithm
+     *            the algorithm shared by all threads.
+     * @param threadNum
+     *            the number of threads including the main thread.
+     */
+    public LazySmpSearch(AlphaBetaSearchAlgorithm algorithm, int threadNum) {
+        Preconditions.checkArgument(threadNum > 0);
+        this.algorithm = algorithm;
+        this.helperNum = threadNum - 1;
+        if (this.helperNum > 0) {
+            this.helperPool = Executors.newFixedThreadPool(this.helperNum,
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("lazy-smp-helper-%d").build());
+        }
+    }
+
+    /**
+     * 
+     * start the helpers, which search until {@link #stopHelpers()} or the deadline
+     * of the algorithm.
+     * 
+     * @param chessboard
+     *            the chessboard before the move.
+     * @param candidates
+     *            the root candidates.
+     * @param chessType
+     *            the chess type to put.
+     */
+    public void startHelpers(Chessboard chessboard, Point[] candidates, ChessType chessType) {
+        Preconditions.checkState(this.helpers.isEmpty());
+        for (int i = 0; i < this.helperNum; ++i) {
+            final int helperIndex = i;
+            this.helpers.add(this.helperPool.submit(() -> this.runHelper(helperIndex, chessboard, candidates, chessType)));
+        }
+    }
+
+    /**
+     * stop the helpers and wait for them to finish. the algorithm can not search
+     * until its next search starts.
+     */
+    public void stopHelpers() {
+        this.algorithm.stop();
+        for (Future<?> helper : this.helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOGGER.error("lazy smp helper error: {}", e);
+            }
+        }
+        this.helpers.clear();
+    }
+
+    /**
+     * 
+     * search the root serially, every candidate narrows the window of the next
+     * ones.
+     * 
+     * @param chessboard
+     *            the chessboard before the move.
+     * @param candidates
+     *            the root candidates.
+     * @param chessType
+     *            the chess type to put.
+     * @param depth
+     *            the search depth.
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    public List<Pair<Point, Double>> searchRoot(Chessboard chessboard, Point[] candidates, ChessType chessType,
+            int depth) {
+        return this.searchRoot(chessboard, candidates, chessType, depth, -Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /**
+     * 
+     * search the root serially inside a window, every candidate narrows the
+     * window of the next ones.
+     * 
+     * @param chessboard
+     *            the chessboard before the move.
+     * @param candidates
+     *            the root candidates.
+     * @param chessType
+     *            the chess type to put.
+     * @param depth
+     *            the search depth.
+     * @param alpha
+     *            the lower bound of the window.
+     * @param beta
+     *            the upper bound of the window.
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    public List<Pair<Point, Double>> searchRoot(Chessboard chessboard, Point[] candidates, ChessType chessType,
+            int depth, double alpha, double beta) {
+        Chessboard newChessboard = chessboard.clone();
+        List<Pair<Point, Double>> pairs = new ArrayList<>(candidates.length);
+        boolean isTimeout = false;
+        for (Point point : candidates) {
+            Double value = null;
+            if (!isTimeout) {
+                // set chessboard.
+                newChessboard.setChess(point, chessType);
+                try {
+                    value = algorithm.search(depth, alpha, beta, newChessboard, point, chessType, chessType);
+                    if (value > alpha) {
+                        // after a fail high the next ones are only tested against the window.
+                        alpha = Math.min(value, Math.nextDown(beta));
+                    } else if (pairs.size() > 0) {
+                        // a failed low value is only an upper bound, keep it below the best one so
+                        // that it is not taken as a tie.
+                        value = Math.min(value, Math.nextDown(alpha));
+                    }
+                } catch (SearchTimeoutException e) {
+                    isTimeout = true;
+                } catch (Exception e) {
+                    LOGGER.error("alpha beta search error: {}", e);
+                    value = -Double.MAX_VALUE;
+                } finally {
+                    // unset chessboard.
+                    newChessboard.setChess(point, ChessType.EMPTY);
+                }
+            }
+            pairs.add(ImmutablePair.of(point, value));
+        }
+        return pairs;
+    }
+
+    private void runHelper(int helperIndex, Chessboard chessboard, Point[] candidates, ChessType chessType) {
+        // half of the helpers are one depth ahead of the others.
+        int depth = 1 + helperIndex % 2;
+        List<Point> orderedCandidates = new ArrayList<>(Arrays.asList(candidates));
+        Collections.rotate(orderedCandidates, -helperIndex);
+        for (; depth <= SearchConst.MAX_DEPTH; ++depth) {
+            List<Pair<Point, Double>> pairs = this.searchRoot(chessboard,
+                    orderedCandidates.toArray(new Point[0]), chessType, depth);
+            if (pairs.stream().anyMatch(pair -> null == pair.getValue())) {
+                return;
+            }
+            pairs.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+            orderedCandidates.clear();
+            pairs.forEach(pair -> orderedCandidates.add(pair.getKey()));
+            // keep the helpers off the main thread's move order.
+            Collections.rotate(orderedCandidates.subList(Math.min(1, orderedCandidates.size()),
+                    orderedCandidates.size()), -helperIndex);
+        }
+    }
+
+}
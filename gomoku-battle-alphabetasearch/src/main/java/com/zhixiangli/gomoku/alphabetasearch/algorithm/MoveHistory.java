@@ -0,0 +1,115 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * killer moves and history scores of the moves which caused cutoffs.
+ * 
+ * the killers are indexed by the number of stones on the chessboard, which is
+ * the ply of the position. the tables are updated by search threads without
+ * locks, a lost update only changes the move ordering.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class MoveHistory {
+
+    private static final int POINT_NUM = GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE;
+
+    /**
+     * killer moves of every ply, a move is stored as its index plus one, zero
+     * means no move.
+     */
+    private final int[] killers = new int[(POINT_NUM + 1) * SearchConst.KILLER_NUM];
+
+    /**
+     * history scores of black moves first and then white moves.
+     */
+    private final long[] history = new long[2 * POINT_NUM];
+
+    /**
+     * 
+     * record a move which caused a cutoff.
+     * 
+     * @param chessType
+     *            the chess type of the move.
+     * @param move
+     *            the move.
+     * @param stoneCount
+     *            the number of stones before the move.
+     * @param depth
+     *            the depth searched below the move.
+     */
+    public void addCutoff(ChessType chessType, Point move, int stoneCount, int depth) {
+        int code = pointIndex(move) + 1;
+        int base = stoneCount * SearchConst.KILLER_NUM;
+        if (this.killers[base] != code) {
+            System.arraycopy(this.killers, base, this.killers, base + 1, SearchConst.KILLER_NUM - 1);
+            this.killers[base] = code;
+        }
+        // deep cutoffs save more nodes.
+        this.history[historyIndex(chessType, move)] += (long) (depth + 1) * (depth + 1);
+    }
+
+    /**
+     * 
+     * @param stoneCount
+     *            the number of stones before the move.
+     * @param slot
+     *            the slot of the killer, the most recent one is 0.
+     * @return the killer move, or null if there is none.
+     */
+    public Point getKiller(int stoneCount, int slot) {
+        Preconditions.checkArgument(slot >= 0 && slot < SearchConst.KILLER_NUM);
+        int code = this.killers[stoneCount * SearchConst.KILLER_NUM + slot];
+        return 0 == code ? null
+                : new Point((code - 1) / GomokuConst.CHESSBOARD_SIZE, (code - 1) % GomokuConst.CHESSBOARD_SIZE);
+    }
+
+    /**
+     * 
+     * @param chessType
+     *            the chess type of the move.
+     * @param move
+     *            the move.
+     * @return the history score of the move, which grows with its cutoffs.
+     */
+    public long getHistory(ChessType chessType, Point move) {
+        return this.history[historyIndex(chessType, move)];
+    }
+
+    /**
+     * forget the killers and halve the history, so that the scores of the
+     * previous moves fade out.
+     */
+    public void age() {
+        Arrays.fill(this.killers, 0);
+        for (int i = 0; i < this.history.length; ++i) {
+            this.history[i] >>= 1;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(this.killers, 0);
+        Arrays.fill(this.history, 0);
+    }
+
+    private static int pointIndex(Point point) {
+        return point.x * GomokuConst.CHESSBOARD_SIZE + point.y;
+    }
+
+    private static int historyIndex(ChessType chessType, Point point) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        return (ChessType.BLACK == chessType ? 0 : POINT_NUM) + pointIndex(point);
+    }
+
+}
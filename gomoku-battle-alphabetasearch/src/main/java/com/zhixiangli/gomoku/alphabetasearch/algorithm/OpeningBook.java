@@ -0,0 +1,182 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * opening book of weighted moves, keyed by the zobrist key of the position.
+ * 
+ * the file is a header followed by fixed-size entries of the key, the move and
+ * its weight, sorted by the key. it is memory mapped read only and probed by a
+ * binary search, so the agents on a host share the pages of one book.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class OpeningBook {
+
+    private static final int MAGIC = 0x474D4F42;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private static final int ENTRY_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+
+    private final int entryNum;
+
+    private OpeningBook(ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.capacity() >= HEADER_SIZE, "not an opening book");
+        Preconditions.checkArgument(MAGIC == buffer.getInt(0), "not an opening book");
+        Preconditions.checkArgument(VERSION == buffer.getInt(Integer.BYTES), "unsupported opening book version");
+        this.buffer = buffer;
+        this.entryNum = buffer.getInt(2 * Integer.BYTES);
+        Preconditions.checkArgument(buffer.capacity() >= HEADER_SIZE + (long) this.entryNum * ENTRY_SIZE,
+                "truncated opening book");
+    }
+
+    /**
+     * 
+     * map the book file.
+     * 
+     * @param path
+     *            the book file.
+     * @return the book.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * 
+     * write a book file.
+     * 
+     * @param path
+     *            the book file, it is replaced.
+     * @param book
+     *            the moves and their weights of the positions, by the zobrist key.
+     * @throws IOException
+     *             if the file can not be written.
+     */
+    public static void write(Path path, SortedMap<Long, Map<Point, Integer>> book) throws IOException {
+        int entryNum = book.values().stream().mapToInt(Map::size).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entryNum * ENTRY_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(entryNum).putInt(0);
+        // the sorted map orders the keys as signed longs, as the binary search does.
+        for (Map.Entry<Long, Map<Point, Integer>> entry : book.entrySet()) {
+            for (Map.Entry<Point, Integer> move : entry.getValue().entrySet()) {
+                Preconditions.checkArgument(move.getValue() > 0);
+                buffer.putLong(entry.getKey()).putInt(pointIndex(move.getKey())).putInt(move.getValue());
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the current chessboard.
+     * @return the moves of the position and their weights, the empty points only.
+     */
+    public Map<Point, Integer> getMoves(Chessboard chessboard) {
+        long key = chessboard.getZobristKey();
+        Map<Point, Integer> moves = new LinkedHashMap<>();
+        for (int i = this.lowerBound(key); i < this.entryNum && this.getKey(i) == key; ++i) {
+            int offset = HEADER_SIZE + i * ENTRY_SIZE;
+            int index = this.buffer.getInt(offset + Long.BYTES);
+            Point point = new Point(index / GomokuConst.CHESSBOARD_SIZE, index % GomokuConst.CHESSBOARD_SIZE);
+            // a collision of the keys may give an occupied point.
+            if (chessboard.isEmpty(point)) {
+                moves.put(point, this.buffer.getInt(offset + Long.BYTES + Integer.BYTES));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the current chessboard.
+     * @return a move chosen in proportion to the weights, or null if the position
+     *         is not in the book.
+     */
+    public Point probe(Chessboard chessboard) {
+        Map<Point, Integer> moves = this.getMoves(chessboard);
+        if (moves.isEmpty()) {
+            return null;
+        }
+        List<Point> points = new ArrayList<>(moves.keySet());
+        long r = ThreadLocalRandom.current().nextLong(moves.values().stream().mapToLong(Integer::longValue).sum());
+        for (Point point : points) {
+            r -= moves.get(point);
+            if (r < 0) {
+                return point;
+            }
+        }
+        return points.get(points.size() - 1);
+    }
+
+    /**
+     * @return the number of moves in the book.
+     */
+    public int size() {
+        return this.entryNum;
+    }
+
+    /**
+     * @return the index of the first entry whose key is not less than the key.
+     */
+    private int lowerBound(long key) {
+        int low = 0, high = this.entryNum;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.getKey(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(int index) {
+        return this.buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+    }
+
+    private static int pointIndex(Point point) {
+        return point.x * GomokuConst.CHESSBOARD_SIZE + point.y;
+    }
+
+}
@@ -0,0 +1,388 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * position cache kept in a file, shared by games and by agent processes.
+ * 
+ * the file is a header, an index of slots and an append-only region of
+ * records of the key, the depth, the bound, the score and the checksum of a
+ * position. a slot holds the number of a record, and a deeper record of a key
+ * is appended and replaces the shallower one in its slot. the file is memory
+ * mapped, lookups read the mapping without locks and miss a record another
+ * process is writing, whose checksum does not match yet. the stores are kept
+ * in memory and appended in a batch under the lock of the file, once per
+ * search or when the batch is full.
+ * 
+ * a position is keyed by the smallest zobrist key of its 8 rotations and
+ * reflections, so symmetric positions share their records.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class PersistentCache implements Closeable {
+
+    private static final int MAGIC = 0x474D5043;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 8 * Integer.BYTES;
+
+    private static final int SLOT_BITS_OFFSET = 2 * Integer.BYTES;
+
+    private static final int RECORD_NUM_OFFSET = 3 * Integer.BYTES;
+
+    private static final int RECORD_SIZE = Long.BYTES + 2 * Integer.BYTES + Double.BYTES + Long.BYTES;
+
+    private static final int DEPTH_OFFSET = Long.BYTES;
+
+    private static final int BOUND_OFFSET = DEPTH_OFFSET + Integer.BYTES;
+
+    private static final int SCORE_OFFSET = BOUND_OFFSET + Integer.BYTES;
+
+    private static final int CHECKSUM_OFFSET = SCORE_OFFSET + Double.BYTES;
+
+    private static final TranspositionTable.Bound[] BOUNDS = TranspositionTable.Bound.values();
+
+    /**
+     * the number of rotations and reflections of the chessboard.
+     */
+    private static final int SYMMETRY_NUM = 8;
+
+    /**
+     * the point index of every point under every symmetry but the identity.
+     */
+    private static final int[][] SYMMETRY_INDEX = new int[SYMMETRY_NUM][GomokuConst.CHESSBOARD_SIZE
+            * GomokuConst.CHESSBOARD_SIZE];
+
+    static {
+        int last = GomokuConst.CHESSBOARD_SIZE - 1;
+        for (int symmetry = 1; symmetry < SYMMETRY_NUM; ++symmetry) {
+            for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
+                for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
+                    // reflect, then rotate by 90 degrees.
+                    int x = row, y = (symmetry & 4) == 0 ? column : last - column;
+                    for (int i = 0; i < (symmetry & 3); ++i) {
+                        int t = x;
+                        x = y;
+                        y = last - t;
+                    }
+                    SYMMETRY_INDEX[symmetry][row * GomokuConst.CHESSBOARD_SIZE
+                            + column] = x * GomokuConst.CHESSBOARD_SIZE + y;
+                }
+            }
+        }
+    }
+
+    /**
+     * the number of slots visited from the home slot of a key.
+     */
+    private static final int MAX_PROBE_NUM = 8;
+
+    /**
+     * the number of stores kept in memory before they are appended.
+     */
+    private static final int MAX_PENDING_NUM = 1024;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slotMask;
+
+    private final int recordCapacity;
+
+    private final int recordBase;
+
+    private final long[] pendingKeys = new long[MAX_PENDING_NUM];
+
+    private final int[] pendingDepths = new int[MAX_PENDING_NUM];
+
+    private final double[] pendingScores = new double[MAX_PENDING_NUM];
+
+    private final TranspositionTable.Bound[] pendingBounds = new TranspositionTable.Bound[MAX_PENDING_NUM];
+
+    private int pendingNum;
+
+    private PersistentCache(FileChannel channel, MappedByteBuffer buffer) {
+        Preconditions.checkArgument(MAGIC == buffer.getInt(0), "not a persistent cache");
+        Preconditions.checkArgument(VERSION == buffer.getInt(Integer.BYTES), "unsupported persistent cache version");
+        int slotBits = buffer.getInt(SLOT_BITS_OFFSET);
+        Preconditions.checkArgument(buffer.capacity() == fileSize(slotBits), "truncated persistent cache");
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotMask = (1 << slotBits) - 1;
+        this.recordCapacity = recordCapacity(slotBits);
+        this.recordBase = HEADER_SIZE + (1 << slotBits) * Integer.BYTES;
+    }
+
+    /**
+     * 
+     * map the cache file, it is created if it does not exist.
+     * 
+     * @param path
+     *            the cache file.
+     * @param slotBits
+     *            a new file has 2^slotBits slots and half as many records, an
+     *            existing file keeps its size.
+     * @return the cache.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    public static PersistentCache open(Path path, int slotBits) throws IOException {
+        Preconditions.checkArgument(slotBits > 1 && slotBits < Integer.SIZE - 6);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size;
+            // another process may be creating the same file.
+            FileLock lock = channel.lock();
+            try {
+                size = channel.size();
+                if (0 == size) {
+                    size = fileSize(slotBits);
+                    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                    header.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION).putInt(SLOT_BITS_OFFSET, slotBits);
+                    header.force();
+                }
+            } finally {
+                lock.release();
+            }
+            return new PersistentCache(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 
+     * look up a position, the stores not appended yet are not found.
+     * 
+     * @param key
+     *            the position key.
+     * @param entry
+     *            filled with the stored content if found, there is no best move.
+     * @return true if the position is found, a torn or broken record is a miss.
+     */
+    public boolean probe(long key, TranspositionTable.Entry entry) {
+        int home = slot(key);
+        for (int i = 0; i < MAX_PROBE_NUM; ++i) {
+            int record = this.buffer.getInt(HEADER_SIZE + ((home + i) & this.slotMask) * Integer.BYTES);
+            if (record <= 0 || record > this.recordCapacity) {
+                return false;
+            }
+            // records are never changed once complete, but the slot may point to
+            // one before its bytes reach this process.
+            int offset = this.recordOffset(record);
+            if (this.buffer.getLong(offset) == key) {
+                int depth = this.buffer.getInt(offset + DEPTH_OFFSET);
+                int bound = this.buffer.getInt(offset + BOUND_OFFSET);
+                double score = this.buffer.getDouble(offset + SCORE_OFFSET);
+                if (depth < 0 || bound < 0 || bound >= BOUNDS.length
+                        || this.buffer.getLong(offset + CHECKSUM_OFFSET) != checksum(key, depth, bound, score)) {
+                    return false;
+                }
+                entry.set(depth, BOUNDS[bound], score, null);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 
+     * store a searched position, it is appended with the batch by
+     * {@link #flush()}. a stored one of the key is only replaced by a search at
+     * least as deep. nothing is stored once the records are used up.
+     * 
+     * @param key
+     *            the position key.
+     * @param depth
+     *            the depth the score was searched to.
+     * @param score
+     *            the score.
+     * @param bound
+     *            the type of the score.
+     * @throws IOException
+     *             if the batch is full and the file can not be locked.
+     */
+    public synchronized void store(long key, int depth, double score, TranspositionTable.Bound bound)
+            throws IOException {
+        Preconditions.checkArgument(depth >= 0);
+        this.pendingKeys[this.pendingNum] = key;
+        this.pendingDepths[this.pendingNum] = depth;
+        this.pendingScores[this.pendingNum] = score;
+        this.pendingBounds[this.pendingNum] = bound;
+        if (++this.pendingNum == MAX_PENDING_NUM) {
+            this.flush();
+        }
+    }
+
+    /**
+     * append the stores kept in memory under a single lock of the file.
+     * 
+     * @throws IOException
+     *             if the file can not be locked, the stores are dropped.
+     */
+    public synchronized void flush() throws IOException {
+        if (0 == this.pendingNum) {
+            return;
+        }
+        try {
+            FileLock lock = this.channel.lock();
+            try {
+                for (int i = 0; i < this.pendingNum; ++i) {
+                    this.append(this.pendingKeys[i], this.pendingDepths[i], this.pendingScores[i],
+                            this.pendingBounds[i]);
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            this.pendingNum = 0;
+        }
+    }
+
+    /**
+     * append a record with the lock of the file held.
+     */
+    private void append(long key, int depth, double score, TranspositionTable.Bound bound) {
+        int recordNum = this.buffer.getInt(RECORD_NUM_OFFSET);
+        if (recordNum >= this.recordCapacity) {
+            return;
+        }
+        int home = slot(key);
+        // a full probe sequence gives up its shallowest position.
+        int target = home;
+        int targetDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < MAX_PROBE_NUM; ++i) {
+            int slot = (home + i) & this.slotMask;
+            int record = this.buffer.getInt(HEADER_SIZE + slot * Integer.BYTES);
+            int storedDepth = -1;
+            // a broken slot is taken as an empty one.
+            if (record > 0 && record <= recordNum) {
+                int offset = this.recordOffset(record);
+                storedDepth = this.buffer.getInt(offset + DEPTH_OFFSET);
+                if (this.buffer.getLong(offset) != key) {
+                    if (storedDepth < targetDepth) {
+                        target = slot;
+                        targetDepth = storedDepth;
+                    }
+                    continue;
+                }
+            }
+            target = slot;
+            targetDepth = storedDepth;
+            break;
+        }
+        if (targetDepth > depth) {
+            return;
+        }
+        int offset = this.recordOffset(recordNum + 1);
+        this.buffer.putLong(offset, key).putInt(offset + DEPTH_OFFSET, depth)
+                .putInt(offset + BOUND_OFFSET, bound.ordinal()).putDouble(offset + SCORE_OFFSET, score)
+                .putLong(offset + CHECKSUM_OFFSET, checksum(key, depth, bound.ordinal(), score));
+        // the record is complete before any slot points to it.
+        this.buffer.putInt(HEADER_SIZE + target * Integer.BYTES, recordNum + 1);
+        this.buffer.putInt(RECORD_NUM_OFFSET, recordNum + 1);
+    }
+
+    /**
+     * 
+     * compute the key of a position and its symmetries from its stones, only the
+     * nodes kept in the cache need it.
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @return the smallest zobrist key of the rotations and reflections of the
+     *         chessboard, symmetric chessboards have equal keys.
+     */
+    public static long canonicalKey(Chessboard chessboard) {
+        long[] keys = new long[SYMMETRY_NUM];
+        for (ChessType chessType : new ChessType[] { ChessType.BLACK, ChessType.WHITE }) {
+            for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
+                // the bits of a row are its columns.
+                int line = chessboard.getLine(chessType, row, 0, 1);
+                while (0 != line) {
+                    int index = row * GomokuConst.CHESSBOARD_SIZE + Integer.numberOfTrailingZeros(line);
+                    line &= line - 1;
+                    for (int symmetry = 1; symmetry < SYMMETRY_NUM; ++symmetry) {
+                        int symmetryIndex = SYMMETRY_INDEX[symmetry][index];
+                        keys[symmetry] ^= Chessboard.getZobristKey(symmetryIndex / GomokuConst.CHESSBOARD_SIZE,
+                                symmetryIndex % GomokuConst.CHESSBOARD_SIZE, chessType);
+                    }
+                }
+            }
+        }
+        long key = chessboard.getZobristKey();
+        for (int symmetry = 1; symmetry < SYMMETRY_NUM; ++symmetry) {
+            key = Math.min(key, keys[symmetry]);
+        }
+        return key;
+    }
+
+    /**
+     * @return the number of stored records, replaced ones included.
+     */
+    public int size() {
+        return this.buffer.getInt(RECORD_NUM_OFFSET);
+    }
+
+    /**
+     * append the stores, write the mapping to the file and close it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            this.flush();
+            this.buffer.force();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ key >>> Integer.SIZE) & this.slotMask;
+    }
+
+    /**
+     * @return the offset of a record, the records are numbered from 1.
+     */
+    private int recordOffset(int record) {
+        return this.recordBase + (record - 1) * RECORD_SIZE;
+    }
+
+    /**
+     * @return the checksum of the content of a record, a record torn by a
+     *         concurrent write hardly matches it.
+     */
+    static long checksum(long key, int depth, int bound, double score) {
+        long hash = key * 0x9E3779B97F4A7C15L + ((long) depth << Integer.SIZE | bound);
+        hash = hash * 0x9E3779B97F4A7C15L + Double.doubleToRawLongBits(score);
+        return hash ^ hash >>> (Integer.SIZE - 1);
+    }
+
+    private static int recordCapacity(int slotBits) {
+        return 1 << (slotBits - 1);
+    }
+
+    private static int fileSize(int slotBits) {
+        return HEADER_SIZE + (1 << slotBits) * Integer.BYTES + recordCapacity(slotBits) * RECORD_SIZE;
+    }
+
+}
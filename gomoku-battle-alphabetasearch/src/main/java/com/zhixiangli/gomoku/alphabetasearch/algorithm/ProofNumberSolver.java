@@ -0,0 +1,414 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.analysis.PatternType;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * depth-first proof number search.
+ * 
+ * every node keeps its proof and disproof numbers from the perspective of the
+ * chess type to put: phi is the number of leaves to prove that it reaches its
+ * goal, delta is the number to prove that it does not. the goal of the attacker
+ * is a five, the goal of the defender is to stop it. the search always goes
+ * into the most proving child, and only leaves it when its numbers exceed the
+ * thresholds derived from the brothers.
+ * 
+ * the attacker puts fours and open threes. the defender blocks a five, or puts
+ * a point on the line of every open four or double four the attacker would
+ * put, or a four of its own. any other move loses to the open four, so the
+ * defences are complete and a proof is exact. if the attacker has only fours,
+ * the defender tries every empty point, and so it does at the root. otherwise
+ * the defender is free, the attacker is taken to fail there. near the end of
+ * the game both sides try every empty point, then a disproof is exact and a
+ * draw can be proven.
+ * 
+ * the numbers are kept in a fixed-size node table, an entry with less work below
+ * it is replaced first. the solver is not thread safe.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class ProofNumberSolver {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final int maxNodes;
+
+    private final int mask;
+
+    private final long[] keys;
+
+    private final int[] phis;
+
+    private final int[] deltas;
+
+    /**
+     * the number of nodes visited below the entry, the more valuable to keep.
+     */
+    private final int[] works;
+
+    private int nodeNum;
+
+    private LongSupplier deadline;
+
+    private Point rootMove;
+
+    /**
+     * 
+     * @param maxNodes
+     *            the max number of positions to visit in a solve.
+     * @param tableSizeBits
+     *            the node table holds 2^tableSizeBits entries.
+     */
+    public ProofNumberSolver(int maxNodes, int tableSizeBits) {
+        Preconditions.checkArgument(maxNodes > 0);
+        Preconditions.checkArgument(tableSizeBits > 0 && tableSizeBits < Integer.SIZE - 1);
+        this.maxNodes = maxNodes;
+        this.mask = (1 << tableSizeBits) - 1;
+        this.keys = new long[1 << tableSizeBits];
+        this.phis = new int[1 << tableSizeBits];
+        this.deltas = new int[1 << tableSizeBits];
+        this.works = new int[1 << tableSizeBits];
+    }
+
+    /**
+     * 
+     * prove the outcome of the position.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the chess type to put.
+     * @return the outcome for the chess type to put, unknown if it is not proven
+     *         within the max number of positions.
+     */
+    public ProofResult solve(Chessboard chessboard, ChessType chessType) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        Chessboard newChessboard = chessboard.clone();
+        this.start(() -> Long.MAX_VALUE);
+        try {
+            if (this.prove(newChessboard, chessType, chessType)) {
+                return new ProofResult(ProofResult.Outcome.WIN, this.rootMove, this.nodeNum);
+            }
+            if (this.prove(newChessboard, chessType, GameReferee.nextChessType(chessType))) {
+                return new ProofResult(ProofResult.Outcome.LOSS, null, this.nodeNum);
+            }
+            if (isExact(newChessboard)) {
+                return new ProofResult(ProofResult.Outcome.DRAW, null, this.nodeNum);
+            }
+        } catch (SearchTimeoutException e) {
+            // not proven within the budget.
+        }
+        return new ProofResult(ProofResult.Outcome.UNKNOWN, null, this.nodeNum);
+    }
+
+    /**
+     * 
+     * prove a win of the chess type to put.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the chess type to put.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it, it
+     *            is read at every node and may be moved while proving.
+     * @return the winning move, or null if it is not proven within the budget.
+     */
+    public Point proveWin(Chessboard chessboard, ChessType chessType, LongSupplier deadline) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        this.start(deadline);
+        try {
+            if (this.prove(chessboard.clone(), chessType, chessType)) {
+                return this.rootMove;
+            }
+        } catch (SearchTimeoutException e) {
+            // not proven within the budget.
+        }
+        return null;
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the current chessboard.
+     * @param chessType
+     *            the chess type to put.
+     * @return true if a side has a four or an open three, a forced result is
+     *         likely to be proven quickly.
+     */
+    public static boolean isSharp(Chessboard chessboard, ChessType chessType) {
+        return ThreatAnalyser.getThreatPoints(chessboard, chessType, false).length > 0
+                || ThreatAnalyser.getThreatPoints(chessboard, GameReferee.nextChessType(chessType), false).length > 0;
+    }
+
+    private void start(LongSupplier deadline) {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.works, 0);
+        this.nodeNum = 0;
+        this.deadline = deadline;
+        this.rootMove = null;
+    }
+
+    /**
+     * @return true if the attacker wins, false if it does not.
+     */
+    private boolean prove(Chessboard chessboard, ChessType chessType, ChessType attacker)
+            throws SearchTimeoutException {
+        long numbers = this.search(chessboard, chessType, attacker, chessboard.getZobristKey(), INFINITY, INFINITY,
+                true);
+        // the defender reaches its goal if the attacker does not.
+        return (chessType == attacker) == (0 == phi(numbers));
+    }
+
+    /**
+     * 
+     * search the node until its numbers reach the thresholds.
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @param chessType
+     *            the chess type to put.
+     * @param attacker
+     *            the chess type to put a five.
+     * @param zobristKey
+     *            the zobrist key of the chessboard.
+     * @param phiThreshold
+     *            the threshold of phi.
+     * @param deltaThreshold
+     *            the threshold of delta.
+     * @param isRoot
+     *            true if the node is the root, whose winning move is kept.
+     * @return phi and delta packed in a long.
+     */
+    private long search(Chessboard chessboard, ChessType chessType, ChessType attacker, long zobristKey,
+            int phiThreshold, int deltaThreshold, boolean isRoot) throws SearchTimeoutException {
+        if (++this.nodeNum > this.maxNodes || System.currentTimeMillis() > this.deadline.getAsLong()) {
+            throw new SearchTimeoutException();
+        }
+        long key = nodeKey(zobristKey, chessType, attacker);
+        long numbers = this.lookup(key);
+        if (phi(numbers) >= phiThreshold || delta(numbers) >= deltaThreshold) {
+            return numbers;
+        }
+        int startNodeNum = this.nodeNum;
+        Point[] moves = generateMoves(chessboard, chessType, attacker, isRoot);
+        if (null == moves) {
+            return this.store(key, pack(0, INFINITY), 0);
+        }
+        if (moves.length == 0) {
+            return this.store(key, pack(INFINITY, 0), 0);
+        }
+
+        ChessType nextChessType = GameReferee.nextChessType(chessType);
+        long[] childZobristKeys = new long[moves.length];
+        int[] childPhis = new int[moves.length];
+        int[] childDeltas = new int[moves.length];
+        for (int i = 0; i < moves.length; ++i) {
+            childZobristKeys[i] = zobristKey ^ Chessboard.getZobristKey(moves[i].x, moves[i].y, chessType);
+            long childNumbers = this.lookup(nodeKey(childZobristKeys[i], nextChessType, attacker));
+            childPhis[i] = phi(childNumbers);
+            childDeltas[i] = delta(childNumbers);
+        }
+        while (true) {
+            // the chess type reaches its goal by any child, and fails only if all of them
+            // fail.
+            int phi = INFINITY;
+            long delta = 0;
+            int bestIndex = 0;
+            int secondDelta = INFINITY;
+            for (int i = 0; i < moves.length; ++i) {
+                if (childDeltas[i] < phi) {
+                    secondDelta = phi;
+                    phi = childDeltas[i];
+                    bestIndex = i;
+                } else if (childDeltas[i] < secondDelta) {
+                    secondDelta = childDeltas[i];
+                }
+                delta = Math.min(delta + childPhis[i], INFINITY);
+            }
+            if (phi >= phiThreshold || delta >= deltaThreshold) {
+                if (isRoot && 0 == phi) {
+                    this.rootMove = moves[bestIndex];
+                }
+                return this.store(key, pack(phi, (int) delta), this.nodeNum - startNodeNum);
+            }
+            int childPhiThreshold = (int) Math.min((long) deltaThreshold - delta + childPhis[bestIndex], INFINITY);
+            int childDeltaThreshold = (int) Math.min(phiThreshold, (long) secondDelta + 1);
+            Point move = moves[bestIndex];
+            chessboard.setChess(move, chessType);
+            try {
+                long childNumbers = this.search(chessboard, nextChessType, attacker, childZobristKeys[bestIndex],
+                        childPhiThreshold, childDeltaThreshold, false);
+                childPhis[bestIndex] = phi(childNumbers);
+                childDeltas[bestIndex] = delta(childNumbers);
+            } finally {
+                chessboard.setChess(move, ChessType.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * @return the moves of the chess type, null if it reaches its goal without a
+     *         move, or empty if no move reaches it.
+     */
+    private static Point[] generateMoves(Chessboard chessboard, ChessType chessType, ChessType attacker,
+            boolean isRoot) {
+        if (!ThreatAnalyser.getFivePoints(chessboard, chessType).isEmpty()) {
+            return null;
+        }
+        Set<Point> fives = ThreatAnalyser.getFivePoints(chessboard, GameReferee.nextChessType(chessType));
+        if (!fives.isEmpty()) {
+            // the five must be blocked, two of them are blocked in vain.
+            return fives.size() > 1 ? new Point[] { fives.iterator().next() } : fives.toArray(new Point[0]);
+        }
+        if (isExact(chessboard)) {
+            Point[] points = getEmptyPoints(chessboard);
+            // no one can put a five on a full chessboard.
+            return points.length == 0 && chessType != attacker ? null : points;
+        }
+        if (chessType == attacker) {
+            return ThreatAnalyser.getThreatPoints(chessboard, attacker, true);
+        }
+        if (!ThreatAnalyser.getOpenFourPoints(chessboard, attacker).isEmpty()) {
+            return getDefences(chessboard, attacker);
+        }
+        // the fours of the attacker may still win, and any point may stop them. so
+        // does the root, which a loss is proven from.
+        if (isRoot || ThreatAnalyser.getThreatPoints(chessboard, attacker, false).length > 0) {
+            return getEmptyPoints(chessboard);
+        }
+        // the defender is free.
+        return null;
+    }
+
+    /**
+     * 
+     * get every move of the defender which does not lose to the open fours and
+     * double fours of the attacker. a point off their lines leaves them as they
+     * are, and a point on them is kept if none of them is left. a four of the
+     * defender gains a move, the attacker has to block it first.
+     * 
+     * @param chessboard
+     *            the chessboard, the attacker has no five to put.
+     * @param attacker
+     *            the chess type to put a five.
+     * @return the defences.
+     */
+    private static Point[] getDefences(Chessboard chessboard, ChessType attacker) {
+        List<Point> openFours = ThreatAnalyser.getOpenFourPoints(chessboard, attacker);
+        Set<Point> points = new LinkedHashSet<>();
+        for (Point four : openFours) {
+            points.add(four);
+            chessboard.setChess(four, attacker);
+            for (Point direction : GomokuConst.DIRECTIONS) {
+                PatternType patternType = GlobalAnalyser.getChessPatternType(chessboard, four, direction);
+                if (PatternType.OPEN_FOUR != patternType && PatternType.HALF_OPEN_FOUR != patternType) {
+                    continue;
+                }
+                for (int step = -GomokuConst.CONSECUTIVE_NUM; step <= GomokuConst.CONSECUTIVE_NUM; ++step) {
+                    Point point = new Point(four.x + direction.x * step, four.y + direction.y * step);
+                    if (GameReferee.isInChessboard(point) && chessboard.isEmpty(point)) {
+                        points.add(point);
+                    }
+                }
+            }
+            chessboard.setChess(four, ChessType.EMPTY);
+        }
+        ChessType defender = GameReferee.nextChessType(attacker);
+        Set<Point> defences = new LinkedHashSet<>();
+        for (Point point : points) {
+            chessboard.setChess(point, defender);
+            if (openFours.stream().noneMatch(
+                    four -> chessboard.isEmpty(four) && ThreatAnalyser.isOpenFour(chessboard, four, attacker))) {
+                defences.add(point);
+            }
+            chessboard.setChess(point, ChessType.EMPTY);
+        }
+        defences.addAll(Arrays.asList(ThreatAnalyser.getThreatPoints(chessboard, defender, false)));
+        return defences.toArray(new Point[0]);
+    }
+
+    private static Point[] getEmptyPoints(Chessboard chessboard) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
+            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+                if (chessboard.isEmpty(i, j)) {
+                    points.add(new Point(i, j));
+                }
+            }
+        }
+        return points.toArray(new Point[0]);
+    }
+
+    /**
+     * @return true if both sides try every empty point.
+     */
+    private static boolean isExact(Chessboard chessboard) {
+        return GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE
+                - chessboard.getStoneCount() <= SearchConst.PN_EXACT_EMPTY_NUM;
+    }
+
+    private long lookup(long key) {
+        int bucket = (int) key & this.mask & ~1;
+        for (int slot = bucket; slot <= (bucket | 1); ++slot) {
+            if (0 != this.works[slot] && this.keys[slot] == key) {
+                return pack(this.phis[slot], this.deltas[slot]);
+            }
+        }
+        // an unknown node is as hard to prove as to disprove.
+        return pack(1, 1);
+    }
+
+    /**
+     * @return the numbers.
+     */
+    private long store(long key, long numbers, int work) {
+        // the two slots of a bucket, the matching one or the one with less work is
+        // replaced.
+        int slot = (int) key & this.mask & ~1;
+        if (this.keys[slot | 1] == key || this.keys[slot] != key && this.works[slot | 1] < this.works[slot]) {
+            slot |= 1;
+        }
+        this.keys[slot] = key;
+        this.phis[slot] = phi(numbers);
+        this.deltas[slot] = delta(numbers);
+        // zero marks an empty slot.
+        this.works[slot] = Math.max(work, 1);
+        return numbers;
+    }
+
+    private static long nodeKey(long zobristKey, ChessType chessType, ChessType attacker) {
+        return (zobristKey * 31 + chessType.ordinal()) * 31 + attacker.ordinal();
+    }
+
+    private static long pack(int phi, int delta) {
+        return (long) phi << Integer.SIZE | delta & 0xFFFFFFFFL;
+    }
+
+    private static int phi(long numbers) {
+        return (int) (numbers >>> Integer.SIZE);
+    }
+
+    private static int delta(long numbers) {
+        return (int) numbers;
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+
+/**
+ * the outcome of a position proven by the proof number search.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class ProofResult {
+
+    /**
+     * the outcome for the chess type to put.
+     */
+    public enum Outcome {
+
+        /**
+         * the chess type to put wins.
+         */
+        WIN,
+
+        /**
+         * the other chess type wins.
+         */
+        LOSS,
+
+        /**
+         * no one can put a five.
+         */
+        DRAW,
+
+        /**
+         * not proven within the budget or the candidates.
+         */
+        UNKNOWN,
+
+        ;
+    }
+
+    private final Outcome outcome;
+
+    private final Point move;
+
+    private final int nodeNum;
+
+    /**
+     * 
+     * @param outcome
+     *            the outcome.
+     * @param move
+     *            the winning move, or null if the outcome is not a win.
+     * @param nodeNum
+     *            the number of positions visited.
+     */
+    public ProofResult(Outcome outcome, Point move, int nodeNum) {
+        this.outcome = outcome;
+        this.move = move;
+        this.nodeNum = nodeNum;
+    }
+
+    /**
+     * @return the outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the winning move, or null if the outcome is not a win.
+     */
+    public Point getMove() {
+        return move;
+    }
+
+    /**
+     * @return the number of positions visited.
+     */
+    public int getNodeNum() {
+        return nodeNum;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "ProofResult [outcome=" + outcome + ", move=" + move + ", nodeNum=" + nodeNum + "]";
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the value of a search and its principal variation.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class SearchResult {
+
+    private final double value;
+
+    private final List<Point> principalVariation;
+
+    public SearchResult(double value, List<Point> principalVariation) {
+        this.value = value;
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+    }
+
+    /**
+     * @return the value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return the moves both sides are expected to put, it is cut short where
+     *         the search used the transposition table.
+     */
+    public List<Point> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "SearchResult [value=" + value + ", principalVariation=" + principalVariation + "]";
+    }
+
+}
@@ -0,0 +1,251 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * counters of the searches of a move, or of a game when the moves are added
+ * up.
+ * 
+ * the counters are striped, so the search threads update them without
+ * contending on a shared cache line, and they are only summed when read.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class SearchStatistics {
+
+    /**
+     * the phases of the search of a move.
+     */
+    public enum Phase {
+        BOOK("book"), VCF("vcf"), VCT("vct"), PROOF_NUMBER("proofNumber"), ALPHA_BETA("alphaBeta");
+
+        /**
+         * the name of the phase in the log.
+         */
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * the cutoffs by the moves at this index or later are counted together.
+     */
+    private static final int CUTOFF_INDEX_NUM = 8;
+
+    private final LongAdder searchNum = new LongAdder();
+
+    private final LongAdder nodeNum = new LongAdder();
+
+    private final LongAdder leafNum = new LongAdder();
+
+    private final LongAdder[] cutoffNums = Stream.generate(LongAdder::new).limit(CUTOFF_INDEX_NUM)
+            .toArray(LongAdder[]::new);
+
+    private final LongAdder cacheProbeNum = new LongAdder();
+
+    private final LongAdder cacheHitNum = new LongAdder();
+
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder[] phaseNanos = Stream.generate(LongAdder::new).limit(Phase.values().length)
+            .toArray(LongAdder[]::new);
+
+    /**
+     * the number of stones at the root, the depth of a node is counted from it.
+     */
+    private volatile int rootStoneCount;
+
+    /**
+     * 
+     * clear the counters for the search of a move.
+     * 
+     * @param rootStoneCount
+     *            the number of stones at the root.
+     */
+    public void reset(int rootStoneCount) {
+        this.rootStoneCount = rootStoneCount;
+        this.searchNum.reset();
+        this.nodeNum.reset();
+        this.leafNum.reset();
+        Arrays.stream(this.cutoffNums).forEach(LongAdder::reset);
+        this.cacheProbeNum.reset();
+        this.cacheHitNum.reset();
+        this.maxDepth.reset();
+        Arrays.stream(this.phaseNanos).forEach(LongAdder::reset);
+    }
+
+    /**
+     * 
+     * add up the counters of the search of a move.
+     * 
+     * @param statistics
+     *            the counters of a move.
+     */
+    public void add(SearchStatistics statistics) {
+        this.searchNum.increment();
+        this.nodeNum.add(statistics.getNodeNum());
+        this.leafNum.add(statistics.getLeafNum());
+        for (int i = 0; i < CUTOFF_INDEX_NUM; ++i) {
+            this.cutoffNums[i].add(statistics.cutoffNums[i].sum());
+        }
+        this.cacheProbeNum.add(statistics.getCacheProbeNum());
+        this.cacheHitNum.add(statistics.getCacheHitNum());
+        this.maxDepth.accumulate(statistics.getMaxDepth());
+        for (Phase phase : Phase.values()) {
+            this.phaseNanos[phase.ordinal()].add(statistics.phaseNanos[phase.ordinal()].sum());
+        }
+    }
+
+    /**
+     * 
+     * count a position visited.
+     * 
+     * @param stoneCount
+     *            the number of stones of the position.
+     */
+    void addNode(int stoneCount) {
+        this.nodeNum.increment();
+        this.maxDepth.accumulate(stoneCount - this.rootStoneCount);
+    }
+
+    /**
+     * count a static evaluation of a leaf.
+     */
+    void addLeaf() {
+        this.leafNum.increment();
+    }
+
+    /**
+     * 
+     * count a beta cutoff.
+     * 
+     * @param moveIndex
+     *            the index of the move in the ordered moves.
+     */
+    void addCutoff(int moveIndex) {
+        this.cutoffNums[Math.min(moveIndex, CUTOFF_INDEX_NUM - 1)].increment();
+    }
+
+    /**
+     * 
+     * count a lookup of the transposition table.
+     * 
+     * @param isHit
+     *            true if the position is found.
+     */
+    void addCacheProbe(boolean isHit) {
+        this.cacheProbeNum.increment();
+        if (isHit) {
+            this.cacheHitNum.increment();
+        }
+    }
+
+    /**
+     * 
+     * @param phase
+     *            the phase of the search.
+     * @param nanos
+     *            the time spent in the phase.
+     */
+    public void addPhaseTime(Phase phase, long nanos) {
+        this.phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * @return the number of moves added up.
+     */
+    public long getSearchNum() {
+        return this.searchNum.sum();
+    }
+
+    /**
+     * @return the number of positions visited.
+     */
+    public long getNodeNum() {
+        return this.nodeNum.sum();
+    }
+
+    /**
+     * @return the number of leaves evaluated statically.
+     */
+    public long getLeafNum() {
+        return this.leafNum.sum();
+    }
+
+    /**
+     * @return the number of beta cutoffs by the moves at every index, the last
+     *         one counts the later moves too.
+     */
+    public long[] getCutoffNums() {
+        return Arrays.stream(this.cutoffNums).mapToLong(LongAdder::sum).toArray();
+    }
+
+    /**
+     * @return the number of lookups of the transposition table.
+     */
+    public long getCacheProbeNum() {
+        return this.cacheProbeNum.sum();
+    }
+
+    /**
+     * @return the number of the lookups having found the position.
+     */
+    public long getCacheHitNum() {
+        return this.cacheHitNum.sum();
+    }
+
+    /**
+     * @return the max number of stones put after the root.
+     */
+    public long getMaxDepth() {
+        return this.maxDepth.get();
+    }
+
+    /**
+     * 
+     * @param phase
+     *            the phase of the search.
+     * @return the time spent in the phase in milliseconds.
+     */
+    public long getPhaseMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(this.phaseNanos[phase.ordinal()].sum());
+    }
+
+    /**
+     * @return the number of positions visited per second of the alpha beta
+     *         search.
+     */
+    public long getNodesPerSecond() {
+        long nanos = this.phaseNanos[Phase.ALPHA_BETA.ordinal()].sum();
+        return 0 == nanos ? 0 : this.getNodeNum() * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        long cacheProbeNum = this.getCacheProbeNum();
+        return String.format(
+                "nodes=%d leaves=%d nps=%d maxDepth=%d cutoffs=%s cacheProbes=%d cacheHits=%d cacheHitRate=%.3f %s",
+                this.getNodeNum(), this.getLeafNum(), this.getNodesPerSecond(), this.getMaxDepth(),
+                Arrays.toString(this.getCutoffNums()), cacheProbeNum, this.getCacheHitNum(),
+                0 == cacheProbeNum ? 0 : (double) this.getCacheHitNum() / cacheProbeNum,
+                Stream.of(Phase.values()).map(phase -> phase.key + "Ms=" + this.getPhaseMillis(phase))
+                        .collect(Collectors.joining(" ")));
+    }
+
+}
@@ -0,0 +1,21 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+/**
+ * thrown when a search runs past its deadline, the result of the interrupted
+ * search is discarded.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class SearchTimeoutException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchTimeoutException() {
+        super("search timeout");
+    }
+
+}
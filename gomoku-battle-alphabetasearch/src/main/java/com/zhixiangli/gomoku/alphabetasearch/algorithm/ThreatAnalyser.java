@@ -0,0 +1,238 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.analysis.PatternType;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * fives, fours and threes shared by the threat space solvers.
+ * 
+ * @author zhixiangli
+ *
+ */
+class ThreatAnalyser {
+
+    /**
+     * 
+     * get the points where the chess type puts a four, and a three if included.
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @param chessType
+     *            the chess type to put.
+     * @param isThreeIncluded
+     *            true to include the points of open threes.
+     * @return open fours and double fours first, then half open fours, then
+     *         threes.
+     */
+    static Point[] getThreatPoints(Chessboard chessboard, ChessType chessType, boolean isThreeIncluded) {
+        List<Point> openFours = new ArrayList<>();
+        List<Point> halfOpenFours = new ArrayList<>();
+        List<Point> threes = new ArrayList<>();
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        int minStoneNum = isThreeIncluded ? GomokuConst.CONSECUTIVE_NUM - 3 : GomokuConst.CONSECUTIVE_NUM - 2;
+        for (Point point : IncrementalChessboard.getEmptyPointsAround(chessboard)) {
+            if (!hasStonesAround(chessboard, point, chessType, minStoneNum)) {
+                continue;
+            }
+            GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, chessType, counter);
+            int fourNum = counter[PatternType.HALF_OPEN_FOUR.ordinal()];
+            if (counter[PatternType.OPEN_FOUR.ordinal()] > 0 || fourNum > 1) {
+                openFours.add(point);
+            } else if (fourNum > 0) {
+                halfOpenFours.add(point);
+            } else if (isThreeIncluded && (counter[PatternType.OPEN_THREE.ordinal()] > 0
+                    || counter[PatternType.SPACED_OPEN_THREE.ordinal()] > 0)) {
+                threes.add(point);
+            }
+        }
+        openFours.addAll(halfOpenFours);
+        openFours.addAll(threes);
+        return openFours.toArray(new Point[0]);
+    }
+
+    /**
+     * @return the empty points where the chess type puts an open four or a
+     *         double four.
+     */
+    static List<Point> getOpenFourPoints(Chessboard chessboard, ChessType chessType) {
+        List<Point> openFours = new ArrayList<>();
+        for (Point point : IncrementalChessboard.getEmptyPointsAround(chessboard)) {
+            if (isOpenFour(chessboard, point, chessType)) {
+                openFours.add(point);
+            }
+        }
+        return openFours;
+    }
+
+    /**
+     * @return true if the chess type puts an open four or a double four on the
+     *         empty point.
+     */
+    static boolean isOpenFour(Chessboard chessboard, Point point, ChessType chessType) {
+        if (!hasStonesAround(chessboard, point, chessType, GomokuConst.CONSECUTIVE_NUM - 2)) {
+            return false;
+        }
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, chessType, counter);
+        return counter[PatternType.OPEN_FOUR.ordinal()] > 0 || counter[PatternType.HALF_OPEN_FOUR.ordinal()] > 1;
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @param point
+     *            an empty point.
+     * @param chessType
+     *            the chess type to put.
+     * @return true if the chess type puts a five, a four or an open three on the
+     *         point.
+     */
+    static boolean isThreat(Chessboard chessboard, Point point, ChessType chessType) {
+        if (!hasStonesAround(chessboard, point, chessType, GomokuConst.CONSECUTIVE_NUM - 3)) {
+            return false;
+        }
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, chessType, counter);
+        return isThreat(counter);
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @param point
+     *            an empty point.
+     * @param chessType
+     *            the chess type to put.
+     * @return true if the chess type puts neither a threat nor a combination of
+     *         patterns on the point, like two open twos which become two open
+     *         threes.
+     */
+    static boolean isQuiet(Chessboard chessboard, Point point, ChessType chessType) {
+        if (!hasStonesAround(chessboard, point, chessType, 1)) {
+            return true;
+        }
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, point.x, point.y, chessType, counter);
+        return !isThreat(counter) && 0 == AlphaBetaSearchProphet.evaluateCombination(counter);
+    }
+
+    /**
+     * @return true if the patterns have a five, a four or an open three.
+     */
+    private static boolean isThreat(int[] counter) {
+        return counter[PatternType.FIVE.ordinal()] > 0 || counter[PatternType.OPEN_FOUR.ordinal()] > 0
+                || counter[PatternType.HALF_OPEN_FOUR.ordinal()] > 0 || counter[PatternType.OPEN_THREE.ordinal()] > 0
+                || counter[PatternType.SPACED_OPEN_THREE.ordinal()] > 0;
+    }
+
+    /**
+     * 
+     * @param patternType
+     *            the pattern of a line.
+     * @return true if the line becomes an open four with one more stone.
+     */
+    static boolean isOpenThree(PatternType patternType) {
+        return PatternType.OPEN_THREE == patternType || PatternType.SPACED_OPEN_THREE == patternType;
+    }
+
+    /**
+     * @return the empty points where the chess type puts a five.
+     */
+    static Set<Point> getFivePoints(Chessboard chessboard, ChessType chessType) {
+        Set<Point> fives = new LinkedHashSet<>();
+        for (Point point : IncrementalChessboard.getEmptyPointsAround(chessboard)) {
+            if (hasStonesAround(chessboard, point, chessType, GomokuConst.CONSECUTIVE_NUM - 1)
+                    && isFive(chessboard, point, chessType)) {
+                fives.add(point);
+            }
+        }
+        return fives;
+    }
+
+    /**
+     * @return true if the chess type puts a five on the empty point, read from
+     *         the lines without putting it.
+     */
+    private static boolean isFive(Chessboard chessboard, Point point, ChessType chessType) {
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            int line = chessboard.getLine(chessType, point.x, point.y, direction);
+            int offset = Chessboard.getLineOffset(point.x, point.y, direction);
+            if (getConsecutiveNum(line, offset) >= GomokuConst.CONSECUTIVE_NUM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the empty points where the chess type puts a five through the
+     *         stone on the point, read from the lines without putting them.
+     */
+    static Set<Point> getFivePointsThrough(Chessboard chessboard, Point point, ChessType chessType) {
+        Set<Point> fives = new LinkedHashSet<>();
+        ChessType otherChessType = GameReferee.nextChessType(chessType);
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            Point vector = GomokuConst.DIRECTIONS[direction];
+            int line = chessboard.getLine(chessType, point.x, point.y, direction);
+            int stones = line | chessboard.getLine(otherChessType, point.x, point.y, direction);
+            // a step along the direction is a step of the offset.
+            int offset = Chessboard.getLineOffset(point.x, point.y, direction);
+            int fromOffset = Math.max(Chessboard.getLineFirstOffset(point.x, point.y, direction),
+                    offset - GomokuConst.CONSECUTIVE_NUM + 1);
+            int toOffset = Math.min(Chessboard.getLineLastOffset(point.x, point.y, direction),
+                    offset + GomokuConst.CONSECUTIVE_NUM - 1);
+            for (int fiveOffset = fromOffset; fiveOffset <= toOffset; ++fiveOffset) {
+                if (0 == (stones & 1 << fiveOffset)
+                        && getConsecutiveNum(line, fiveOffset) >= GomokuConst.CONSECUTIVE_NUM) {
+                    int step = fiveOffset - offset;
+                    fives.add(new Point(point.x + vector.x * step, point.y + vector.y * step));
+                }
+            }
+        }
+        return fives;
+    }
+
+    /**
+     * @return the number of consecutive stones of the line through the offset,
+     *         with a stone put on it.
+     */
+    private static int getConsecutiveNum(int line, int offset) {
+        line |= 1 << offset;
+        // the stones from the offset up and down the line, the offset counted twice.
+        return Integer.numberOfTrailingZeros(~(line >>> offset))
+                + Integer.numberOfLeadingZeros(~(line << (Integer.SIZE - 1 - offset))) - 1;
+    }
+
+    /**
+     * @return true if there are at least the number of stones of the chess type
+     *         within 4 points along a direction, which a threat needs.
+     */
+    private static boolean hasStonesAround(Chessboard chessboard, Point point, ChessType chessType, int stoneNum) {
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            int line = chessboard.getLine(chessType, point.x, point.y, direction);
+            int offset = Chessboard.getLineOffset(point.x, point.y, direction);
+            int window = line >>> Math.max(0, offset - GomokuConst.CONSECUTIVE_NUM + 1)
+                    & (1 << (Math.min(offset, GomokuConst.CONSECUTIVE_NUM - 1) + GomokuConst.CONSECUTIVE_NUM)) - 1;
+            if (Integer.bitCount(window) >= stoneNum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * fixed-size transposition table.
+ * 
+ * entries are kept in packed primitive arrays, so the heap usage does not grow
+ * with the number of searched positions. the table is shared by search threads
+ * without locks: every entry stores its key xor-ed with its data, so an entry
+ * torn by concurrent writers fails the verification and is treated as a miss.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class TranspositionTable {
+
+    /**
+     * the type of a stored score.
+     */
+    public enum Bound {
+
+        /**
+         * the score is the exact value.
+         */
+        EXACT,
+
+        /**
+         * the real value is at least the score.
+         */
+        LOWER,
+
+        /**
+         * the real value is at most the score.
+         */
+        UPPER,
+
+        ;
+    }
+
+    /**
+     * the verified content of an entry.
+     */
+    public static class Entry {
+
+        private int depth;
+
+        private double score;
+
+        private Bound bound;
+
+        private Point bestMove;
+
+        /**
+         * @return the depth the score was searched to.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return the score
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return the bound
+         */
+        public Bound getBound() {
+            return bound;
+        }
+
+        /**
+         * @return the best move, or null if there is none.
+         */
+        public Point getBestMove() {
+            return bestMove;
+        }
+
+        void set(int depth, Bound bound, double score, Point bestMove) {
+            this.depth = depth;
+            this.bound = bound;
+            this.score = score;
+            this.bestMove = bestMove;
+        }
+
+    }
+
+    private static final int NO_MOVE = 0xFF;
+
+    private static final int DEPTH_SHIFT = 0;
+
+    private static final int BOUND_SHIFT = 8;
+
+    private static final int MOVE_SHIFT = 16;
+
+    private static final int GENERATION_SHIFT = 24;
+
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * key ^ data ^ score of every entry.
+     */
+    private final long[] keys;
+
+    /**
+     * packed depth, bound, best move and generation of every entry.
+     */
+    private final long[] data;
+
+    /**
+     * raw bits of the score of every entry.
+     */
+    private final long[] scores;
+
+    private final int mask;
+
+    /**
+     * the generation of the current search, entries of older searches are
+     * replaced first.
+     */
+    private volatile int generation;
+
+    /**
+     * 
+     * @param sizeBits
+     *            the table holds 2^sizeBits entries.
+     */
+    public TranspositionTable(int sizeBits) {
+        Preconditions.checkArgument(sizeBits > 0 && sizeBits < Integer.SIZE - 1);
+        Preconditions.checkArgument(GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE < NO_MOVE);
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.scores = new long[size];
+        this.mask = size - 1;
+        this.generation = 1;
+    }
+
+    /**
+     * 
+     * look up a position.
+     * 
+     * @param key
+     *            the position key.
+     * @param entry
+     *            filled with the stored content if found.
+     * @return true if the position is found.
+     */
+    public boolean probe(long key, Entry entry) {
+        int index = (int) key & mask;
+        long storedData = this.data[index];
+        long storedScore = this.scores[index];
+        if ((this.keys[index] ^ storedData ^ storedScore) != key || storedData == 0) {
+            return false;
+        }
+        entry.depth = (int) (storedData >>> DEPTH_SHIFT & BYTE_MASK);
+        entry.bound = Bound.values()[(int) (storedData >>> BOUND_SHIFT & BYTE_MASK)];
+        int move = (int) (storedData >>> MOVE_SHIFT & BYTE_MASK);
+        entry.bestMove = move == NO_MOVE ? null
+                : new Point(move / GomokuConst.CHESSBOARD_SIZE, move % GomokuConst.CHESSBOARD_SIZE);
+        entry.score = Double.longBitsToDouble(storedScore);
+        return true;
+    }
+
+    /**
+     * 
+     * store a searched position. an entry of the current search is only
+     * replaced by a search at least as deep.
+     * 
+     * @param key
+     *            the position key.
+     * @param depth
+     *            the depth the score was searched to.
+     * @param score
+     *            the score.
+     * @param bound
+     *            the type of the score.
+     * @param bestMove
+     *            the best move, or null if there is none.
+     */
+    public void store(long key, int depth, double score, Bound bound, Point bestMove) {
+        Preconditions.checkArgument(depth >= 0 && depth <= BYTE_MASK);
+        int index = (int) key & mask;
+        long storedData = this.data[index];
+        int storedGeneration = (int) (storedData >>> GENERATION_SHIFT & BYTE_MASK);
+        int storedDepth = (int) (storedData >>> DEPTH_SHIFT & BYTE_MASK);
+        int currentGeneration = this.generation;
+        if (storedData != 0 && storedGeneration == currentGeneration && storedDepth > depth) {
+            return;
+        }
+        int move = null == bestMove ? NO_MOVE : bestMove.x * GomokuConst.CHESSBOARD_SIZE + bestMove.y;
+        // generation starts from 1, so a stored entry never has zero data.
+        long newData = (long) depth << DEPTH_SHIFT | (long) bound.ordinal() << BOUND_SHIFT
+                | (long) move << MOVE_SHIFT | (long) currentGeneration << GENERATION_SHIFT;
+        long newScore = Double.doubleToRawLongBits(score);
+        this.keys[index] = key ^ newData ^ newScore;
+        this.data[index] = newData;
+        this.scores[index] = newScore;
+    }
+
+    /**
+     * start a new search, the entries stay but can be replaced by any new one.
+     */
+    public void newSearch() {
+        this.generation = this.generation % BYTE_MASK + 1;
+    }
+
+    /**
+     * remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.data, 0);
+        Arrays.fill(this.scores, 0);
+        this.newSearch();
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * victory by continuous fours.
+ * 
+ * the attacker only puts fours, and the defender only blocks them, so the
+ * search is much narrower than the full-width one. the solver is stateless and
+ * can be shared by search threads.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class VcfSolver {
+
+    private final int maxDepth;
+
+    public VcfSolver() {
+        this(SearchConst.VCF_MAX_DEPTH);
+    }
+
+    /**
+     * 
+     * @param maxDepth
+     *            the max number of fours of the attacker.
+     */
+    public VcfSolver(int maxDepth) {
+        Preconditions.checkArgument(maxDepth >= 0);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * 
+     * search a victory by continuous fours.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the attacker, which is to put.
+     * @return the moves of the attacker and the replies of the defender
+     *         alternately, ending with the five of the attacker. empty if there
+     *         is no victory within the max depth.
+     */
+    public List<Point> solve(Chessboard chessboard, ChessType chessType) {
+        return this.solve(chessboard, chessType, () -> Long.MAX_VALUE);
+    }
+
+    /**
+     * 
+     * search a victory by continuous fours before the deadline.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the attacker, which is to put.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it, it
+     *            is read at every position and may be moved while solving.
+     * @return the moves of the attacker and the replies of the defender
+     *         alternately, ending with the five of the attacker. empty if there
+     *         is no victory within the max depth or the deadline.
+     */
+    public List<Point> solve(Chessboard chessboard, ChessType chessType, LongSupplier deadline) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        if (0 == this.maxDepth) {
+            return Collections.emptyList();
+        }
+        return this.solveInPlace(chessboard.clone(), chessType, deadline);
+    }
+
+    /**
+     * 
+     * like {@link #solve(Chessboard, ChessType, LongSupplier)} without a copy of
+     * the chessboard, for the leaves of a search which owns the chessboard.
+     * 
+     * @param chessboard
+     *            the current chessboard, the moves are put and removed on it, so
+     *            it is the same on return.
+     * @param chessType
+     *            the attacker, which is to put.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it.
+     * @return the same as {@link #solve(Chessboard, ChessType, LongSupplier)}.
+     */
+    List<Point> solveInPlace(Chessboard chessboard, ChessType chessType, LongSupplier deadline) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        if (0 == this.maxDepth) {
+            return Collections.emptyList();
+        }
+        Point five = ThreatAnalyser.getFivePoints(chessboard, chessType).stream().findFirst().orElse(null);
+        if (null != five) {
+            return Collections.singletonList(five);
+        }
+        LinkedList<Point> sequence = new LinkedList<>();
+        Set<Point> defenderFives = ThreatAnalyser.getFivePoints(chessboard, GameReferee.nextChessType(chessType));
+        try {
+            if (this.search(chessboard, chessType, defenderFives, this.maxDepth, sequence, new HashMap<>(),
+                    deadline)) {
+                return new ArrayList<>(sequence);
+            }
+        } catch (SearchTimeoutException e) {
+            // not found before the deadline.
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 
+     * @param chessboard
+     *            the chessboard, the attacker has no five to put.
+     * @param attacker
+     *            the chess type to put.
+     * @param defenderFives
+     *            the points where the defender would put a five.
+     * @param depth
+     *            the max number of fours to put.
+     * @param sequence
+     *            the moves from the root, the winning ones are appended.
+     * @param failedDepths
+     *            the depths the positions have failed at.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it.
+     * @return true if the attacker wins.
+     */
+    private boolean search(Chessboard chessboard, ChessType attacker, Set<Point> defenderFives, int depth,
+            LinkedList<Point> sequence, Map<Long, Integer> failedDepths, LongSupplier deadline)
+            throws SearchTimeoutException {
+        if (System.currentTimeMillis() > deadline.getAsLong()) {
+            throw new SearchTimeoutException();
+        }
+        if (depth <= 0 || failedDepths.getOrDefault(chessboard.getZobristKey(), -1) >= depth) {
+            return false;
+        }
+        // a four does not stop two fives of the defender.
+        if (defenderFives.size() > 1) {
+            return false;
+        }
+        ChessType defender = GameReferee.nextChessType(attacker);
+        Point[] candidates = defenderFives.isEmpty() ? ThreatAnalyser.getThreatPoints(chessboard, attacker, false)
+                : defenderFives.toArray(new Point[0]);
+        for (Point point : candidates) {
+            chessboard.setChess(point, attacker);
+            try {
+                Set<Point> fives = ThreatAnalyser.getFivePointsThrough(chessboard, point, attacker);
+                if (fives.isEmpty()) {
+                    continue;
+                }
+                // the defender blocks one five, the attacker puts the other.
+                if (fives.size() > 1) {
+                    Point[] ends = fives.toArray(new Point[0]);
+                    sequence.addAll(Arrays.asList(point, ends[0], ends[1]));
+                    return true;
+                }
+                Point reply = fives.iterator().next();
+                chessboard.setChess(reply, defender);
+                try {
+                    if (GameReferee.isWin(chessboard, reply)) {
+                        continue;
+                    }
+                    Set<Point> newDefenderFives = ThreatAnalyser.getFivePointsThrough(chessboard, reply, defender);
+                    defenderFives.stream().filter(five -> chessboard.isEmpty(five))
+                            .forEach(five -> newDefenderFives.add(five));
+                    sequence.addLast(point);
+                    sequence.addLast(reply);
+                    if (this.search(chessboard, attacker, newDefenderFives, depth - 1, sequence, failedDepths,
+                            deadline)) {
+                        return true;
+                    }
+                    sequence.removeLast();
+                    sequence.removeLast();
+                } finally {
+                    chessboard.setChess(reply, ChessType.EMPTY);
+                }
+            } finally {
+                chessboard.setChess(point, ChessType.EMPTY);
+            }
+        }
+        failedDepths.put(chessboard.getZobristKey(), depth);
+        return false;
+    }
+
+}
@@ -0,0 +1,292 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.analysis.PatternType;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * victory by continuous threats.
+ * 
+ * the attacker puts fours and open threes. the defender blocks a four at its
+ * five, and answers a three either by a point which breaks it or by a four of
+ * its own, which the attacker must block first. other replies of the defender
+ * are assumed to lose, since the three becomes an open four.
+ * 
+ * the solver is stateless and can be shared by threads, every solve has its own
+ * budget and memo.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class VctSolver {
+
+    private final int maxDepth;
+
+    private final int maxNodes;
+
+    private final long timeMillis;
+
+    /**
+     * 
+     * @param maxDepth
+     *            the max number of threats of the attacker.
+     * @param maxNodes
+     *            the max number of positions to visit in a solve.
+     * @param timeMillis
+     *            the max time of a solve.
+     */
+    public VctSolver(int maxDepth, int maxNodes, long timeMillis) {
+        Preconditions.checkArgument(maxDepth >= 0);
+        Preconditions.checkArgument(maxNodes > 0);
+        Preconditions.checkArgument(timeMillis > 0);
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * the budget and memo of a solve.
+     */
+    private static class Context {
+
+        private final int maxNodes;
+
+        private final long deadline;
+
+        /**
+         * the deadline of the caller, which may be moved while solving.
+         */
+        private final LongSupplier callerDeadline;
+
+        private int nodeNum;
+
+        /**
+         * the winning moves of the proven positions.
+         */
+        private final Map<Long, Point> provenMoves = new HashMap<>();
+
+        /**
+         * the depths the positions have been disproven at.
+         */
+        private final Map<Long, Integer> disprovenDepths = new HashMap<>();
+
+        Context(int maxNodes, long deadline, LongSupplier callerDeadline) {
+            this.maxNodes = maxNodes;
+            this.deadline = deadline;
+            this.callerDeadline = callerDeadline;
+        }
+
+        void visit() throws SearchTimeoutException {
+            long now = System.currentTimeMillis();
+            if (++this.nodeNum > this.maxNodes || now > this.deadline || now > this.callerDeadline.getAsLong()) {
+                throw new SearchTimeoutException();
+            }
+        }
+
+    }
+
+    /**
+     * 
+     * search a victory by continuous threats.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the attacker, which is to put.
+     * @return the first move of the victory, or null if there is none within the
+     *         depth or the budget.
+     */
+    public Point solve(Chessboard chessboard, ChessType chessType) {
+        return this.solve(chessboard, chessType, () -> Long.MAX_VALUE);
+    }
+
+    /**
+     * 
+     * search a victory by continuous threats before the deadline.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not changed.
+     * @param chessType
+     *            the attacker, which is to put.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it or
+     *            the budget is used up, it is read at every position and may be
+     *            moved while solving.
+     * @return the first move of the victory, or null if there is none within the
+     *         depth, the budget or the deadline.
+     */
+    public Point solve(Chessboard chessboard, ChessType chessType, LongSupplier deadline) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        Context context = new Context(this.maxNodes, System.currentTimeMillis() + this.timeMillis, deadline);
+        Chessboard newChessboard = chessboard.clone();
+        try {
+            // the short victories are found first, a deep and failing line does not use
+            // up the budget.
+            for (int depth = 1; depth <= this.maxDepth; ++depth) {
+                Point point = this.attack(newChessboard, chessType, depth, context);
+                if (null != point) {
+                    return point;
+                }
+            }
+        } catch (SearchTimeoutException e) {
+            // not found within the budget.
+        }
+        return null;
+    }
+
+    /**
+     * @return the winning move of the attacker, or null.
+     */
+    private Point attack(Chessboard chessboard, ChessType attacker, int depth, Context context)
+            throws SearchTimeoutException {
+        context.visit();
+        long key = chessboard.getZobristKey();
+        Point provenMove = context.provenMoves.get(key);
+        if (null != provenMove) {
+            return provenMove;
+        }
+        Point five = ThreatAnalyser.getFivePoints(chessboard, attacker).stream().findFirst().orElse(null);
+        if (null != five) {
+            return five;
+        }
+        if (depth <= 0 || context.disprovenDepths.getOrDefault(key, -1) >= depth) {
+            return null;
+        }
+        Set<Point> defenderFives = ThreatAnalyser.getFivePoints(chessboard, GameReferee.nextChessType(attacker));
+        Point[] candidates = defenderFives.size() > 1 ? new Point[0]
+                : ThreatAnalyser.getThreatPoints(chessboard, attacker, true);
+        for (Point point : candidates) {
+            // the block of a five of the defender is the only move.
+            if (!defenderFives.isEmpty() && !defenderFives.contains(point)) {
+                continue;
+            }
+            chessboard.setChess(point, attacker);
+            try {
+                List<Point> threatStones = new ArrayList<>();
+                threatStones.add(point);
+                if (this.defend(chessboard, attacker, threatStones, depth - 1, context)) {
+                    context.provenMoves.put(key, point);
+                    return point;
+                }
+            } finally {
+                chessboard.setChess(point, ChessType.EMPTY);
+            }
+        }
+        context.disprovenDepths.put(key, depth);
+        return null;
+    }
+
+    /**
+     * @return true if the attacker wins against every defence.
+     */
+    private boolean defend(Chessboard chessboard, ChessType attacker, List<Point> threatStones, int depth,
+            Context context) throws SearchTimeoutException {
+        context.visit();
+        ChessType defender = GameReferee.nextChessType(attacker);
+        if (!ThreatAnalyser.getFivePoints(chessboard, defender).isEmpty()) {
+            return false;
+        }
+        Set<Point> fives = new LinkedHashSet<>();
+        for (Point stone : threatStones) {
+            fives.addAll(ThreatAnalyser.getFivePointsThrough(chessboard, stone, attacker));
+        }
+        if (fives.size() > 1) {
+            return true;
+        }
+        Set<Point> defences = fives.isEmpty() ? getThreeDefences(chessboard, threatStones) : fives;
+        if (defences.isEmpty()) {
+            // no threat is left, the defender is free.
+            return false;
+        }
+        for (Point defence : defences) {
+            chessboard.setChess(defence, defender);
+            try {
+                if (null == this.attack(chessboard, attacker, depth, context)) {
+                    return false;
+                }
+            } finally {
+                chessboard.setChess(defence, ChessType.EMPTY);
+            }
+        }
+        if (!fives.isEmpty()) {
+            return true;
+        }
+        // a four of the defender gains a move, the three still has to be broken.
+        for (Point four : ThreatAnalyser.getThreatPoints(chessboard, defender, false)) {
+            if (defences.contains(four)) {
+                continue;
+            }
+            chessboard.setChess(four, defender);
+            try {
+                Set<Point> defenderFives = ThreatAnalyser.getFivePointsThrough(chessboard, four, defender);
+                if (defenderFives.size() > 1) {
+                    return false;
+                }
+                if (defenderFives.isEmpty()) {
+                    continue;
+                }
+                Point block = defenderFives.iterator().next();
+                chessboard.setChess(block, attacker);
+                try {
+                    List<Point> newThreatStones = new ArrayList<>(threatStones);
+                    newThreatStones.add(block);
+                    if (!this.defend(chessboard, attacker, newThreatStones, depth, context)) {
+                        return false;
+                    }
+                } finally {
+                    chessboard.setChess(block, ChessType.EMPTY);
+                }
+            } finally {
+                chessboard.setChess(four, ChessType.EMPTY);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the empty points which break at least one open three through the
+     *         threat stones.
+     */
+    private static Set<Point> getThreeDefences(Chessboard chessboard, List<Point> threatStones) {
+        Set<Point> defences = new LinkedHashSet<>();
+        for (Point stone : threatStones) {
+            ChessType attacker = chessboard.getChess(stone);
+            ChessType defender = GameReferee.nextChessType(attacker);
+            for (Point direction : GomokuConst.DIRECTIONS) {
+                if (!ThreatAnalyser.isOpenThree(GlobalAnalyser.getChessPatternType(chessboard, stone, direction))) {
+                    continue;
+                }
+                for (int step = -GomokuConst.CONSECUTIVE_NUM; step <= GomokuConst.CONSECUTIVE_NUM; ++step) {
+                    Point defence = new Point(stone.x + direction.x * step, stone.y + direction.y * step);
+                    if (!GameReferee.isInChessboard(defence) || !chessboard.isEmpty(defence)) {
+                        continue;
+                    }
+                    chessboard.setChess(defence, defender);
+                    PatternType patternType = GlobalAnalyser.getChessPatternType(chessboard, stone, direction);
+                    chessboard.setChess(defence, ChessType.EMPTY);
+                    if (!ThreatAnalyser.isOpenThree(patternType)) {
+                        defences.add(defence);
+                    }
+                }
+            }
+        }
+        return defences;
+    }
+
+}
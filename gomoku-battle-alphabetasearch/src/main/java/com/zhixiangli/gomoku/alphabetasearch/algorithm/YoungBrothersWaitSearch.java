@@ -0,0 +1,314 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * young brothers wait parallel search.
+ * 
+ * the eldest child of a node is searched first to narrow the window, then the
+ * young brothers are forked with that window. every child reports its value to
+ * the node as soon as it is done, so the brothers started later get a narrower
+ * window, and a cutoff aborts the brothers still in flight.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class YoungBrothersWaitSearch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(YoungBrothersWaitSearch.class);
+
+    private AlphaBetaSearchAlgorithm algorithm;
+
+    private ForkJoinPool pool;
+
+    /**
+     * 
+     * @param algorithm
+     *            the algorithm shared by all threads.
+     * @param threadNum
+     *            the parallelism of the pool.
+     */
+    public YoungBrothersWaitSearch(AlphaBetaSearchAlgorithm algorithm, int threadNum) {
+        Preconditions.checkArgument(threadNum > 0);
+        this.algorithm = algorithm;
+        // a dedicated pool, the tasks are not mixed with the common pool's.
+        this.pool = new ForkJoinPool(threadNum);
+    }
+
+    /**
+     * 
+     * search the root, the first candidate is the eldest brother.
+     * 
+     * @param chessboard
+     *            the chessboard before the move.
+     * @param candidates
+     *            the root candidates.
+     * @param chessType
+     *            the chess type to put.
+     * @param depth
+     *            the search depth.
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    public List<Pair<Point, Double>> searchRoot(Chessboard chessboard, Point[] candidates, ChessType chessType,
+            int depth) {
+        return this.searchRoot(chessboard, candidates, chessType, depth, -Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /**
+     * 
+     * search the root inside a window, the first candidate is the eldest
+     * brother. a fail high aborts the brothers still searching.
+     * 
+     * @param chessboard
+     *            the chessboard before the move.
+     * @param candidates
+     *            the root candidates.
+     * @param chessType
+     *            the chess type to put.
+     * @param depth
+     *            the search depth.
+     * @param alpha
+     *            the lower bound of the window.
+     * @param beta
+     *            the upper bound of the window.
+     * @return the candidates and their values, in the order of candidates. the
+     *         value is null if the search has timed out.
+     */
+    public List<Pair<Point, Double>> searchRoot(Chessboard chessboard, Point[] candidates, ChessType chessType,
+            int depth, double alpha, double beta) {
+        Node root = new Node(null, alpha, beta);
+        List<SearchTask> tasks = new ArrayList<>(candidates.length);
+        for (Point point : candidates) {
+            Chessboard newChessboard = chessboard.clone();
+            newChessboard.setChess(point, chessType);
+            tasks.add(new SearchTask(root, depth, newChessboard, point, chessType, chessType));
+        }
+        try {
+            this.pool.invoke(tasks.get(0));
+            List<SearchTask> youngBrothers = tasks.subList(1, tasks.size());
+            this.pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(youngBrothers)));
+        } catch (RuntimeException e) {
+            if (Throwables.getCausalChain(e).stream().noneMatch(SearchTimeoutException.class::isInstance)) {
+                LOGGER.error("young brothers wait search error: {}", e);
+            }
+        } finally {
+            // the aborted tasks must not outlive the search.
+            this.pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        List<Pair<Point, Double>> pairs = new ArrayList<>(candidates.length);
+        for (int i = 0; i < tasks.size(); ++i) {
+            SearchTask task = tasks.get(i);
+            Double value = task.isCompletedNormally() ? task.getRawResult() : null;
+            if (i > 0 && null != value && Double.isNaN(value)) {
+                // aborted by a fail high of the root, it is not known to be better.
+                value = Math.nextDown(root.getResult());
+            } else if (i > 0 && null != value && value <= task.alpha) {
+                // a failed low value is only an upper bound, keep it below the best one so
+                // that it is not taken as a tie.
+                value = Math.min(value, Math.nextDown(root.getResult()));
+            }
+            pairs.add(ImmutablePair.of(task.point, value));
+        }
+        return pairs;
+    }
+
+    /**
+     * the window and the result of a node from the perspective of the chess type
+     * to put, shared by its children.
+     */
+    private static class Node {
+
+        private final Node parent;
+
+        private double alpha;
+
+        private double beta;
+
+        private double result = -Double.MAX_VALUE;
+
+        private Point bestMove;
+
+        private volatile boolean isCutoff;
+
+        Node(Node parent, double alpha, double beta) {
+            this.parent = parent;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+
+        synchronized void report(Point move, double value) {
+            if (null == this.bestMove || value > this.result) {
+                this.result = value;
+                this.bestMove = move;
+            }
+            this.alpha = Math.max(this.alpha, value);
+            if (this.alpha >= this.beta) {
+                this.isCutoff = true;
+            }
+        }
+
+        /**
+         * @return true if this node or an ancestor has a cutoff, the search below
+         *         it is useless.
+         */
+        boolean isAborted() {
+            for (Node node = this; null != node; node = node.parent) {
+                if (node.isCutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized double getAlpha() {
+            return this.alpha;
+        }
+
+        synchronized double getBeta() {
+            return this.beta;
+        }
+
+        synchronized double getResult() {
+            return this.result;
+        }
+
+        synchronized Point getBestMove() {
+            return this.bestMove;
+        }
+
+    }
+
+    /**
+     * the search of a child, the value is from the perspective of the chess type
+     * has been put, or NaN if the search is aborted.
+     */
+    private class SearchTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Node parent;
+
+        private final int depth;
+
+        private final Chessboard chessboard;
+
+        private final Point point;
+
+        private final ChessType currentChessType;
+
+        private final ChessType rootChessType;
+
+        /**
+         * the lower bound of the window the child was searched with.
+         */
+        private double alpha;
+
+        SearchTask(Node parent, int depth, Chessboard chessboard, Point point, ChessType currentChessType,
+                ChessType rootChessType) {
+            this.parent = parent;
+            this.depth = depth;
+            this.chessboard = chessboard;
+            this.point = point;
+            this.currentChessType = currentChessType;
+            this.rootChessType = rootChessType;
+        }
+
+        @Override
+        protected Double compute() {
+            this.alpha = this.parent.getAlpha();
+            double beta = this.parent.getBeta();
+            if (this.parent.isAborted()) {
+                return Double.NaN;
+            }
+            double value;
+            try {
+                value = this.search(this.alpha, beta);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            if (!Double.isNaN(value)) {
+                this.parent.report(this.point, value);
+            }
+            return value;
+        }
+
+        private double search(double alpha, double beta) throws Exception {
+            // small subtrees are not worth the forks.
+            if (this.depth < SearchConst.MIN_SPLIT_DEPTH || GameReferee.isWin(this.chessboard, this.point)) {
+                return algorithm.negamax(this.depth, alpha, beta, this.chessboard, this.point,
+                        this.currentChessType, this.rootChessType, null);
+            }
+            // the result is decayed on return, so it is compared to the undecayed window.
+            double undecayedAlpha = alpha / SearchConst.DECAY_FACTOR;
+            double undecayedBeta = beta / SearchConst.DECAY_FACTOR;
+            long cacheKey = AlphaBetaSearchAlgorithm.cacheKey(this.chessboard, this.currentChessType,
+                    this.rootChessType);
+            TranspositionTable.Entry entry = new TranspositionTable.Entry();
+            double cachedValue = algorithm.probeCache(cacheKey, this.depth, undecayedAlpha, undecayedBeta, entry);
+            if (!Double.isNaN(cachedValue)) {
+                return cachedValue;
+            }
+            ChessType nextChessType = GameReferee.nextChessType(this.currentChessType);
+            Point[] candidateMoves = algorithm.orderMoves(this.chessboard, nextChessType, entry.getBestMove());
+            if (candidateMoves.length == 0) {
+                return algorithm.negamax(this.depth, alpha, beta, this.chessboard, this.point,
+                        this.currentChessType, this.rootChessType, null);
+            }
+
+            Node node = new Node(this.parent, -undecayedBeta, -undecayedAlpha);
+            // the eldest brother.
+            this.chessboard.setChess(candidateMoves[0], nextChessType);
+            try {
+                new SearchTask(node, this.depth - 1, this.chessboard, candidateMoves[0], nextChessType,
+                        this.rootChessType).compute();
+            } finally {
+                this.chessboard.setChess(candidateMoves[0], ChessType.EMPTY);
+            }
+            // the young brothers.
+            if (!node.isAborted()) {
+                List<SearchTask> youngBrothers = new ArrayList<>(candidateMoves.length - 1);
+                for (int i = 1; i < candidateMoves.length; ++i) {
+                    Chessboard newChessboard = this.chessboard.clone();
+                    newChessboard.setChess(candidateMoves[i], nextChessType);
+                    youngBrothers.add(new SearchTask(node, this.depth - 1, newChessboard, candidateMoves[i],
+                            nextChessType, this.rootChessType));
+                }
+                invokeAll(youngBrothers);
+            }
+            if (this.parent.isAborted()) {
+                return Double.NaN;
+            }
+            double result = -node.getResult();
+            algorithm.storeCache(cacheKey, this.depth, result, undecayedAlpha, undecayedBeta, node.getBestMove());
+            return result * SearchConst.DECAY_FACTOR;
+        }
+
+    }
+
+}
@@ -9,8 +9,20 @@ package com.zhixiangli.gomoku.alphabetasearch.common;
  */
 public class CacheConst {
 
-    public static final int DURATION_IN_MINUTE = 2;
+    /**
+     * the transposition table holds 2^TRANSPOSITION_TABLE_SIZE_BITS entries.
+     */
+    public static final int TRANSPOSITION_TABLE_SIZE_BITS = 20;
 
-    public static final long MAXIMUM_SIZE = 10000000;
+    /**
+     * the node table of the proof number search holds 2^PN_TABLE_SIZE_BITS
+     * entries.
+     */
+    public static final int PN_TABLE_SIZE_BITS = 18;
+
+    /**
+     * a new persistent cache file has 2^PERSISTENT_CACHE_SIZE_BITS slots.
+     */
+    public static final int PERSISTENT_CACHE_SIZE_BITS = 20;
 
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.common;
+
+/**
+ * how the search of a move uses multiple threads.
+ * 
+ * @author zhixiangli
+ *
+ */
+public enum ParallelMode {
+
+    /**
+     * every root candidate is searched by a thread of the common pool.
+     */
+    ROOT_SPLIT,
+
+    /**
+     * helper threads search the same root with staggered depths and move orders,
+     * sharing the transposition table with the main thread.
+     */
+    LAZY_SMP,
+
+    /**
+     * the eldest child of a node is searched first, then the others in parallel
+     * with its bound, on a dedicated fork join pool.
+     */
+    YOUNG_BROTHERS_WAIT,
+
+    ;
+
+}
@@ -4,6 +4,7 @@
 package com.zhixiangli.gomoku.alphabetasearch.common;
 
 import java.util.HashMap;
+import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
@@ -40,4 +41,10 @@ public class ProphetConst {
                 }
             });
 
+    /**
+     * the values of {@link #EVALUATION} indexed by the ordinal of the pattern.
+     */
+    public static final double[] EVALUATION_VALUES = Stream.of(PatternType.values()).mapToDouble(EVALUATION::get)
+            .toArray();
+
 }
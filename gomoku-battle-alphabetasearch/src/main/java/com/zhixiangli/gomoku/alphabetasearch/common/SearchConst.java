@@ -15,6 +15,155 @@ public class SearchConst {
 
     public static final int MAX_CANDIDATE_NUM = 15;
 
-    public static final int MAX_DEPTH = 5;
+    /**
+     * the number of killer moves kept for every ply.
+     */
+    public static final int KILLER_NUM = 2;
+
+    /**
+     * the history score which raises the ordering value of a move by half.
+     */
+    public static final long HISTORY_SCALE = 64;
+
+    /**
+     * the max number of fours of a vcf search at the root.
+     */
+    public static final int VCF_MAX_DEPTH = 20;
+
+    /**
+     * the max number of fours of a vcf search at a leaf, 0 disables it.
+     */
+    public static final int LEAF_VCF_DEPTH = 3;
+
+    /**
+     * the max number of forcing moves of a quiescence search at a leaf, 0
+     * disables it.
+     */
+    public static final int QUIESCENCE_MAX_DEPTH = 4;
+
+    /**
+     * the max number of forcing moves tried at a node of the quiescence search.
+     */
+    public static final int QUIESCENCE_MAX_MOVES = 8;
+
+    /**
+     * the quiet moves after this number of moves are searched with a reduced
+     * depth first.
+     */
+    public static final int LMR_MIN_MOVE_INDEX = 3;
+
+    /**
+     * the moves of the nodes shallower than this are not reduced.
+     */
+    public static final int LMR_MIN_DEPTH = 3;
+
+    /**
+     * the depth a late quiet move is reduced by.
+     */
+    public static final int LMR_REDUCTION = 1;
+
+    /**
+     * the quiet moves of the nodes at most this deep are pruned if the static
+     * value is far below the window, 0 disables it.
+     */
+    public static final int FUTILITY_DEPTH = 1;
+
+    /**
+     * how much a quiet move may raise the static value, it is below an open
+     * three. a quiet move neither makes nor blocks a threat or a combination of
+     * patterns, whose values are above it.
+     */
+    public static final double FUTILITY_MARGIN = 3e3;
+
+    /**
+     * the max number of threats of a vct search.
+     */
+    public static final int VCT_MAX_DEPTH = 10;
+
+    /**
+     * the max number of positions a vct search visits.
+     */
+    public static final int VCT_MAX_NODES = 20000;
+
+    /**
+     * the share of the time budget of a move given to the vct search.
+     */
+    public static final double VCT_TIME_RATIO = 0.2;
+
+    /**
+     * the max number of positions a proof number search visits in a move.
+     */
+    public static final int PN_MAX_NODES = 10000;
+
+    /**
+     * the max number of positions a proof number search visits in a standalone
+     * solve.
+     */
+    public static final int PN_SOLVE_MAX_NODES = 1000000;
+
+    /**
+     * the share of the time budget of a move given to the proof number search.
+     */
+    public static final double PN_TIME_RATIO = 0.2;
+
+    /**
+     * with at most this number of empty points, the proof number search tries
+     * every empty point of both sides, so a disproof is exact.
+     */
+    public static final int PN_EXACT_EMPTY_NUM = 10;
+
+    /**
+     * the number of the first moves of a game added to the opening book.
+     */
+    public static final int BOOK_MAX_PLY = 12;
+
+    /**
+     * young brothers wait searches the nodes shallower than this serially.
+     */
+    public static final int MIN_SPLIT_DEPTH = 2;
+
+    /**
+     * only the nodes at least this deep are kept in the persistent cache, the
+     * shallower ones are cheaper to search again than to store in the file.
+     */
+    public static final int PERSISTENT_CACHE_MIN_DEPTH = 2;
+
+    /**
+     * the default half width of the window of a root search around the expected
+     * value, 0 searches the full window.
+     */
+    public static final double ASPIRATION_WINDOW = 1e3;
+
+    /**
+     * the default factor a failed window widens by.
+     */
+    public static final double ASPIRATION_GROWTH = 4;
+
+    /**
+     * the root is searched with the full window after this number of failed
+     * windows.
+     */
+    public static final int ASPIRATION_MAX_RESEARCH_NUM = 3;
+
+    /**
+     * iterative deepening stops at this depth even if there is time left.
+     */
+    public static final int MAX_DEPTH = 20;
+
+    /**
+     * the default wall-clock budget of a move.
+     */
+    public static final long SEARCH_TIME_MILLIS = 5000;
+
+    /**
+     * the budget of pondering in multiples of the budget of a move, it stops
+     * earlier when the opponent moves.
+     */
+    public static final int PONDER_TIME_RATIO = 4;
+
+    /**
+     * a value above this ratio of a five (after decay) means a forced win.
+     */
+    public static final double DECISIVE_RATIO = 0.5;
 
 }
@@ -0,0 +1,218 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.common;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * options of the alpha beta search agent.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class SearchOptions {
+
+    public static final String SEARCH_TIME = "time";
+
+    public static final String PARALLEL_MODE = "parallel";
+
+    public static final String THREAD_NUM = "threads";
+
+    public static final String BOOK_PATH = "book";
+
+    public static final String CACHE_PATH = "cache";
+
+    public static final String ASPIRATION_WINDOW = "window";
+
+    public static final String ASPIRATION_GROWTH = "growth";
+
+    /**
+     * wall-clock budget of a move.
+     */
+    private long searchTimeMillis = SearchConst.SEARCH_TIME_MILLIS;
+
+    private ParallelMode parallelMode = ParallelMode.ROOT_SPLIT;
+
+    /**
+     * the number of search threads, used by the parallel modes having their own
+     * threads.
+     */
+    private int threadNum = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * the opening book file, or null if there is none.
+     */
+    private String bookPath;
+
+    /**
+     * the persistent cache file, or null if there is none.
+     */
+    private String cachePath;
+
+    /**
+     * the half width of the window of a root search around the expected value, 0
+     * searches the full window.
+     */
+    private double aspirationWindow = SearchConst.ASPIRATION_WINDOW;
+
+    /**
+     * the factor a failed window widens by.
+     */
+    private double aspirationGrowth = SearchConst.ASPIRATION_GROWTH;
+
+    /**
+     * 
+     * parse the command line options of the agent.
+     * 
+     * @param args
+     *            command line arguments.
+     * @return options, the default value is used if an option is absent.
+     * @throws ParseException
+     *             if the arguments are invalid.
+     */
+    public static SearchOptions parse(String[] args) throws ParseException {
+        Options options = new Options();
+        options.addOption(SEARCH_TIME, true, "search time of a move in milliseconds");
+        options.addOption(PARALLEL_MODE, true, "root_split, lazy_smp or young_brothers_wait");
+        options.addOption(THREAD_NUM, true, "the number of search threads");
+        options.addOption(BOOK_PATH, true, "the opening book file");
+        options.addOption(CACHE_PATH, true, "the persistent cache file, shared by games and processes");
+        options.addOption(ASPIRATION_WINDOW, true, "the half width of the root window, 0 for the full window");
+        options.addOption(ASPIRATION_GROWTH, true, "the factor a failed root window widens by");
+        CommandLine cmd = new DefaultParser().parse(options, args);
+
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(
+                NumberUtils.toLong(cmd.getOptionValue(SEARCH_TIME), searchOptions.getSearchTimeMillis()));
+        if (cmd.hasOption(PARALLEL_MODE)) {
+            searchOptions.setParallelMode(
+                    ParallelMode.valueOf(StringUtils.upperCase(cmd.getOptionValue(PARALLEL_MODE))));
+        }
+        searchOptions.setThreadNum(NumberUtils.toInt(cmd.getOptionValue(THREAD_NUM), searchOptions.getThreadNum()));
+        searchOptions.setBookPath(cmd.getOptionValue(BOOK_PATH));
+        searchOptions.setCachePath(cmd.getOptionValue(CACHE_PATH));
+        searchOptions.setAspirationWindow(NumberUtils.toDouble(cmd.getOptionValue(ASPIRATION_WINDOW),
+                searchOptions.getAspirationWindow()));
+        searchOptions.setAspirationGrowth(NumberUtils.toDouble(cmd.getOptionValue(ASPIRATION_GROWTH),
+                searchOptions.getAspirationGrowth()));
+        return searchOptions;
+    }
+
+    /**
+     * @return the searchTimeMillis
+     */
+    public long getSearchTimeMillis() {
+        return searchTimeMillis;
+    }
+
+    /**
+     * @param searchTimeMillis
+     *            the searchTimeMillis to set
+     */
+    public void setSearchTimeMillis(long searchTimeMillis) {
+        Preconditions.checkArgument(searchTimeMillis > 0);
+        this.searchTimeMillis = searchTimeMillis;
+    }
+
+    /**
+     * @return the parallelMode
+     */
+    public ParallelMode getParallelMode() {
+        return parallelMode;
+    }
+
+    /**
+     * @param parallelMode
+     *            the parallelMode to set
+     */
+    public void setParallelMode(ParallelMode parallelMode) {
+        this.parallelMode = Preconditions.checkNotNull(parallelMode);
+    }
+
+    /**
+     * @return the threadNum
+     */
+    public int getThreadNum() {
+        return threadNum;
+    }
+
+    /**
+     * @param threadNum
+     *            the threadNum to set
+     */
+    public void setThreadNum(int threadNum) {
+        Preconditions.checkArgument(threadNum > 0);
+        this.threadNum = threadNum;
+    }
+
+    /**
+     * @return the bookPath
+     */
+    public String getBookPath() {
+        return bookPath;
+    }
+
+    /**
+     * @param bookPath
+     *            the bookPath to set
+     */
+    public void setBookPath(String bookPath) {
+        this.bookPath = bookPath;
+    }
+
+    /**
+     * @return the cachePath
+     */
+    public String getCachePath() {
+        return cachePath;
+    }
+
+    /**
+     * @param cachePath
+     *            the cachePath to set
+     */
+    public void setCachePath(String cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    /**
+     * @return the aspirationWindow
+     */
+    public double getAspirationWindow() {
+        return aspirationWindow;
+    }
+
+    /**
+     * @param aspirationWindow
+     *            the aspirationWindow to set
+     */
+    public void setAspirationWindow(double aspirationWindow) {
+        Preconditions.checkArgument(aspirationWindow >= 0);
+        this.aspirationWindow = aspirationWindow;
+    }
+
+    /**
+     * @return the aspirationGrowth
+     */
+    public double getAspirationGrowth() {
+        return aspirationGrowth;
+    }
+
+    /**
+     * @param aspirationGrowth
+     *            the aspirationGrowth to set
+     */
+    public void setAspirationGrowth(double aspirationGrowth) {
+        Preconditions.checkArgument(aspirationGrowth > 1);
+        this.aspirationGrowth = aspirationGrowth;
+    }
+
+}
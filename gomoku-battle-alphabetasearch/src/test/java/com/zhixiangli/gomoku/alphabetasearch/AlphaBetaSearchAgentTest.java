@@ -4,12 +4,18 @@
 package com.zhixiangli.gomoku.alphabetasearch;
 
 import java.awt.Point;
+import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.zhixiangli.gomoku.alphabetasearch.common.ParallelMode;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchOptions;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
 
 /**
  * @author zhixiangli
@@ -49,4 +55,161 @@ public class AlphaBetaSearchAgentTest {
         Assert.assertTrue(new Point(5, 2).equals(point) || new Point(1, 6).equals(point));
     }
 
+    @Test
+    public void nextInSession() {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(500);
+        AlphaBetaSearchAgent sessionAgent = new AlphaBetaSearchAgent(searchOptions);
+        String sgf = "B[25];W[36];B[34];W[45];B[43]";
+        Point point = sessionAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(new Point(5, 2).equals(point) || new Point(1, 6).equals(point));
+        // the principal variation starts with the move, and goes on with empty
+        // points.
+        List<Point> principalVariation = sessionAgent.getPrincipalVariation();
+        Assert.assertEquals(point, principalVariation.get(0));
+        Assert.assertEquals(principalVariation.size(), new HashSet<>(principalVariation).size());
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        Assert.assertTrue(principalVariation.stream().allMatch(chessboard::isEmpty));
+
+        // the game goes on with the move and a reply.
+        Point reply = new Point(5, 2).equals(point) ? new Point(1, 6) : new Point(5, 2);
+        sgf = String.format("%s;W[%s];B[%s]", sgf, GomokuFormatter.encodePoint(point),
+                GomokuFormatter.encodePoint(reply));
+        point = sessionAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(GomokuFormatter.toChessboard(sgf).isEmpty(point));
+    }
+
+    @Test
+    public void ponder() {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(500);
+        AlphaBetaSearchAgent ponderAgent = new AlphaBetaSearchAgent(searchOptions);
+        String sgf = "B[77];W[78];B[66]";
+        Point point = ponderAgent.next(sgf, ChessType.WHITE);
+        sgf = String.format("%s;W[%s]", sgf, GomokuFormatter.encodePoint(point));
+
+        // the opponent plays the expected move.
+        ponderAgent.ponder(sgf, ChessType.WHITE);
+        String ponderSgf = ponderAgent.getPonderSgf();
+        Assert.assertTrue(ponderSgf.startsWith(sgf + ";B["));
+        point = ponderAgent.next(ponderSgf, ChessType.WHITE);
+        Assert.assertNull(ponderAgent.getPonderSgf());
+        Assert.assertTrue(GomokuFormatter.toChessboard(ponderSgf).isEmpty(point));
+
+        // the opponent plays another move.
+        sgf = String.format("%s;W[%s]", ponderSgf, GomokuFormatter.encodePoint(point));
+        ponderAgent.ponder(sgf, ChessType.WHITE);
+        Assert.assertNotNull(ponderAgent.getPonderSgf());
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        Point reply = new Point(0, 0);
+        while (!chessboard.isEmpty(reply)
+                || ponderAgent.getPonderSgf().endsWith(GomokuFormatter.encodePoint(reply) + "]")) {
+            reply.translate(0, 1);
+        }
+        sgf = String.format("%s;B[%s]", sgf, GomokuFormatter.encodePoint(reply));
+        point = ponderAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(GomokuFormatter.toChessboard(sgf).isEmpty(point));
+
+        // pondering is turned off.
+        sgf = String.format("%s;W[%s]", sgf, GomokuFormatter.encodePoint(point));
+        ponderAgent.ponder(sgf, ChessType.WHITE);
+        ponderAgent.stopPondering();
+        Assert.assertNull(ponderAgent.getPonderSgf());
+    }
+
+    @Test
+    public void ponderBudget() throws InterruptedException {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(100);
+        AlphaBetaSearchAgent ponderAgent = new AlphaBetaSearchAgent(searchOptions);
+        String sgf = "B[77];W[78];B[66]";
+        Point point = ponderAgent.next(sgf, ChessType.WHITE);
+        sgf = String.format("%s;W[%s]", sgf, GomokuFormatter.encodePoint(point));
+
+        // the opponent takes long, the pondering stops by itself.
+        ponderAgent.ponder(sgf, ChessType.WHITE);
+        Assert.assertNotNull(ponderAgent.getPonderSgf());
+        long deadline = System.currentTimeMillis() + 10000;
+        while (ponderAgent.isPondering() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(ponderAgent.isPondering());
+        String ponderSgf = ponderAgent.getPonderSgf();
+        point = ponderAgent.next(ponderSgf, ChessType.WHITE);
+        Assert.assertTrue(GomokuFormatter.toChessboard(ponderSgf).isEmpty(point));
+    }
+
+    @Test
+    public void ponderMiss() {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(1000);
+        AlphaBetaSearchAgent ponderAgent = new AlphaBetaSearchAgent(searchOptions);
+        String sgf = "B[77];W[78];B[66]";
+        Point point = ponderAgent.next(sgf, ChessType.WHITE);
+        sgf = String.format("%s;W[%s]", sgf, GomokuFormatter.encodePoint(point));
+        ponderAgent.ponder(sgf, ChessType.WHITE);
+        Assert.assertNotNull(ponderAgent.getPonderSgf());
+
+        // the opponent plays another move, the pondering stops at once and the move
+        // is searched within its budget.
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        Point reply = new Point(0, 0);
+        while (!chessboard.isEmpty(reply)
+                || ponderAgent.getPonderSgf().endsWith(GomokuFormatter.encodePoint(reply) + "]")) {
+            reply.translate(0, 1);
+        }
+        sgf = String.format("%s;B[%s]", sgf, GomokuFormatter.encodePoint(reply));
+        long startTime = System.currentTimeMillis();
+        point = ponderAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(System.currentTimeMillis() - startTime < searchOptions.getSearchTimeMillis() + 250);
+        Assert.assertTrue(GomokuFormatter.toChessboard(sgf).isEmpty(point));
+        // the game goes on, the pondering is counted with the moves.
+        Assert.assertEquals(3, ponderAgent.getGameStatistics().getSearchNum());
+
+        // a new game.
+        ponderAgent.next("B[77]", ChessType.WHITE);
+        Assert.assertEquals(1, ponderAgent.getGameStatistics().getSearchNum());
+    }
+
+    @Test
+    public void nextWithAspirationWindow() {
+        String sgf = "B[77];W[78];B[66]";
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setSearchTimeMillis(500);
+        searchOptions.setAspirationWindow(0);
+        AlphaBetaSearchAgent fullWindowAgent = new AlphaBetaSearchAgent(searchOptions);
+        Point point = fullWindowAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(GomokuFormatter.toChessboard(sgf).isEmpty(point));
+        Assert.assertEquals(0, fullWindowAgent.getResearchNum());
+
+        // a tiny window fails and widens.
+        searchOptions.setAspirationWindow(1);
+        AlphaBetaSearchAgent narrowWindowAgent = new AlphaBetaSearchAgent(searchOptions);
+        point = narrowWindowAgent.next(sgf, ChessType.WHITE);
+        Assert.assertTrue(GomokuFormatter.toChessboard(sgf).isEmpty(point));
+        Assert.assertTrue(narrowWindowAgent.getResearchNum() > 0);
+    }
+
+    @Test
+    public void nextWithLazySmp() {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setParallelMode(ParallelMode.LAZY_SMP);
+        searchOptions.setThreadNum(4);
+        searchOptions.setSearchTimeMillis(2000);
+        AlphaBetaSearchAgent lazySmpAgent = new AlphaBetaSearchAgent(searchOptions);
+        Point point = lazySmpAgent.next("B[25];W[36];B[34];W[45];B[43]", ChessType.WHITE);
+        Assert.assertTrue(new Point(5, 2).equals(point) || new Point(1, 6).equals(point));
+    }
+
+    @Test
+    public void nextWithYoungBrothersWait() {
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setParallelMode(ParallelMode.YOUNG_BROTHERS_WAIT);
+        searchOptions.setThreadNum(4);
+        searchOptions.setSearchTimeMillis(2000);
+        AlphaBetaSearchAgent youngBrothersWaitAgent = new AlphaBetaSearchAgent(searchOptions);
+        Point point = youngBrothersWaitAgent.next("B[25];W[36];B[34];W[45];B[43]", ChessType.WHITE);
+        Assert.assertTrue(new Point(5, 2).equals(point) || new Point(1, 6).equals(point));
+    }
+
 }
@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class GameSessionTest {
+
+    private GameSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        this.session = new GameSession();
+    }
+
+    @Test
+    public void update() {
+        Assert.assertFalse(this.session.update(""));
+        Assert.assertTrue(this.session.getChessboard().isEmpty());
+
+        Assert.assertFalse(this.session.update("B[77]"));
+        Assert.assertEquals(GomokuFormatter.toChessboard("B[77]"), this.session.getChessboard());
+
+        // two moves later.
+        Assert.assertTrue(this.session.update("B[77];W[78];B[66]"));
+        Assert.assertEquals(Arrays.asList(ImmutablePair.of(ChessType.WHITE, new Point(7, 8)),
+                ImmutablePair.of(ChessType.BLACK, new Point(6, 6))), this.session.getNewMoves());
+        Assert.assertEquals(GomokuFormatter.toChessboard("B[77];W[78];B[66]"), this.session.getChessboard());
+
+        // another game.
+        Assert.assertFalse(this.session.update("B[77];W[88]"));
+        Assert.assertFalse(this.session.isContinued());
+        Assert.assertTrue(this.session.isNewGame());
+        Assert.assertEquals(2, this.session.getNewMoves().size());
+        Assert.assertEquals(GomokuFormatter.toChessboard("B[77];W[88]"), this.session.getChessboard());
+
+        // the last move is replaced, as the opponent does after a missed ponder.
+        Assert.assertFalse(this.session.update("B[77];W[89]"));
+        Assert.assertFalse(this.session.isNewGame());
+        Assert.assertEquals(GomokuFormatter.toChessboard("B[77];W[89]"), this.session.getChessboard());
+    }
+
+}
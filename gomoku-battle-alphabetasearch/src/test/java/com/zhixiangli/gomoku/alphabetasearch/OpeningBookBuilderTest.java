@@ -0,0 +1,59 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch;
+
+import java.awt.Point;
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.OpeningBook;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchOptions;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class OpeningBookBuilderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void addGame() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        // black wins.
+        builder.addGame("B[77];W[66];B[78];W[67];B[79];W[68];B[7a];W[69];B[7b]");
+        // white wins.
+        builder.addGame("B[77];W[88];B[76];W[89];B[75];W[8a];B[7b];W[8b];B[7c];W[8c]");
+        // unfinished.
+        builder.addGame("B[77];W[87]");
+
+        Chessboard chessboard = new Chessboard();
+        Map<Point, Integer> moves = builder.getBook().get(chessboard.getZobristKey());
+        Assert.assertEquals(1, moves.size());
+        Assert.assertEquals(Integer.valueOf(3), moves.get(new Point(7, 7)));
+        chessboard.setChess(7, 7, ChessType.BLACK);
+        moves = builder.getBook().get(chessboard.getZobristKey());
+        Assert.assertEquals(2, moves.size());
+        Assert.assertEquals(Integer.valueOf(2), moves.get(new Point(8, 8)));
+        Assert.assertEquals(Integer.valueOf(1), moves.get(new Point(8, 7)));
+        Assert.assertEquals(2, builder.getBook().size());
+
+        // the agent puts the book move without a search.
+        File file = this.folder.newFile();
+        OpeningBook.write(file.toPath(), builder.getBook());
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setBookPath(file.getPath());
+        AlphaBetaSearchAgent agent = new AlphaBetaSearchAgent(searchOptions);
+        Assert.assertEquals(new Point(7, 7), agent.next("", ChessType.BLACK));
+    }
+
+}
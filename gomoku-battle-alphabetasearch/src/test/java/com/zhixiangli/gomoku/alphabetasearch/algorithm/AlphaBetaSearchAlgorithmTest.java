@@ -6,7 +6,6 @@ package com.zhixiangli.gomoku.alphabetasearch.algorithm;
 import java.awt.Point;
 import java.util.Arrays;
 
-import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -17,6 +16,7 @@ import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
 import com.zhixiangli.gomoku.core.analysis.PatternType;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
 import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
 
 /**
  * @author zhixiangli
@@ -47,13 +47,13 @@ public class AlphaBetaSearchAlgorithmTest {
         chessboard.setChess(point, chessType);
         double expected = 3 * ProphetConst.EVALUATION.get(PatternType.SPACED_OPEN_THREE) * SearchConst.DECAY_FACTOR;
         double actual = algorithmWithCache.clearCacheAndSearch(0, -Double.MAX_VALUE, Double.MAX_VALUE, chessboard,
-                point, chessType, chessType, StringUtils.EMPTY);
+                point, chessType, chessType);
         Assert.assertEquals(expected, actual, 1e-8);
 
         expected = PatternType.HALF_OPEN_TWO.getChessNum() * ProphetConst.EVALUATION.get(PatternType.HALF_OPEN_TWO)
                 * SearchConst.DECAY_FACTOR * SearchConst.DECAY_FACTOR;
         actual = algorithmWithoutCache.clearCacheAndSearch(1, -Double.MAX_VALUE, Double.MAX_VALUE, chessboard, point,
-                chessType, chessType, StringUtils.EMPTY);
+                chessType, chessType);
         Assert.assertEquals(expected, actual, 1e-8);
     }
 
@@ -65,13 +65,13 @@ public class AlphaBetaSearchAlgorithmTest {
             for (Point point : Arrays.asList(new Point(5, 5), new Point(7, 6))) {
                 newChessboard.setChess(point, chessType);
                 double withCache = algorithmWithCache.clearCacheAndSearch(depth, -Double.MAX_VALUE, Double.MAX_VALUE,
-                        newChessboard, point, chessType, chessType, StringUtils.EMPTY);
+                        newChessboard, point, chessType, chessType);
                 newChessboard.setChess(point, ChessType.EMPTY);
                 Assert.assertEquals(chessboard, newChessboard);
 
                 newChessboard.setChess(point, chessType);
                 double withoutCache = algorithmWithoutCache.clearCacheAndSearch(depth, -Double.MAX_VALUE,
-                        Double.MAX_VALUE, newChessboard, point, chessType, chessType, StringUtils.EMPTY);
+                        Double.MAX_VALUE, newChessboard, point, chessType, chessType);
                 newChessboard.setChess(point, ChessType.EMPTY);
                 Assert.assertEquals(chessboard, newChessboard);
 
@@ -82,4 +82,118 @@ public class AlphaBetaSearchAlgorithmTest {
         }
     }
 
+    @Test
+    public void testQuiescence() throws Exception {
+        // a half open four of black has to be blocked.
+        Chessboard newChessboard = new Chessboard();
+        for (int i = 3; i < 7; ++i) {
+            newChessboard.setChess(7, i, ChessType.BLACK);
+        }
+        newChessboard.setChess(7, 2, ChessType.WHITE);
+        Point point = new Point(7, 6);
+        Chessboard blockedChessboard = newChessboard.clone();
+        blockedChessboard.setChess(7, 7, ChessType.WHITE);
+        double expected = AlphaBetaSearchProphet.evaluateChessboardValue(blockedChessboard, ChessType.BLACK)
+                * SearchConst.DECAY_FACTOR;
+        Assert.assertEquals(expected, algorithmWithoutCache.quiescence(0, -Double.MAX_VALUE, Double.MAX_VALUE,
+                newChessboard, point, ChessType.BLACK, ChessType.BLACK), 1e-8);
+        Assert.assertEquals(ChessType.EMPTY, newChessboard.getChess(7, 7));
+
+        // a double four can not be blocked.
+        newChessboard.setChess(7, 2, ChessType.EMPTY);
+        Assert.assertEquals(
+                ProphetConst.EVALUATION.get(PatternType.FIVE) * SearchConst.DECAY_FACTOR * SearchConst.DECAY_FACTOR,
+                algorithmWithoutCache.quiescence(0, -Double.MAX_VALUE, Double.MAX_VALUE, newChessboard, point,
+                        ChessType.BLACK, ChessType.BLACK),
+                1e-8);
+    }
+
+    @Test
+    public void testNarrowWindow() throws Exception {
+        // the values of both signs are decayed, a window close to the value
+        // tells the same value, and a window beside it tells its side.
+        Chessboard newChessboard = chessboard.clone();
+        newChessboard.setChess(7, 8, ChessType.WHITE);
+        newChessboard.setChess(6, 6, ChessType.WHITE);
+        for (Point point : Arrays.asList(new Point(5, 5), new Point(9, 7))) {
+            for (ChessType chessType : Arrays.asList(ChessType.BLACK, ChessType.WHITE)) {
+                newChessboard.setChess(point, chessType);
+                for (int depth = 0; depth <= 2; ++depth) {
+                    double value = algorithmWithoutCache.clearCacheAndSearch(depth, -Double.MAX_VALUE,
+                            Double.MAX_VALUE, newChessboard, point, chessType, chessType);
+                    double delta = Math.abs(value) * 1e-4 + 1e-6;
+                    for (AlphaBetaSearchAlgorithm algorithm : Arrays.asList(algorithmWithoutCache,
+                            algorithmWithCache)) {
+                        Assert.assertEquals(value, algorithm.clearCacheAndSearch(depth, value - delta,
+                                value + delta, newChessboard, point, chessType, chessType), 1e-8);
+                        Assert.assertTrue(value + delta >= algorithm.clearCacheAndSearch(depth, value + delta,
+                                value + 2 * delta, newChessboard, point, chessType, chessType));
+                        Assert.assertTrue(value - delta <= algorithm.clearCacheAndSearch(depth, value - 2 * delta,
+                                value - delta, newChessboard, point, chessType, chessType));
+                    }
+                }
+                newChessboard.setChess(point, ChessType.EMPTY);
+            }
+        }
+    }
+
+    @Test
+    public void testPrincipalVariation() throws Exception {
+        chessboard.setChess(9, 9, ChessType.BLACK);
+        chessboard.setChess(10, 10, ChessType.BLACK);
+        Point point = new Point(0, 0);
+        ChessType chessType = ChessType.WHITE;
+        chessboard.setChess(point, chessType);
+        SearchResult result = algorithmWithCache.searchPrincipalVariation(2, -Double.MAX_VALUE, Double.MAX_VALUE,
+                chessboard, point, chessType, chessType);
+        double expected = -ProphetConst.EVALUATION.get(PatternType.FIVE) * SearchConst.DECAY_FACTOR
+                * SearchConst.DECAY_FACTOR;
+        Assert.assertEquals(expected, result.getValue(), 1e-8);
+        Assert.assertEquals(1, result.getPrincipalVariation().size());
+        Point winPoint = result.getPrincipalVariation().get(0);
+        Assert.assertTrue(new Point(6, 6).equals(winPoint) || new Point(11, 11).equals(winPoint));
+
+        // the variation is kept in the transposition table.
+        Chessboard newChessboard = chessboard.clone();
+        Assert.assertEquals(result.getPrincipalVariation(), algorithmWithCache.getPrincipalVariation(newChessboard,
+                chessType, chessType, SearchConst.MAX_DEPTH));
+        Assert.assertEquals(chessboard, newChessboard);
+        Assert.assertTrue(
+                algorithmWithoutCache.getPrincipalVariation(chessboard, chessType, chessType, SearchConst.MAX_DEPTH)
+                        .isEmpty());
+        Assert.assertEquals(result.getValue(), algorithmWithoutCache.clearCacheAndSearch(2, -Double.MAX_VALUE,
+                Double.MAX_VALUE, chessboard, point, chessType, chessType), 1e-8);
+    }
+
+    @Test
+    public void testPruning() throws Exception {
+        AlphaBetaSearchAlgorithm algorithmWithoutPruning = new AlphaBetaSearchAlgorithm();
+        algorithmWithoutPruning.setEnablePruning(false);
+        // the refutations of these moves make two open twos, which are not quiet.
+        for (String sgf : new String[] { "B[a4];W[9a];B[5a];W[55];B[7a];W[85];B[66];W[75]",
+                "B[79];W[49];B[85];W[44];B[56];W[6a];B[64];W[59]" }) {
+            Chessboard tacticalChessboard = new IncrementalChessboard(GomokuFormatter.toChessboard(sgf));
+            Point[] candidates = algorithmWithCache.nextMoves(tacticalChessboard, ChessType.BLACK);
+            Assert.assertEquals(searchBestMove(algorithmWithoutPruning, tacticalChessboard, candidates),
+                    searchBestMove(algorithmWithCache, tacticalChessboard, candidates));
+        }
+    }
+
+    private static Point searchBestMove(AlphaBetaSearchAlgorithm algorithm, Chessboard chessboard,
+            Point[] candidates) throws Exception {
+        Point bestMove = null;
+        double bestValue = -Double.MAX_VALUE;
+        for (Point point : candidates) {
+            chessboard.setChess(point, ChessType.BLACK);
+            double value = algorithm.clearCacheAndSearch(3, -Double.MAX_VALUE, Double.MAX_VALUE, chessboard, point,
+                    ChessType.BLACK, ChessType.BLACK);
+            chessboard.setChess(point, ChessType.EMPTY);
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = point;
+            }
+        }
+        return bestMove;
+    }
+
 }
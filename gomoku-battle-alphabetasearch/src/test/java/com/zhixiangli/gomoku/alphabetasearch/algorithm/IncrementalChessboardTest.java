@@ -0,0 +1,114 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class IncrementalChessboardTest {
+
+    @Test
+    public void makeAndUnmake() {
+        Random random = new Random(0);
+        Chessboard chessboard = new Chessboard();
+        IncrementalChessboard incrementalChessboard = new IncrementalChessboard();
+        Deque<Point> moves = new ArrayDeque<>();
+        for (int n = 0; n < 2000; ++n) {
+            // put a stone around the center, or take the last one back.
+            if (moves.isEmpty() || random.nextInt(3) > 0) {
+                Point point = new Point(4 + random.nextInt(7), 4 + random.nextInt(7));
+                if (!chessboard.isEmpty(point)) {
+                    continue;
+                }
+                ChessType chessType = random.nextBoolean() ? ChessType.BLACK : ChessType.WHITE;
+                chessboard.setChess(point, chessType);
+                incrementalChessboard.setChess(point, chessType);
+                moves.push(point);
+            } else {
+                Point point = moves.pop();
+                chessboard.setChess(point, ChessType.EMPTY);
+                incrementalChessboard.setChess(point, ChessType.EMPTY);
+            }
+            if (n % 3 == 0) {
+                assertValues(chessboard, incrementalChessboard);
+            }
+            assertCandidates(chessboard, incrementalChessboard);
+        }
+        assertValues(chessboard, incrementalChessboard);
+        Assert.assertEquals(chessboard.toString(), incrementalChessboard.toString());
+
+        // a clone is evaluated by itself.
+        IncrementalChessboard clonedChessboard = incrementalChessboard.clone();
+        Point point = moves.peek();
+        clonedChessboard.setChess(point, ChessType.EMPTY);
+        chessboard.setChess(point, ChessType.EMPTY);
+        assertValues(chessboard, clonedChessboard);
+        assertCandidates(chessboard, clonedChessboard);
+        Assert.assertEquals(ChessType.EMPTY, clonedChessboard.getChess(point));
+        Assert.assertNotEquals(ChessType.EMPTY, incrementalChessboard.getChess(point));
+
+        incrementalChessboard.clear();
+        Assert.assertEquals(0, incrementalChessboard.getValue(ChessType.BLACK), 0);
+        Assert.assertEquals(0, incrementalChessboard.getValue(ChessType.WHITE), 0);
+        Assert.assertEquals(0, incrementalChessboard.getEmptyPointsAround().length);
+    }
+
+    @Test
+    public void copy() {
+        Random random = new Random(1);
+        Chessboard chessboard = new Chessboard();
+        for (int i = 0; i < 100; ++i) {
+            chessboard.setChess(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                    random.nextInt(GomokuConst.CHESSBOARD_SIZE), ChessType.values()[random.nextInt(3)]);
+        }
+        IncrementalChessboard incrementalChessboard = new IncrementalChessboard(chessboard);
+        Assert.assertEquals(chessboard.toString(), incrementalChessboard.toString());
+        assertValues(chessboard, incrementalChessboard);
+        assertCandidates(chessboard, incrementalChessboard);
+    }
+
+    @Test
+    public void search() throws Exception {
+        Chessboard chessboard = new Chessboard();
+        chessboard.setChess(7, 7, ChessType.BLACK);
+        chessboard.setChess(7, 8, ChessType.WHITE);
+        chessboard.setChess(6, 6, ChessType.BLACK);
+        chessboard.setChess(8, 8, ChessType.WHITE);
+        IncrementalChessboard incrementalChessboard = new IncrementalChessboard(chessboard);
+        Point point = new Point(8, 8);
+        double expected = new AlphaBetaSearchAlgorithm(false).search(3, -Double.MAX_VALUE, Double.MAX_VALUE,
+                chessboard, point, ChessType.WHITE, ChessType.WHITE);
+        Assert.assertEquals(expected, new AlphaBetaSearchAlgorithm(false).search(3, -Double.MAX_VALUE,
+                Double.MAX_VALUE, incrementalChessboard, point, ChessType.WHITE, ChessType.WHITE), 1e-8);
+        assertValues(chessboard, incrementalChessboard);
+    }
+
+    private static void assertCandidates(Chessboard chessboard, IncrementalChessboard incrementalChessboard) {
+        Assert.assertArrayEquals(GlobalAnalyser.getEmptyPointsAround(chessboard, SearchConst.AROUND_CANDIDATE_RANGE),
+                incrementalChessboard.getEmptyPointsAround());
+    }
+
+    private static void assertValues(Chessboard chessboard, IncrementalChessboard incrementalChessboard) {
+        for (ChessType chessType : new ChessType[] { ChessType.BLACK, ChessType.WHITE }) {
+            Assert.assertEquals(AlphaBetaSearchProphet.evaluateChessboardValueByChessType(chessboard, chessType),
+                    AlphaBetaSearchProphet.evaluateChessboardValueByChessType(incrementalChessboard, chessType));
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class MoveHistoryTest {
+
+    private MoveHistory moveHistory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.moveHistory = new MoveHistory();
+    }
+
+    @Test
+    public void killers() {
+        Assert.assertNull(this.moveHistory.getKiller(3, 0));
+        this.moveHistory.addCutoff(ChessType.BLACK, new Point(7, 7), 3, 2);
+        this.moveHistory.addCutoff(ChessType.BLACK, new Point(14, 14), 3, 2);
+        Assert.assertEquals(new Point(14, 14), this.moveHistory.getKiller(3, 0));
+        Assert.assertEquals(new Point(7, 7), this.moveHistory.getKiller(3, 1));
+        Assert.assertNull(this.moveHistory.getKiller(4, 0));
+
+        // the same killer is not kept twice.
+        this.moveHistory.addCutoff(ChessType.WHITE, new Point(14, 14), 3, 2);
+        Assert.assertEquals(new Point(7, 7), this.moveHistory.getKiller(3, 1));
+
+        this.moveHistory.age();
+        Assert.assertNull(this.moveHistory.getKiller(3, 0));
+    }
+
+    @Test
+    public void history() {
+        this.moveHistory.addCutoff(ChessType.BLACK, new Point(7, 7), 0, 3);
+        this.moveHistory.addCutoff(ChessType.BLACK, new Point(7, 7), 0, 1);
+        Assert.assertEquals(20, this.moveHistory.getHistory(ChessType.BLACK, new Point(7, 7)));
+        Assert.assertEquals(0, this.moveHistory.getHistory(ChessType.WHITE, new Point(7, 7)));
+
+        this.moveHistory.age();
+        Assert.assertEquals(10, this.moveHistory.getHistory(ChessType.BLACK, new Point(7, 7)));
+        this.moveHistory.clear();
+        Assert.assertEquals(0, this.moveHistory.getHistory(ChessType.BLACK, new Point(7, 7)));
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class OpeningBookTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndOpen() throws Exception {
+        Chessboard chessboard = new Chessboard();
+        Chessboard nextChessboard = new Chessboard();
+        nextChessboard.setChess(7, 7, ChessType.BLACK);
+
+        SortedMap<Long, Map<Point, Integer>> book = new TreeMap<>();
+        book.put(chessboard.getZobristKey(), new HashMap<>());
+        book.get(chessboard.getZobristKey()).put(new Point(7, 7), 3);
+        book.put(nextChessboard.getZobristKey(), new HashMap<>());
+        book.get(nextChessboard.getZobristKey()).put(new Point(6, 6), 1);
+        book.get(nextChessboard.getZobristKey()).put(new Point(6, 8), 2);
+        // an occupied point is skipped.
+        book.get(nextChessboard.getZobristKey()).put(new Point(7, 7), 4);
+        File file = this.folder.newFile();
+        OpeningBook.write(file.toPath(), book);
+
+        OpeningBook openingBook = OpeningBook.open(file.toPath());
+        Assert.assertEquals(4, openingBook.size());
+        Assert.assertEquals(new Point(7, 7), openingBook.probe(chessboard));
+        Map<Point, Integer> moves = openingBook.getMoves(nextChessboard);
+        Assert.assertEquals(2, moves.size());
+        Assert.assertEquals(Integer.valueOf(1), moves.get(new Point(6, 6)));
+        Assert.assertEquals(Integer.valueOf(2), moves.get(new Point(6, 8)));
+        Assert.assertTrue(moves.containsKey(openingBook.probe(nextChessboard)));
+
+        nextChessboard.setChess(6, 6, ChessType.WHITE);
+        Assert.assertNull(openingBook.probe(nextChessboard));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openInvalid() throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), new byte[64]);
+        OpeningBook.open(file.toPath());
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class PersistentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storeAndProbe() throws Exception {
+        Path path = this.folder.getRoot().toPath().resolve("cache");
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        try (PersistentCache persistentCache = PersistentCache.open(path, 4)) {
+            Assert.assertFalse(persistentCache.probe(1L, entry));
+            persistentCache.store(1L, 3, 0.5, TranspositionTable.Bound.LOWER);
+            // the stores are appended in a batch.
+            Assert.assertFalse(persistentCache.probe(1L, entry));
+            Assert.assertEquals(0, persistentCache.size());
+            persistentCache.flush();
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+            Assert.assertEquals(3, entry.getDepth());
+            Assert.assertEquals(0.5, entry.getScore(), 1e-8);
+            Assert.assertEquals(TranspositionTable.Bound.LOWER, entry.getBound());
+            Assert.assertNull(entry.getBestMove());
+
+            // a shallower search does not replace a deeper one.
+            persistentCache.store(1L, 2, 0.1, TranspositionTable.Bound.EXACT);
+            persistentCache.flush();
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+            Assert.assertEquals(3, entry.getDepth());
+            Assert.assertEquals(1, persistentCache.size());
+
+            persistentCache.store(1L, 4, -0.5, TranspositionTable.Bound.EXACT);
+            // the same home slot.
+            persistentCache.store(17L, 2, 0.25, TranspositionTable.Bound.UPPER);
+            persistentCache.flush();
+            Assert.assertEquals(3, persistentCache.size());
+        }
+
+        // the records survive the process.
+        try (PersistentCache persistentCache = PersistentCache.open(path, 10)) {
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+            Assert.assertEquals(4, entry.getDepth());
+            Assert.assertEquals(-0.5, entry.getScore(), 1e-8);
+            Assert.assertEquals(TranspositionTable.Bound.EXACT, entry.getBound());
+            Assert.assertTrue(persistentCache.probe(17L, entry));
+            Assert.assertEquals(0.25, entry.getScore(), 1e-8);
+
+            // 8 records at most for 2^4 slots.
+            for (long key = 2; key < 20; ++key) {
+                persistentCache.store(key << 32, 5, 1, TranspositionTable.Bound.EXACT);
+            }
+            persistentCache.flush();
+            Assert.assertEquals(8, persistentCache.size());
+        }
+    }
+
+    @Test
+    public void searchSymmetry() throws Exception {
+        Path path = this.folder.getRoot().toPath().resolve("cache");
+        int last = GomokuConst.CHESSBOARD_SIZE - 1;
+        int[][] stones = { { 7, 7 }, { 7, 8 }, { 6, 6 }, { 8, 9 }, { 5, 5 } };
+        Chessboard chessboard = new Chessboard();
+        Chessboard reflectedChessboard = new Chessboard();
+        ChessType chessType = ChessType.BLACK;
+        for (int[] stone : stones) {
+            chessboard.setChess(stone[0], stone[1], chessType);
+            reflectedChessboard.setChess(stone[0], last - stone[1], chessType);
+            chessType = chessType == ChessType.BLACK ? ChessType.WHITE : ChessType.BLACK;
+        }
+        Point point = new Point(5, 5);
+
+        AlphaBetaSearchAlgorithm algorithm = new AlphaBetaSearchAlgorithm();
+        double expected = algorithm.clearCacheAndSearch(3, -Double.MAX_VALUE, Double.MAX_VALUE, chessboard, point,
+                ChessType.BLACK, ChessType.BLACK);
+        try (PersistentCache persistentCache = PersistentCache.open(path, 16)) {
+            algorithm.setPersistentCache(persistentCache);
+            Assert.assertEquals(expected, algorithm.clearCacheAndSearch(3, -Double.MAX_VALUE, Double.MAX_VALUE,
+                    chessboard, point, ChessType.BLACK, ChessType.BLACK), 1e-8);
+            algorithm.flushPersistentCache();
+            Assert.assertTrue(persistentCache.size() > 0);
+        }
+
+        // another process searches the reflection.
+        try (PersistentCache persistentCache = PersistentCache.open(path, 16)) {
+            int size = persistentCache.size();
+            AlphaBetaSearchAlgorithm newAlgorithm = new AlphaBetaSearchAlgorithm();
+            newAlgorithm.setPersistentCache(persistentCache);
+            Assert.assertEquals(expected,
+                    newAlgorithm.clearCacheAndSearch(3, -Double.MAX_VALUE, Double.MAX_VALUE, reflectedChessboard,
+                            new Point(5, last - 5), ChessType.BLACK, ChessType.BLACK),
+                    1e-8);
+            // the root is found, nothing is searched again.
+            newAlgorithm.flushPersistentCache();
+            Assert.assertEquals(size, persistentCache.size());
+        }
+    }
+
+    @Test
+    public void canonicalKey() {
+        int last = GomokuConst.CHESSBOARD_SIZE - 1;
+        int[][] stones = { { 7, 7 }, { 3, 9 }, { 0, 14 }, { 12, 1 } };
+        Chessboard chessboard = new Chessboard();
+        Chessboard rotatedChessboard = new Chessboard();
+        Chessboard reflectedChessboard = new Chessboard();
+        for (int i = 0; i < stones.length; ++i) {
+            ChessType chessType = i % 2 == 0 ? ChessType.BLACK : ChessType.WHITE;
+            int row = stones[i][0], column = stones[i][1];
+            chessboard.setChess(row, column, chessType);
+            rotatedChessboard.setChess(column, last - row, chessType);
+            reflectedChessboard.setChess(last - row, column, chessType);
+        }
+        Assert.assertNotEquals(chessboard.getZobristKey(), rotatedChessboard.getZobristKey());
+        Assert.assertEquals(PersistentCache.canonicalKey(chessboard), PersistentCache.canonicalKey(rotatedChessboard));
+        Assert.assertEquals(PersistentCache.canonicalKey(chessboard),
+                PersistentCache.canonicalKey(reflectedChessboard));
+
+        // colors matter.
+        rotatedChessboard.setChess(7, 7, ChessType.WHITE);
+        Assert.assertNotEquals(PersistentCache.canonicalKey(chessboard),
+                PersistentCache.canonicalKey(rotatedChessboard));
+
+        chessboard.clear();
+        Assert.assertEquals(0, PersistentCache.canonicalKey(chessboard));
+    }
+
+    @Test
+    public void brokenRecords() throws Exception {
+        Path path = this.folder.getRoot().toPath().resolve("cache");
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        try (PersistentCache persistentCache = PersistentCache.open(path, 4);
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            persistentCache.store(1L, 3, 0.5, TranspositionTable.Bound.LOWER);
+            persistentCache.flush();
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+
+            // another process writes the file, the header is 8 ints, then 16 slots
+            // and the records of a key, a depth, a bound, a score and a checksum.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int slot = 8 * Integer.BYTES + Integer.BYTES;
+            int record = 8 * Integer.BYTES + 16 * Integer.BYTES;
+            int score = record + Long.BYTES + 2 * Integer.BYTES;
+            int checksum = score + Double.BYTES;
+
+            // a torn record.
+            buffer.putDouble(score, 0.25);
+            Assert.assertFalse(persistentCache.probe(1L, entry));
+            buffer.putDouble(score, 0.5);
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+
+            // a bound out of range.
+            buffer.putInt(record + Long.BYTES + Integer.BYTES, 7).putLong(checksum,
+                    PersistentCache.checksum(1L, 3, 7, 0.5));
+            Assert.assertFalse(persistentCache.probe(1L, entry));
+
+            // a slot out of range is a miss, and is replaced.
+            buffer.putInt(slot, 1000);
+            Assert.assertFalse(persistentCache.probe(1L, entry));
+            persistentCache.store(1L, 2, 0.1, TranspositionTable.Bound.EXACT);
+            persistentCache.flush();
+            Assert.assertTrue(persistentCache.probe(1L, entry));
+            Assert.assertEquals(2, entry.getDepth());
+            Assert.assertEquals(2, persistentCache.size());
+        }
+    }
+
+}
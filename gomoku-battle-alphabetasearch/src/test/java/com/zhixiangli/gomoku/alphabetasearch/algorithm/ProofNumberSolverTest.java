@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.alphabetasearch.common.CacheConst;
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class ProofNumberSolverTest {
+
+    private ProofNumberSolver proofNumberSolver;
+
+    @Before
+    public void setUp() throws Exception {
+        this.proofNumberSolver = new ProofNumberSolver(100000, CacheConst.PN_TABLE_SIZE_BITS);
+    }
+
+    @Test
+    public void solveWin() {
+        // open twos in row 7 and column 7.
+        Chessboard chessboard = new Chessboard();
+        chessboard.setChess(7, 5, ChessType.BLACK);
+        chessboard.setChess(7, 6, ChessType.BLACK);
+        chessboard.setChess(5, 7, ChessType.BLACK);
+        chessboard.setChess(6, 7, ChessType.BLACK);
+        chessboard.setChess(2, 12, ChessType.WHITE);
+        chessboard.setChess(12, 2, ChessType.WHITE);
+        Chessboard newChessboard = chessboard.clone();
+
+        ProofResult result = this.proofNumberSolver.solve(newChessboard, ChessType.BLACK);
+        Assert.assertEquals(ProofResult.Outcome.WIN, result.getOutcome());
+        Assert.assertTrue(newChessboard.isEmpty(result.getMove()));
+        Assert.assertEquals(chessboard, newChessboard);
+        Assert.assertEquals(result.getMove(), this.proofNumberSolver.proveWin(newChessboard, ChessType.BLACK,
+                () -> Long.MAX_VALUE));
+
+        // out of budget.
+        Assert.assertEquals(ProofResult.Outcome.UNKNOWN,
+                new ProofNumberSolver(1, CacheConst.PN_TABLE_SIZE_BITS).solve(newChessboard, ChessType.BLACK)
+                        .getOutcome());
+        // the deadline has passed.
+        Assert.assertNull(this.proofNumberSolver.proveWin(newChessboard, ChessType.BLACK, () -> Long.MIN_VALUE));
+    }
+
+    @Test
+    public void solveWithLowValueDefences() {
+        // black wins, but not with (6, 6): white saves itself with the points out of
+        // the top candidates.
+        String sgf = "B[75];W[6a];B[a6];W[8a];B[57];W[86];B[aa];W[89];B[74];W[59];B[67];W[49];B[44];W[45]";
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        ProofResult result = this.proofNumberSolver.solve(chessboard, ChessType.BLACK);
+        Assert.assertEquals(ProofResult.Outcome.WIN, result.getOutcome());
+        Assert.assertNotEquals(new Point(6, 6), result.getMove());
+
+        chessboard.setChess(6, 6, ChessType.BLACK);
+        result = this.proofNumberSolver.solve(chessboard, ChessType.WHITE);
+        Assert.assertEquals(ProofResult.Outcome.WIN, result.getOutcome());
+        Assert.assertTrue(Arrays.asList(new Point(7, 9), new Point(8, 8), new Point(6, 9))
+                .contains(result.getMove()));
+        double value = AlphaBetaSearchProphet.evaluatePointValue(chessboard, result.getMove());
+        Assert.assertTrue(Arrays.stream(IncrementalChessboard.getEmptyPointsAround(chessboard))
+                .filter(point -> AlphaBetaSearchProphet.evaluatePointValue(chessboard, point) > value)
+                .count() >= SearchConst.MAX_CANDIDATE_NUM);
+    }
+
+    @Test
+    public void solveLoss() {
+        // an open four of black.
+        Chessboard chessboard = new Chessboard();
+        for (int i = 4; i < 8; ++i) {
+            chessboard.setChess(7, i, ChessType.BLACK);
+        }
+        chessboard.setChess(0, 0, ChessType.WHITE);
+        chessboard.setChess(0, 1, ChessType.WHITE);
+        chessboard.setChess(14, 14, ChessType.WHITE);
+        Assert.assertTrue(ProofNumberSolver.isSharp(chessboard, ChessType.WHITE));
+
+        ProofResult result = this.proofNumberSolver.solve(chessboard, ChessType.WHITE);
+        Assert.assertEquals(ProofResult.Outcome.LOSS, result.getOutcome());
+        Assert.assertNull(result.getMove());
+    }
+
+    @Test
+    public void solveDraw() {
+        // no line has more than two stones of a color in a row, whatever the empty
+        // points get.
+        Chessboard chessboard = new Chessboard();
+        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
+            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+                chessboard.setChess(i, j, (j / 2 + i) % 2 == 0 ? ChessType.BLACK : ChessType.WHITE);
+            }
+        }
+        int[][] emptyPoints = { { 0, 0 }, { 0, 7 }, { 7, 14 }, { 14, 3 }, { 7, 7 }, { 10, 10 } };
+        for (int[] point : emptyPoints) {
+            chessboard.setChess(point[0], point[1], ChessType.EMPTY);
+        }
+        Assert.assertEquals(ProofResult.Outcome.DRAW,
+                this.proofNumberSolver.solve(chessboard, ChessType.WHITE).getOutcome());
+    }
+
+}
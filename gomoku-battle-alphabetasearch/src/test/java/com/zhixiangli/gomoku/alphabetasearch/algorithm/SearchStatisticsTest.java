@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class SearchStatisticsTest {
+
+    @Test
+    public void addUp() {
+        SearchStatistics statistics = new SearchStatistics();
+        statistics.reset(10);
+        statistics.addNode(11);
+        statistics.addNode(14);
+        statistics.addLeaf();
+        statistics.addCutoff(0);
+        statistics.addCutoff(3);
+        statistics.addCutoff(100);
+        statistics.addCacheProbe(true);
+        statistics.addCacheProbe(false);
+        statistics.addPhaseTime(SearchStatistics.Phase.ALPHA_BETA, TimeUnit.MILLISECONDS.toNanos(2));
+        Assert.assertEquals(2, statistics.getNodeNum());
+        Assert.assertEquals(1, statistics.getLeafNum());
+        Assert.assertEquals(4, statistics.getMaxDepth());
+        Assert.assertArrayEquals(new long[] { 1, 0, 0, 1, 0, 0, 0, 1 }, statistics.getCutoffNums());
+        Assert.assertEquals(2, statistics.getCacheProbeNum());
+        Assert.assertEquals(1, statistics.getCacheHitNum());
+        Assert.assertEquals(2, statistics.getPhaseMillis(SearchStatistics.Phase.ALPHA_BETA));
+        Assert.assertEquals(1000, statistics.getNodesPerSecond());
+
+        SearchStatistics gameStatistics = new SearchStatistics();
+        gameStatistics.add(statistics);
+        statistics.reset(20);
+        statistics.addNode(22);
+        gameStatistics.add(statistics);
+        Assert.assertEquals(2, gameStatistics.getSearchNum());
+        Assert.assertEquals(3, gameStatistics.getNodeNum());
+        Assert.assertEquals(4, gameStatistics.getMaxDepth());
+        Assert.assertEquals(3, LongStream.of(gameStatistics.getCutoffNums()).sum());
+        Assert.assertEquals(2, statistics.getMaxDepth());
+        Assert.assertEquals(0, statistics.getLeafNum());
+    }
+
+    @Test
+    public void search() throws Exception {
+        Chessboard chessboard = new Chessboard();
+        chessboard.setChess(7, 7, ChessType.BLACK);
+        chessboard.setChess(7, 8, ChessType.WHITE);
+        chessboard.setChess(6, 6, ChessType.BLACK);
+        AlphaBetaSearchAlgorithm algorithm = new AlphaBetaSearchAlgorithm();
+        SearchStatistics statistics = algorithm.getStatistics();
+        statistics.reset(chessboard.getStoneCount());
+        chessboard.setChess(8, 8, ChessType.WHITE);
+        algorithm.clearCacheAndSearch(3, -Double.MAX_VALUE, Double.MAX_VALUE, chessboard, new Point(8, 8),
+                ChessType.WHITE, ChessType.WHITE);
+        Assert.assertTrue(statistics.getNodeNum() > statistics.getLeafNum());
+        Assert.assertTrue(statistics.getLeafNum() > 0);
+        Assert.assertTrue(statistics.getMaxDepth() >= 4);
+        Assert.assertTrue(LongStream.of(statistics.getCutoffNums()).sum() > 0);
+        Assert.assertTrue(statistics.getCacheHitNum() > 0);
+        Assert.assertTrue(statistics.getCacheProbeNum() > statistics.getCacheHitNum());
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class ThreatAnalyserTest {
+
+    @Test
+    public void isThreat() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.setChess(7, 5, ChessType.BLACK);
+        chessboard.setChess(7, 6, ChessType.BLACK);
+        chessboard.setChess(3, 3, ChessType.WHITE);
+
+        // an open three.
+        Assert.assertTrue(ThreatAnalyser.isThreat(chessboard, new Point(7, 7), ChessType.BLACK));
+        Assert.assertTrue(ThreatAnalyser.isThreat(chessboard, new Point(7, 4), ChessType.BLACK));
+        // a spaced open three.
+        Assert.assertTrue(ThreatAnalyser.isThreat(chessboard, new Point(7, 8), ChessType.BLACK));
+        Assert.assertFalse(ThreatAnalyser.isThreat(chessboard, new Point(6, 6), ChessType.BLACK));
+        Assert.assertFalse(ThreatAnalyser.isThreat(chessboard, new Point(7, 7), ChessType.WHITE));
+
+        // a half open four.
+        chessboard.setChess(7, 7, ChessType.BLACK);
+        chessboard.setChess(7, 4, ChessType.WHITE);
+        Assert.assertTrue(ThreatAnalyser.isThreat(chessboard, new Point(7, 8), ChessType.BLACK));
+        Assert.assertFalse(ThreatAnalyser.isThreat(chessboard, new Point(7, 8), ChessType.WHITE));
+    }
+
+    @Test
+    public void getFivePoints() {
+        // a split five, an overline, a five next to them and one at the edge.
+        Chessboard chessboard = new IncrementalChessboard();
+        for (int y : new int[] { 0, 1, 3, 4, 6, 7, 8, 9 }) {
+            chessboard.setChess(7, y, ChessType.BLACK);
+        }
+        for (int i = 0; i < 4; ++i) {
+            chessboard.setChess(i, 14 - i, ChessType.WHITE);
+        }
+        Set<Point> expected = new HashSet<>();
+        expected.add(new Point(7, 2));
+        expected.add(new Point(7, 5));
+        expected.add(new Point(7, 10));
+        Assert.assertEquals(expected, ThreatAnalyser.getFivePoints(chessboard, ChessType.BLACK));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(new Point(4, 10))),
+                ThreatAnalyser.getFivePoints(chessboard, ChessType.WHITE));
+
+        // the same as putting every empty point.
+        Random random = new Random(0);
+        for (int n = 0; n < 100; ++n) {
+            chessboard = 0 == n % 2 ? new Chessboard() : new IncrementalChessboard();
+            for (int i = 0; i < 80; ++i) {
+                chessboard.setChess(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                        random.nextInt(GomokuConst.CHESSBOARD_SIZE), random.nextBoolean() ? ChessType.BLACK
+                                : ChessType.WHITE);
+            }
+            for (ChessType chessType : new ChessType[] { ChessType.BLACK, ChessType.WHITE }) {
+                expected.clear();
+                for (int x = 0; x < GomokuConst.CHESSBOARD_SIZE; ++x) {
+                    for (int y = 0; y < GomokuConst.CHESSBOARD_SIZE; ++y) {
+                        Point point = new Point(x, y);
+                        if (chessboard.isEmpty(point)) {
+                            chessboard.setChess(point, chessType);
+                            if (GameReferee.isWin(chessboard, point)) {
+                                expected.add(point);
+                            }
+                            chessboard.setChess(point, ChessType.EMPTY);
+                        }
+                    }
+                }
+                Assert.assertEquals(expected, ThreatAnalyser.getFivePoints(chessboard, chessType));
+            }
+        }
+    }
+
+    @Test
+    public void getFivePointsThrough() {
+        // a split five along the row, and fives at both ends of the column.
+        Chessboard chessboard = new IncrementalChessboard();
+        for (int y : new int[] { 0, 1, 2, 4, 5 }) {
+            chessboard.setChess(7, y, ChessType.BLACK);
+        }
+        chessboard.setChess(6, 0, ChessType.BLACK);
+        chessboard.setChess(5, 0, ChessType.BLACK);
+        chessboard.setChess(4, 0, ChessType.BLACK);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(new Point(7, 3), new Point(3, 0), new Point(8, 0))),
+                ThreatAnalyser.getFivePointsThrough(chessboard, new Point(7, 0), ChessType.BLACK));
+        Assert.assertTrue(
+                ThreatAnalyser.getFivePointsThrough(chessboard, new Point(7, 0), ChessType.WHITE).isEmpty());
+
+        // the same as putting every empty point along the lines of the stone.
+        Random random = new Random(0);
+        for (int n = 0; n < 100; ++n) {
+            chessboard = 0 == n % 2 ? new Chessboard() : new IncrementalChessboard();
+            for (int i = 0; i < 80; ++i) {
+                chessboard.setChess(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                        random.nextInt(GomokuConst.CHESSBOARD_SIZE), random.nextBoolean() ? ChessType.BLACK
+                                : ChessType.WHITE);
+            }
+            Point point = new Point(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                    random.nextInt(GomokuConst.CHESSBOARD_SIZE));
+            ChessType chessType = random.nextBoolean() ? ChessType.BLACK : ChessType.WHITE;
+            chessboard.setChess(point, chessType);
+            Set<Point> expected = new HashSet<>();
+            for (Point direction : GomokuConst.DIRECTIONS) {
+                for (int step = 1 - GomokuConst.CONSECUTIVE_NUM; step < GomokuConst.CONSECUTIVE_NUM; ++step) {
+                    Point five = new Point(point.x + direction.x * step, point.y + direction.y * step);
+                    if (GameReferee.isInChessboard(five) && chessboard.isEmpty(five)) {
+                        chessboard.setChess(five, chessType);
+                        int consecutiveNum = GlobalAnalyser.getConsecutiveCount(chessboard, five, direction);
+                        if (consecutiveNum >= GomokuConst.CONSECUTIVE_NUM) {
+                            expected.add(five);
+                        }
+                        chessboard.setChess(five, ChessType.EMPTY);
+                    }
+                }
+            }
+            Chessboard clonedChessboard = chessboard.clone();
+            Assert.assertEquals(expected, ThreatAnalyser.getFivePointsThrough(chessboard, point, chessType));
+            // nothing is put.
+            Assert.assertEquals(clonedChessboard, chessboard);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.alphabetasearch.algorithm.TranspositionTable.Bound;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class TranspositionTableTest {
+
+    private TranspositionTable transpositionTable;
+
+    @Before
+    public void setUp() throws Exception {
+        this.transpositionTable = new TranspositionTable(4);
+    }
+
+    @Test
+    public void probeAndStore() {
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        Assert.assertFalse(this.transpositionTable.probe(0, entry));
+        Assert.assertFalse(this.transpositionTable.probe(123, entry));
+
+        this.transpositionTable.store(123, 3, -0.5, Bound.LOWER, new Point(14, 13));
+        Assert.assertTrue(this.transpositionTable.probe(123, entry));
+        Assert.assertEquals(3, entry.getDepth());
+        Assert.assertEquals(-0.5, entry.getScore(), 0);
+        Assert.assertEquals(Bound.LOWER, entry.getBound());
+        Assert.assertEquals(new Point(14, 13), entry.getBestMove());
+
+        // same slot, different key.
+        Assert.assertFalse(this.transpositionTable.probe(123 + 16, entry));
+
+        this.transpositionTable.store(0, 0, 1e8, Bound.EXACT, null);
+        Assert.assertTrue(this.transpositionTable.probe(0, entry));
+        Assert.assertEquals(1e8, entry.getScore(), 0);
+        Assert.assertNull(entry.getBestMove());
+
+        this.transpositionTable.clear();
+        Assert.assertFalse(this.transpositionTable.probe(123, entry));
+        Assert.assertFalse(this.transpositionTable.probe(0, entry));
+    }
+
+    @Test
+    public void replacement() {
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        this.transpositionTable.store(7, 5, 1, Bound.EXACT, null);
+        // a shallower search of the same generation does not replace a deeper one.
+        this.transpositionTable.store(7 + 16, 2, 2, Bound.EXACT, null);
+        Assert.assertTrue(this.transpositionTable.probe(7, entry));
+        Assert.assertFalse(this.transpositionTable.probe(7 + 16, entry));
+
+        // but it replaces the entries of previous searches.
+        this.transpositionTable.newSearch();
+        this.transpositionTable.store(7 + 16, 2, 2, Bound.UPPER, null);
+        Assert.assertFalse(this.transpositionTable.probe(7, entry));
+        Assert.assertTrue(this.transpositionTable.probe(7 + 16, entry));
+        Assert.assertEquals(Bound.UPPER, entry.getBound());
+    }
+
+}
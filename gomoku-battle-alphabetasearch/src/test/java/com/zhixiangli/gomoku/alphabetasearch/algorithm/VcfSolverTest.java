@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class VcfSolverTest {
+
+    private VcfSolver vcfSolver;
+
+    private Chessboard chessboard;
+
+    @Before
+    public void setUp() throws Exception {
+        this.vcfSolver = new VcfSolver();
+
+        // a half open three in row 7, and an open two in column 7.
+        this.chessboard = new Chessboard();
+        for (Point point : Arrays.asList(new Point(7, 4), new Point(7, 5), new Point(7, 6), new Point(5, 7),
+                new Point(6, 7))) {
+            this.chessboard.setChess(point, ChessType.BLACK);
+        }
+        this.chessboard.setChess(7, 3, ChessType.WHITE);
+        this.chessboard.setChess(10, 10, ChessType.WHITE);
+    }
+
+    @Test
+    public void solve() {
+        Chessboard newChessboard = this.chessboard.clone();
+        List<Point> vcf = this.vcfSolver.solve(newChessboard, ChessType.BLACK);
+        Assert.assertEquals(this.chessboard, newChessboard);
+        Assert.assertEquals(1, vcf.size() % 2);
+        Assert.assertTrue(vcf.size() >= 3);
+        assertWin(newChessboard, vcf, ChessType.BLACK);
+
+        // white has no four to put.
+        Assert.assertTrue(this.vcfSolver.solve(newChessboard, ChessType.WHITE).isEmpty());
+        // the fours are beyond the depth.
+        Assert.assertTrue(new VcfSolver(1).solve(newChessboard, ChessType.BLACK).isEmpty());
+        // the deadline has passed.
+        Assert.assertTrue(this.vcfSolver.solve(newChessboard, ChessType.BLACK, () -> Long.MIN_VALUE).isEmpty());
+    }
+
+    @Test
+    public void solveInPlace() {
+        List<Point> vcf = this.vcfSolver.solve(this.chessboard, ChessType.BLACK);
+        Chessboard newChessboard = this.chessboard.clone();
+        Assert.assertEquals(vcf, this.vcfSolver.solveInPlace(newChessboard, ChessType.BLACK, () -> Long.MAX_VALUE));
+        Assert.assertEquals(this.chessboard, newChessboard);
+        // the board is restored after a timeout too.
+        Assert.assertTrue(this.vcfSolver.solveInPlace(newChessboard, ChessType.BLACK, () -> Long.MIN_VALUE).isEmpty());
+        Assert.assertEquals(this.chessboard, newChessboard);
+    }
+
+    @Test
+    public void solveFive() {
+        this.chessboard.setChess(7, 7, ChessType.BLACK);
+        Assert.assertEquals(Arrays.asList(new Point(7, 8)), this.vcfSolver.solve(this.chessboard, ChessType.BLACK));
+    }
+
+    @Test
+    public void solveWithDefenderFour() {
+        // white puts a five at (0, 4) unless black blocks it, and the block is not a four.
+        for (int column = 0; column < 4; ++column) {
+            this.chessboard.setChess(0, column, ChessType.WHITE);
+        }
+        Assert.assertTrue(this.vcfSolver.solve(this.chessboard, ChessType.BLACK).isEmpty());
+        Assert.assertEquals(Arrays.asList(new Point(0, 4)), this.vcfSolver.solve(this.chessboard, ChessType.WHITE));
+    }
+
+    private static void assertWin(Chessboard chessboard, List<Point> vcf, ChessType chessType) {
+        Chessboard newChessboard = chessboard.clone();
+        ChessType currentChessType = chessType;
+        for (Point point : vcf) {
+            Assert.assertTrue(newChessboard.isEmpty(point));
+            newChessboard.setChess(point, currentChessType);
+            currentChessType = GameReferee.nextChessType(currentChessType);
+        }
+        Assert.assertTrue(GameReferee.isWin(newChessboard, vcf.get(vcf.size() - 1)));
+    }
+
+}
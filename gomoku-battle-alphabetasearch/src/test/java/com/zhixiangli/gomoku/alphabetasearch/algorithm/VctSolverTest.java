@@ -0,0 +1,58 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.alphabetasearch.common.SearchConst;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class VctSolverTest {
+
+    private VctSolver vctSolver;
+
+    private Chessboard chessboard;
+
+    @Before
+    public void setUp() throws Exception {
+        this.vctSolver = new VctSolver(SearchConst.VCT_MAX_DEPTH, SearchConst.VCT_MAX_NODES, 10000);
+
+        // open twos in row 7 and column 7.
+        this.chessboard = new Chessboard();
+        this.chessboard.setChess(7, 5, ChessType.BLACK);
+        this.chessboard.setChess(7, 6, ChessType.BLACK);
+        this.chessboard.setChess(2, 12, ChessType.WHITE);
+    }
+
+    @Test
+    public void solve() {
+        Assert.assertNull(this.vctSolver.solve(this.chessboard, ChessType.BLACK));
+
+        this.chessboard.setChess(5, 7, ChessType.BLACK);
+        this.chessboard.setChess(6, 7, ChessType.BLACK);
+        this.chessboard.setChess(12, 2, ChessType.WHITE);
+        Chessboard newChessboard = this.chessboard.clone();
+        // there are only threes, no four.
+        Assert.assertTrue(new VcfSolver().solve(newChessboard, ChessType.BLACK).isEmpty());
+        Point point = this.vctSolver.solve(newChessboard, ChessType.BLACK);
+        Assert.assertNotNull(point);
+        Assert.assertTrue(newChessboard.isEmpty(point));
+        Assert.assertEquals(this.chessboard, newChessboard);
+
+        // out of budget.
+        Assert.assertNull(new VctSolver(SearchConst.VCT_MAX_DEPTH, 1, 10000).solve(newChessboard, ChessType.BLACK));
+        // the deadline has passed.
+        Assert.assertNull(this.vctSolver.solve(newChessboard, ChessType.BLACK, () -> Long.MIN_VALUE));
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.alphabetasearch.algorithm;
+
+import java.awt.Point;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class YoungBrothersWaitSearchTest {
+
+    private AlphaBetaSearchAlgorithm algorithm;
+
+    private YoungBrothersWaitSearch youngBrothersWaitSearch;
+
+    private Chessboard chessboard;
+
+    @Before
+    public void setUp() throws Exception {
+        algorithm = new AlphaBetaSearchAlgorithm(false);
+        youngBrothersWaitSearch = new YoungBrothersWaitSearch(algorithm, 4);
+
+        chessboard = new Chessboard();
+        chessboard.setChess(7, 7, ChessType.BLACK);
+        chessboard.setChess(8, 8, ChessType.BLACK);
+        chessboard.setChess(7, 8, ChessType.WHITE);
+    }
+
+    @Test
+    public void searchRoot() throws Exception {
+        ChessType chessType = ChessType.WHITE;
+        Point[] candidates = algorithm.nextMoves(chessboard, chessType);
+        for (int depth = 0; depth <= 3; ++depth) {
+            double expected = -Double.MAX_VALUE;
+            for (Point point : candidates) {
+                chessboard.setChess(point, chessType);
+                expected = Math.max(expected, algorithm.search(depth, -Double.MAX_VALUE, Double.MAX_VALUE,
+                        chessboard, point, chessType, chessType));
+                chessboard.setChess(point, ChessType.EMPTY);
+            }
+
+            List<Pair<Point, Double>> pairs = youngBrothersWaitSearch.searchRoot(chessboard, candidates, chessType,
+                    depth);
+            Assert.assertEquals(candidates.length, pairs.size());
+            double actual = pairs.stream().map(pair -> pair.getValue()).max(Double::compare).get();
+            Assert.assertEquals(expected, actual, 1e-8);
+        }
+    }
+
+}
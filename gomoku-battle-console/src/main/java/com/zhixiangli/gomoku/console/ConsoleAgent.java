@@ -4,9 +4,11 @@
 package com.zhixiangli.gomoku.console;
 
 import java.awt.Point;
+import java.util.Collections;
 import java.util.Scanner;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +17,7 @@ import com.zhixiangli.gomoku.console.common.ConsoleCommand;
 import com.zhixiangli.gomoku.console.common.ConsoleRequest;
 import com.zhixiangli.gomoku.console.common.ConsoleResponse;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
 
 /**
  * @author zhixiangli
@@ -24,6 +27,8 @@ public abstract class ConsoleAgent {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleAgent.class);
 
+    private boolean isPondering;
+
     public void start() {
         LOGGER.info("agent started");
         try (Scanner reader = new Scanner(System.in)) {
@@ -33,14 +38,27 @@ public abstract class ConsoleAgent {
 
                 ConsoleRequest req = new Gson().fromJson(command, ConsoleRequest.class);
                 Point p = null;
+                ChessType chessType = null;
                 if (ConsoleCommand.NEXT_BLACK.getText().equals(req.getCommand().getText())) {
-                    p = this.next(req.getChessboard(), ChessType.BLACK);
+                    chessType = ChessType.BLACK;
+                    p = this.next(req.getChessboard(), chessType);
                 } else if (ConsoleCommand.NEXT_WHITE.getText().equals(req.getCommand().getText())) {
-                    p = this.next(req.getChessboard(), ChessType.WHITE);
+                    chessType = ChessType.WHITE;
+                    p = this.next(req.getChessboard(), chessType);
+                } else if (ConsoleCommand.PONDER_ON.getText().equals(req.getCommand().getText())) {
+                    this.isPondering = true;
+                } else if (ConsoleCommand.PONDER_OFF.getText().equals(req.getCommand().getText())) {
+                    this.isPondering = false;
+                    this.stopPondering();
                 }
                 if (null != p) {
                     ConsoleResponse resp = new ConsoleResponse(p.x, p.y);
                     System.out.println(new Gson().toJson(resp));
+                    if (this.isPondering) {
+                        String move = GomokuFormatter.toSGF(Collections.singletonList(ImmutablePair.of(chessType, p)));
+                        this.ponder(StringUtils.isEmpty(req.getChessboard()) ? move
+                                : req.getChessboard() + ";" + move, chessType);
+                    }
                 }
             }
         }
@@ -48,4 +66,24 @@ public abstract class ConsoleAgent {
 
     protected abstract Point next(String sgf, ChessType chessType);
 
+    /**
+     * 
+     * search on the time of the opponent, the next request tells if the
+     * opponent has played as expected. it must return at once, agents not
+     * supporting it do nothing.
+     * 
+     * @param sgf
+     *            the game after the move of the agent.
+     * @param chessType
+     *            the chess type of the agent.
+     */
+    protected void ponder(String sgf, ChessType chessType) {
+    }
+
+    /**
+     * stop searching on the time of the opponent.
+     */
+    protected void stopPondering() {
+    }
+
 }
@@ -17,6 +17,7 @@ import com.zhixiangli.gomoku.console.common.ConsoleProcess;
 import com.zhixiangli.gomoku.console.common.ConsoleRequest;
 import com.zhixiangli.gomoku.console.common.ConsoleResponse;
 import com.zhixiangli.gomoku.console.common.PlayerProperties;
+import com.zhixiangli.gomoku.core.chessboard.ChessState;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
 import com.zhixiangli.gomoku.core.common.GomokuConst;
 import com.zhixiangli.gomoku.core.common.GomokuFormatter;
@@ -42,14 +43,21 @@ public class ConsoleMaster {
         if (StringUtils.isNotBlank(PlayerProperties.playerBlackCommand)) {
             LOGGER.info("fork black player process: {}", PlayerProperties.playerBlackCommand);
             blackPlayerProcess = new ConsoleProcess(PlayerProperties.playerBlackCommand);
+            sendPonderCommand(blackPlayerProcess, PlayerProperties.playerBlackPonder);
         }
         if (StringUtils.isNotBlank(PlayerProperties.playerWhiteCommand)) {
             LOGGER.info("fork white player process: {}", PlayerProperties.playerWhiteCommand);
             whitePlayerProcess = new ConsoleProcess(PlayerProperties.playerWhiteCommand);
+            sendPonderCommand(whitePlayerProcess, PlayerProperties.playerWhitePonder);
         }
         // when chess type changed, notify the process to make a next move.
         chessboardService.addCurrentChessTypeChangeListener(
                 (observable, oldValue, newValue) -> new Thread(() -> callForAction(newValue)).start());
+        // the players stop pondering when a game is over, and start again with the
+        // next game.
+        chessboardService.addChessStateChangeListener(
+                (observable, oldValue, newValue) -> switchPondering(ChessState.GAME_ON == newValue));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> switchPondering(false)));
     }
 
     private void callForAction(ChessType chessType) {
@@ -69,6 +77,45 @@ public class ConsoleMaster {
         }
     }
 
+    /**
+     * 
+     * turn pondering on or off for the players configured to ponder.
+     * 
+     * @param isPondering
+     *            whether the players ponder.
+     */
+    private void switchPondering(boolean isPondering) {
+        try {
+            if (null != blackPlayerProcess && PlayerProperties.playerBlackPonder) {
+                sendPonderCommand(blackPlayerProcess, isPondering);
+            }
+            if (null != whitePlayerProcess && PlayerProperties.playerWhitePonder) {
+                sendPonderCommand(whitePlayerProcess, isPondering);
+            }
+        } catch (IOException e) {
+            LOGGER.error("switch pondering error. {}", e);
+        }
+    }
+
+    /**
+     * 
+     * enable or disable pondering of a player. it is off unless the player is
+     * configured to ponder, so that the agents on a host do not search at the
+     * same time.
+     * 
+     * @param process
+     *            the player process.
+     * @param isPondering
+     *            whether the player ponders.
+     * @throws IOException
+     *             if the command can not be sent.
+     */
+    private void sendPonderCommand(ConsoleProcess process, boolean isPondering) throws IOException {
+        ConsoleRequest req = new ConsoleRequest(isPondering ? ConsoleCommand.PONDER_ON : ConsoleCommand.PONDER_OFF,
+                GomokuConst.CHESSBOARD_SIZE, GomokuConst.CHESSBOARD_SIZE, StringUtils.EMPTY);
+        process.send(new Gson().toJson(req) + StringUtils.LF);
+    }
+
     private void sendActionCommand(ConsoleProcess process, ConsoleCommand next) throws IOException {
         if (null == process) {
             return;
@@ -13,6 +13,17 @@ public enum ConsoleCommand {
 
     NEXT_WHITE("NEXT_WHITE"),
 
+    /**
+     * search on the time of the opponent after every move, there is no
+     * response.
+     */
+    PONDER_ON("PONDER_ON"),
+
+    /**
+     * stop searching on the time of the opponent, there is no response.
+     */
+    PONDER_OFF("PONDER_OFF"),
+
     ;
 
     private String text;
@@ -25,17 +25,23 @@ public class PlayerProperties {
 
     public static String playerBlackAlias;
 
+    public static boolean playerBlackPonder;
+
     public static String playerWhiteCommand;
 
     public static String playerWhiteAlias;
 
+    public static boolean playerWhitePonder;
+
     public static void parse(String configPath) {
         try {
             PropertiesConfiguration playerConfig = new Configurations().properties(new File(configPath));
             playerBlackCommand = playerConfig.getString("player.black.cmd");
             playerBlackAlias = playerConfig.getString("player.black.alias");
+            playerBlackPonder = playerConfig.getBoolean("player.black.ponder", false);
             playerWhiteCommand = playerConfig.getString("player.white.cmd");
             playerWhiteAlias = playerConfig.getString("player.white.alias");
+            playerWhitePonder = playerConfig.getBoolean("player.white.ponder", false);
         } catch (ConfigurationException e) {
             LOGGER.error("load player config error {}", e);
         }
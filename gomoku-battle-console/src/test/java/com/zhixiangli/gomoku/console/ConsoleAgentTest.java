@@ -0,0 +1,130 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.console;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.zhixiangli.gomoku.console.common.ConsoleCommand;
+import com.zhixiangli.gomoku.console.common.ConsoleRequest;
+import com.zhixiangli.gomoku.console.common.ConsoleResponse;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class ConsoleAgentTest {
+
+    private InputStream stdin;
+
+    private PrintStream stdout;
+
+    private ByteArrayOutputStream output;
+
+    private RecordingAgent agent;
+
+    @Before
+    public void setUp() throws Exception {
+        this.stdin = System.in;
+        this.stdout = System.out;
+        this.output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(this.output, true, StandardCharsets.UTF_8.name()));
+        this.agent = new RecordingAgent();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.setIn(this.stdin);
+        System.setOut(this.stdout);
+    }
+
+    @Test
+    public void ponder() throws Exception {
+        String move = GomokuFormatter.toSGF(Collections.singletonList(ImmutablePair.of(ChessType.BLACK,
+                new Point(7, 7))));
+        this.start(request(ConsoleCommand.PONDER_ON, StringUtils.EMPTY),
+                request(ConsoleCommand.NEXT_BLACK, StringUtils.EMPTY),
+                // the agent stops pondering, and does not ponder after its next move.
+                request(ConsoleCommand.PONDER_OFF, StringUtils.EMPTY), request(ConsoleCommand.NEXT_WHITE, move));
+
+        Assert.assertEquals(Arrays.asList(move), this.agent.ponderSgfs);
+        Assert.assertEquals(1, this.agent.stopPonderingNum);
+
+        // a response for every move, none for the ponder commands. the logs may go
+        // to stdout too.
+        List<String> responses = Arrays.stream(StringUtils.split(this.output.toString(StandardCharsets.UTF_8.name()),
+                StringUtils.LF)).filter(line -> line.startsWith("{")).collect(Collectors.toList());
+        Assert.assertEquals(2, responses.size());
+        ConsoleResponse resp = new Gson().fromJson(responses.get(1), ConsoleResponse.class);
+        Assert.assertEquals(new Point(7, 8), new Point(resp.getRowIndex(), resp.getColumnIndex()));
+    }
+
+    @Test
+    public void ponderOff() throws Exception {
+        // pondering is off by default, turning it off again only stops the search.
+        this.start(request(ConsoleCommand.PONDER_OFF, StringUtils.EMPTY),
+                request(ConsoleCommand.NEXT_BLACK, StringUtils.EMPTY));
+
+        Assert.assertTrue(this.agent.ponderSgfs.isEmpty());
+        Assert.assertEquals(1, this.agent.stopPonderingNum);
+    }
+
+    private void start(String... requests) {
+        String input = String.join(StringUtils.LF, requests) + StringUtils.LF;
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        this.agent.start();
+    }
+
+    private static String request(ConsoleCommand command, String sgf) {
+        return new Gson().toJson(
+                new ConsoleRequest(command, GomokuConst.CHESSBOARD_SIZE, GomokuConst.CHESSBOARD_SIZE, sgf));
+    }
+
+    /**
+     * puts black at (7, 7) and white at (7, 8), and records the ponder calls.
+     */
+    private static class RecordingAgent extends ConsoleAgent {
+
+        private final List<String> ponderSgfs = new ArrayList<>();
+
+        private int stopPonderingNum;
+
+        @Override
+        protected Point next(String sgf, ChessType chessType) {
+            return ChessType.BLACK == chessType ? new Point(7, 7) : new Point(7, 8);
+        }
+
+        @Override
+        protected void ponder(String sgf, ChessType chessType) {
+            this.ponderSgfs.add(sgf);
+        }
+
+        @Override
+        protected void stopPondering() {
+            ++this.stopPonderingNum;
+        }
+
+    }
+
+}
@@ -4,7 +4,6 @@
 package com.zhixiangli.gomoku.core.analysis;
 
 import java.awt.Point;
-import java.util.Arrays;
 
 import com.google.common.base.Preconditions;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
@@ -20,14 +19,7 @@ import com.zhixiangli.gomoku.core.common.GomokuConst;
 public class GameReferee {
 
     public static final boolean isDraw(Chessboard chessboard, Point point) {
-        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
-            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
-                if (chessboard.getChess(i, j) == ChessType.EMPTY) {
-                    return false;
-                }
-            }
-        }
-        return !isWin(chessboard, point);
+        return chessboard.isFull() && !isWin(chessboard, point);
     }
 
     /**
@@ -43,8 +35,12 @@ public class GameReferee {
     public static final boolean isWin(Chessboard chessboard, Point point) {
         Preconditions.checkArgument(isInChessboard(point), "point out of chessboard.");
         Preconditions.checkArgument(ChessType.EMPTY != chessboard.getChess(point), "the position is empty.");
-        return Arrays.stream(GomokuConst.DIRECTIONS).anyMatch(direction -> GlobalAnalyser
-                .getConsecutiveCount(chessboard, point, direction) >= GomokuConst.CONSECUTIVE_NUM);
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            if (GlobalAnalyser.getConsecutiveCount(chessboard, point, direction) >= GomokuConst.CONSECUTIVE_NUM) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
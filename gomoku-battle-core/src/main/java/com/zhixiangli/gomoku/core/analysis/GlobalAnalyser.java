@@ -5,8 +5,6 @@ package com.zhixiangli.gomoku.core.analysis;
 
 import java.awt.Point;
 import java.util.Arrays;
-import java.util.EnumMap;
-import java.util.Map;
 
 import com.google.common.base.Preconditions;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
@@ -32,14 +30,14 @@ public class GlobalAnalyser {
         int size = 0;
         for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
             for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
-                if (ChessType.EMPTY == chessboard.getChess(row, column)) {
+                if (chessboard.isEmpty(row, column)) {
                     continue;
                 }
                 int a = Math.max(0, row - range), b = Math.min(GomokuConst.CHESSBOARD_SIZE - 1, row + range);
                 int c = Math.max(0, column - range), d = Math.min(GomokuConst.CHESSBOARD_SIZE - 1, column + range);
                 for (int i = a; i <= b; ++i) {
                     for (int j = c; j <= d; ++j) {
-                        if (!isEmpty[i][j] && ChessType.EMPTY == chessboard.getChess(i, j)) {
+                        if (!isEmpty[i][j] && chessboard.isEmpty(i, j)) {
                             isEmpty[i][j] = true;
                             ++size;
                         }
@@ -74,71 +72,86 @@ public class GlobalAnalyser {
      *         the second number is blank number.
      */
     public static final int getConsecutiveCount(Chessboard chessboard, Point point, Point direction) {
+        return getConsecutiveCount(chessboard, point, Chessboard.getDirectionIndex(direction));
+    }
+
+    /**
+     * 
+     * get continuous number of same color.
+     * 
+     * @param chessboard
+     *            Chessboard.
+     * @param point
+     *            the position was put just now.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return continuous number.
+     */
+    public static final int getConsecutiveCount(Chessboard chessboard, Point point, int direction) {
         Preconditions.checkArgument(GameReferee.isInChessboard(point), "point out of chessboard.");
 
         ChessType chessType = chessboard.getChess(point);
         Preconditions.checkArgument(ChessType.EMPTY != chessType, "the position is empty.");
-        int count = 0;
-        for (int x = point.x, y = point.y; GameReferee.isInChessboard(x, y); x -= direction.x, y -= direction.y) {
-            if (chessboard.getChess(x, y) != chessType) {
-                break;
-            }
-            ++count;
-        }
-        for (int x = point.x + direction.x, y = point.y + direction.y; GameReferee.isInChessboard(x,
-                y); x += direction.x, y += direction.y) {
-            if (chessboard.getChess(x, y) != chessType) {
-                break;
-            }
-            ++count;
-        }
-        return count;
+        int line = chessboard.getLine(chessType, point.x, point.y, direction);
+        int offset = Chessboard.getLineOffset(point.x, point.y, direction);
+        // the stones from the point along the direction, and then against the direction.
+        int forward = Integer.numberOfTrailingZeros(~(line >>> offset));
+        int backward = Integer.numberOfLeadingZeros(~(line << (Integer.SIZE - 1 - offset)));
+        return forward + backward - 1;
     }
 
+    /**
+     * the length of a pattern counter, indexed by the ordinal of the pattern.
+     */
+    public static final int PATTERN_TYPE_NUM = PatternType.values().length;
+
     /**
      * 
      * if the ChessType is to be put in Point, compute the pattern statistics of the
-     * Point.
+     * Point, without allocation. the chessboard is only read, so it may be shared
+     * by threads.
      * 
      * @param chessboard
      *            current chessboard info.
-     * @param point
-     *            the position to be computed.
+     * @param x
+     *            the row of the position to be computed.
+     * @param y
+     *            the column of the position to be computed.
      * @param chessType
      *            chess type to be computed.
-     * @return
+     * @param counter
+     *            filled with the number of every pattern, indexed by its ordinal.
      */
-    public static final Map<PatternType, Integer> getPatternStatistics(Chessboard chessboard, Point point,
-            ChessType chessType) {
+    public static final void getPatternStatistics(Chessboard chessboard, int x, int y, ChessType chessType,
+            int[] counter) {
         Preconditions.checkArgument(chessType != ChessType.EMPTY);
-
-        ChessType oldChessType = chessboard.getChess(point);
-        chessboard.setChess(point, chessType);
-        Map<PatternType, Integer> counter = new EnumMap<>(PatternType.class);
-        for (Point direction : GomokuConst.DIRECTIONS) {
-            PatternType patternType = getChessPatternType(chessboard, point, direction);
-            counter.compute(patternType, (key, value) -> null == value ? 1 : 1 + value);
+        Arrays.fill(counter, 0);
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            ++counter[PatternRecognizer.getBestPatternType(chessboard, x, y, direction, GomokuConst.CONSECUTIVE_NUM,
+                    chessType).ordinal()];
         }
-        chessboard.setChess(point, oldChessType);
-        return counter;
     }
 
     public static final PatternType getChessPatternType(Chessboard chessboard, Point point, Point direction) {
-        ChessType[] pattern = getChessTypeRange(chessboard, point, direction, GomokuConst.CONSECUTIVE_NUM);
-        return PatternRecognizer.getBestPatternType(pattern, chessboard.getChess(point));
+        return getChessPatternType(chessboard, point.x, point.y, Chessboard.getDirectionIndex(direction));
     }
 
-    private static final ChessType[] getChessTypeRange(Chessboard chessboard, Point point, Point direction, int range) {
-        int x = point.x - direction.x * range;
-        int y = point.y - direction.y * range;
-        int length = range * 2 + 1;
-        ChessType[] pattern = new ChessType[length];
-        int size = 0;
-        for (; length-- > 0; x += direction.x, y += direction.y) {
-            if (GameReferee.isInChessboard(x, y)) {
-                pattern[size++] = chessboard.getChess(x, y);
-            }
-        }
-        return size == length ? pattern : Arrays.copyOf(pattern, size);
+    /**
+     * 
+     * get the pattern of the stone on a point along a direction.
+     * 
+     * @param chessboard
+     *            current chessboard info.
+     * @param x
+     *            the row of the stone.
+     * @param y
+     *            the column of the stone.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return the best pattern of the stone.
+     */
+    public static final PatternType getChessPatternType(Chessboard chessboard, int x, int y, int direction) {
+        return PatternRecognizer.getBestPatternType(chessboard, x, y, direction, GomokuConst.CONSECUTIVE_NUM,
+                chessboard.getChess(x, y));
     }
 }
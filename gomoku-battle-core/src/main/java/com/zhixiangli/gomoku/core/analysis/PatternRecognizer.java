@@ -3,25 +3,33 @@
  */
 package com.zhixiangli.gomoku.core.analysis;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import static com.zhixiangli.gomoku.core.analysis.PatternTableGenerator.HASH_SEED;
+import static com.zhixiangli.gomoku.core.analysis.PatternTableGenerator.HASH_SEED_POW;
+import static com.zhixiangli.gomoku.core.analysis.PatternTableGenerator.LINE_HASH_BOUND;
+import static com.zhixiangli.gomoku.core.analysis.PatternTableGenerator.LINE_MAX_LENGTH;
+import static com.zhixiangli.gomoku.core.analysis.PatternTableGenerator.PATTERN_MAX_LENGTH;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.IntStream;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
 import com.zhixiangli.gomoku.core.common.GomokuConst;
 
 /**
- * given a chess type list, which length is at most 6, recognize the pattern of
+ * given a chess type list, which length is at most 11, recognize the pattern of
  * a chess type.
  * 
+ * the patterns of all the lines are generated by {@link PatternTableGenerator}
+ * when the module is built, and read in one go when the class is loaded. the
+ * table is never written afterwards, so the search threads share it freely.
+ * 
  * @author zhixiangli
  *
  */
@@ -29,216 +37,125 @@ public class PatternRecognizer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PatternRecognizer.class);
 
-    private static final int HASH_SEED = ChessType.values().length;
-
-    private static final int PATTERN_MAX_LENGTH = GomokuConst.CONSECUTIVE_NUM + 1;
-
-    private static final int HASH_SEED_POW = (int) Math.pow(HASH_SEED, PATTERN_MAX_LENGTH);
-
-    private static final int PATTERN_HASH_BOUND = 2 * HASH_SEED_POW;
-
-    private static final PatternType[] BLACK_PATTERN_MAP = new PatternType[PATTERN_HASH_BOUND];
-
-    private static final PatternType[] WHITE_PATTERN_MAP = new PatternType[PATTERN_HASH_BOUND];
-
-    static {
-        Stopwatch stopwatch = Stopwatch.createStarted();
-        fillChessPatternTypes(new ArrayList<>());
-        LOGGER.info("fill chess pattern type finish. cost: " + stopwatch.elapsed(TimeUnit.MILLISECONDS));
-    }
-
-    private static final void fillChessPatternTypes(List<ChessType> pattern) {
-        for (ChessType chessType : Arrays.asList(ChessType.BLACK, ChessType.WHITE)) {
-            getPatternType(pattern.toArray(new ChessType[0]), chessType);
-        }
-        if (pattern.size() >= PATTERN_MAX_LENGTH) {
-            return;
-        }
-        for (ChessType chessType : ChessType.values()) {
-            pattern.add(chessType);
-            fillChessPatternTypes(pattern);
-            pattern.remove(pattern.size() - 1);
+    private static final PatternType[] PATTERN_TYPES = PatternType.values();
+
+    /**
+     * the powers of the hash seed, up to the max length of a line.
+     */
+    private static final int[] HASH_SEED_POWS = IntStream.rangeClosed(0, LINE_MAX_LENGTH)
+            .map(i -> (int) Math.pow(HASH_SEED, i)).toArray();
+
+    /**
+     * the ordinals of the best patterns of the black lines, then of the white
+     * lines, by the hash of the line.
+     */
+    private static final byte[] PATTERN_TABLE = loadTable();
+
+    /**
+     * @return the table in the resources, or a table generated in memory if the
+     *         resource is absent, e.g. the classes are not built by maven.
+     */
+    private static final byte[] loadTable() {
+        byte[] table = new byte[2 * LINE_HASH_BOUND];
+        try (InputStream in = PatternRecognizer.class.getResourceAsStream(PatternTableGenerator.TABLE_RESOURCE)) {
+            if (null != in) {
+                ByteStreams.readFully(in, table);
+                Preconditions.checkState(-1 == in.read(), "pattern table is too long");
+                return table;
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("pattern table error: {}", e);
         }
+        LOGGER.warn("pattern table resource not found, generated in memory.");
+        return new PatternTableGenerator().generate();
     }
 
     public static final PatternType getBestPatternType(ChessType[] pattern, ChessType consideredChessType) {
-        if (pattern.length <= PATTERN_MAX_LENGTH) {
-            return PatternRecognizer.getPatternType(pattern, consideredChessType);
+        if (pattern.length <= LINE_MAX_LENGTH) {
+            return getPatternType(consideredChessType,
+                    PatternTableGenerator.hashPatternList(pattern, 0, pattern.length));
         }
         // (((((1*seed+s[0])*seed+s[1])*seed+s[2])*seed+s[3])*seed+s[4])*seed+s[5]
         // f(0,6)=seed^6+s[0]*seed^5+s[1]*seed^4+s[2]*seed^3+s[3]*seed^2+s[4]*seed+s[5]
         // f(1,7)=seed*f(0,6)-seed^7-s[0]*seed^6+seed^6+s[6]
         // =seed*f(0,6)+(1-s[0]-seed)*seed^6+s[6]
-        int hashCode = hashPatternList(pattern, 0, PATTERN_MAX_LENGTH);
-        PatternType[] patternMap = getPatternMap(consideredChessType);
-        PatternType patternType = patternMap[hashCode];
-        for (int i = 1; i + GomokuConst.CONSECUTIVE_NUM + 1 <= pattern.length; ++i) {
+        int hashCode = PatternTableGenerator.hashPatternList(pattern, 0, PATTERN_MAX_LENGTH);
+        PatternType patternType = getPatternType(consideredChessType, hashCode);
+        for (int i = 1; i + PATTERN_MAX_LENGTH <= pattern.length; ++i) {
             hashCode = HASH_SEED * hashCode + (1 - pattern[i - 1].ordinal() - HASH_SEED) * HASH_SEED_POW
-                    + pattern[i + GomokuConst.CONSECUTIVE_NUM].ordinal();
-            PatternType newPatternType = patternMap[hashCode];
+                    + pattern[i + PATTERN_MAX_LENGTH - 1].ordinal();
+            PatternType newPatternType = getPatternType(consideredChessType, hashCode);
             if (newPatternType.compareTo(patternType) > 0)
                 patternType = newPatternType;
         }
         return patternType;
     }
 
-    public static final PatternType getPatternType(ChessType[] pattern, ChessType consideredChessType) {
-        Preconditions.checkArgument(ChessType.EMPTY != consideredChessType);
-        Preconditions.checkArgument(pattern.length <= PATTERN_MAX_LENGTH);
-
-        PatternType[] patternMap = getPatternMap(consideredChessType);
-        int patternHashCode = hashPatternList(pattern, 0, pattern.length);
-
-        PatternType bestPatternType = patternMap[patternHashCode];
-        if (null != bestPatternType) {
-            return bestPatternType;
-        }
-
-        // five chess in a row
-        if (isFive(pattern, consideredChessType)) {
-            patternMap[patternHashCode] = PatternType.FIVE;
-            return PatternType.FIVE;
-        }
-        // open four
-        int openPatternLength = isOpenPattern(pattern, consideredChessType);
-        if (openPatternLength == 4) {
-            patternMap[patternHashCode] = PatternType.OPEN_FOUR;
-            return PatternType.OPEN_FOUR;
-        }
-
-        // others
-        bestPatternType = PatternType.OTHERS;
-        for (int i = 0; i < pattern.length; ++i) {
-            if (pattern[i] != ChessType.EMPTY) {
-                continue;
-            }
-            for (ChessType newChessType : Arrays.asList(ChessType.BLACK, ChessType.WHITE)) {
-                ChessType[] newPattern = Arrays.copyOf(pattern, pattern.length);
-                newPattern[i] = newChessType;
-                PatternType newPatternType = getPatternType(newPattern, consideredChessType);
-                switch (newPatternType) {
-                case FIVE:
-                    if (PatternType.HALF_OPEN_FOUR.compareTo(bestPatternType) > 0) {
-                        bestPatternType = PatternType.HALF_OPEN_FOUR;
-                    }
-                    break;
-                case OPEN_FOUR: // ..ooo. .oo.o.
-                    if (openPatternLength == 3) {
-                        if (PatternType.OPEN_THREE.compareTo(bestPatternType) > 0) {
-                            bestPatternType = PatternType.OPEN_THREE;
-                        }
-                    } else {
-                        if (PatternType.SPACED_OPEN_THREE.compareTo(bestPatternType) > 0) {
-                            bestPatternType = PatternType.SPACED_OPEN_THREE;
-                        }
-                    }
-                    break;
-                case HALF_OPEN_FOUR:
-                    if (PatternType.HALF_OPEN_THREE.compareTo(bestPatternType) > 0) {
-                        bestPatternType = PatternType.HALF_OPEN_THREE;
-                    }
-                    break;
-                case OPEN_THREE: // -> ...oo. ..o.o.
-                case SPACED_OPEN_THREE: // -> .oo... .o..o. ..o.o.
-                    if (openPatternLength == 2) {
-                        if (PatternType.OPEN_TWO.compareTo(bestPatternType) > 0) {
-                            bestPatternType = PatternType.OPEN_TWO;
-                        }
-                        break;
-                    }
-                    Pair<Integer, Integer> spacedOpenTwo = isSpacedOpenPattern(pattern, consideredChessType);
-                    Preconditions.checkNotNull(spacedOpenTwo);
-                    Preconditions.checkArgument(spacedOpenTwo.getKey() == 2);
-                    Preconditions.checkArgument(spacedOpenTwo.getValue() == 1 || spacedOpenTwo.getValue() == 2);
-                    if (spacedOpenTwo.getValue() == 1) {
-                        if (PatternType.ONE_SPACED_OPEN_TWO.compareTo(bestPatternType) > 0) {
-                            bestPatternType = PatternType.ONE_SPACED_OPEN_TWO;
-                        }
-                    } else {
-                        if (PatternType.TWO_SPACED_OPEN_TWO.compareTo(bestPatternType) > 0) {
-                            bestPatternType = PatternType.TWO_SPACED_OPEN_TWO;
-                        }
-                    }
-                    break;
-                case HALF_OPEN_THREE:
-                    if (PatternType.HALF_OPEN_TWO.compareTo(bestPatternType) > 0) {
-                        bestPatternType = PatternType.HALF_OPEN_TWO;
-                    }
-                    break;
-                default:
-                }
-            }
-        }
-        patternMap[patternHashCode] = bestPatternType;
-        return bestPatternType;
-    }
-
-    private static final boolean isFive(ChessType[] pattern, ChessType chessType) {
-        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
-        for (Pair<ChessType, Integer> pair : analyzed) {
-            if (pair.getKey() == chessType && pair.getValue() >= GomokuConst.CONSECUTIVE_NUM) {
-                return true;
+    /**
+     * 
+     * the best pattern of the line through a point, like
+     * {@link #getBestPatternType(ChessType[], ChessType)}. the line is read from
+     * the line code of the chessboard, its points are not visited.
+     * 
+     * @param chessboard
+     *            the chessboard.
+     * @param x
+     *            the row of the point.
+     * @param y
+     *            the column of the point.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @param range
+     *            the max distance of the line from the point.
+     * @param consideredChessType
+     *            the chess type on the point, it is not put on the chessboard.
+     * @return the best pattern of the chess type.
+     */
+    static final PatternType getBestPatternType(Chessboard chessboard, int x, int y, int direction, int range,
+            ChessType consideredChessType) {
+        // the part of the line inside the chessboard, relative to the point.
+        int offset = Chessboard.getLineOffset(x, y, direction);
+        int from = Math.max(-range, Chessboard.getLineFirstOffset(x, y, direction) - offset);
+        int to = Math.min(range, Chessboard.getLineLastOffset(x, y, direction) - offset);
+        // the digit of the point is replaced by the considered chess type.
+        int digit = consideredChessType.ordinal() - chessboard.getChess(x, y).ordinal();
+        PatternType patternType = getPatternType(consideredChessType,
+                hashLine(chessboard, x, y, direction, from, Math.min(to - from + 1, LINE_MAX_LENGTH), digit));
+        // a longer line is looked up by the windows of the max length.
+        for (int i = from + 1; i + LINE_MAX_LENGTH - 1 <= to; ++i) {
+            PatternType newPatternType = getPatternType(consideredChessType,
+                    hashLine(chessboard, x, y, direction, i, LINE_MAX_LENGTH, digit));
+            if (newPatternType.compareTo(patternType) > 0) {
+                patternType = newPatternType;
             }
         }
-        return false;
-    }
-
-    private static final int isOpenPattern(ChessType[] pattern, ChessType chessType) {
-        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
-        if (analyzed.size() != 3) {
-            return 0;
-        }
-        if (analyzed.get(0).getKey() == ChessType.EMPTY && analyzed.get(1).getKey() == chessType
-                && analyzed.get(2).getKey() == ChessType.EMPTY) {
-            return analyzed.get(1).getValue();
-        }
-        return 0;
+        return patternType;
     }
 
-    private static final Pair<Integer, Integer> isSpacedOpenPattern(ChessType[] pattern, ChessType chessType) {
-        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
-        if (analyzed.size() != 5) {
-            return null;
-        }
-        if (analyzed.get(0).getKey() == ChessType.EMPTY && analyzed.get(1).getKey() == chessType
-                && analyzed.get(2).getKey() == ChessType.EMPTY && analyzed.get(3).getKey() == chessType
-                && analyzed.get(4).getKey() == ChessType.EMPTY) {
-            return ImmutablePair.of(analyzed.get(1).getValue() + analyzed.get(3).getValue(),
-                    analyzed.get(2).getValue());
-        }
-        return null;
+    /**
+     * @return the hash of a segment of the line through a point, the segment
+     *         starts at a distance from the point, and the digit is added to
+     *         the point if it is in the segment.
+     */
+    private static final int hashLine(Chessboard chessboard, int x, int y, int direction, int from, int length,
+            int digit) {
+        int hashCode = HASH_SEED_POWS[length]
+                + chessboard.getLineCode(x, y, direction, Chessboard.getLineOffset(x, y, direction) + from, length);
+        if (from <= 0 && from + length > 0) {
+            hashCode += digit * HASH_SEED_POWS[from + length - 1];
+        }
+        return hashCode;
     }
 
-    private static final List<Pair<ChessType, Integer>> analyzePattern(ChessType[] pattern) {
-        List<Pair<ChessType, Integer>> analyzed = new ArrayList<>();
-        int count = 0;
-        ChessType lastType = null;
-        for (ChessType chessType : pattern) {
-            if (chessType == lastType) {
-                ++count;
-            } else {
-                if (count > 0) {
-                    analyzed.add(ImmutablePair.of(lastType, count));
-                }
-                count = 1;
-            }
-            lastType = chessType;
-        }
-        analyzed.add(ImmutablePair.of(lastType, count));
-        return analyzed;
-    }
-
-    private static final int hashPatternList(ChessType[] pattern, int fromIndex, int toIndex) {
-        int hash = 1;
-        int seed = ChessType.values().length;
-        for (int i = fromIndex; i < toIndex; ++i) {
-            hash = hash * seed + pattern[i].ordinal();
-        }
-        return hash;
+    public static final PatternType getPatternType(ChessType[] pattern, ChessType consideredChessType) {
+        Preconditions.checkArgument(pattern.length <= PATTERN_MAX_LENGTH);
+        return getPatternType(consideredChessType, PatternTableGenerator.hashPatternList(pattern, 0, pattern.length));
     }
 
-    private static final PatternType[] getPatternMap(ChessType chessType) {
-        return ChessType.BLACK == chessType ? BLACK_PATTERN_MAP : WHITE_PATTERN_MAP;
+    private static final PatternType getPatternType(ChessType consideredChessType, int hashCode) {
+        Preconditions.checkArgument(ChessType.EMPTY != consideredChessType);
+        return PATTERN_TYPES[PATTERN_TABLE[(ChessType.BLACK == consideredChessType ? 0 : LINE_HASH_BOUND)
+                + hashCode]];
     }
 
 }
@@ -0,0 +1,286 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.core.analysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.google.common.base.Preconditions;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * generate the table of the best pattern of every line, read by
+ * {@link PatternRecognizer}. the build runs it to put the table into the
+ * resources.
+ * 
+ * a line is hashed to 1 followed by the ordinals of its chess types in base
+ * {@link #HASH_SEED}, so the lines of different lengths have different hashes.
+ * the table holds the ordinal of the best pattern of the black lines, then of
+ * the white lines, by the hash.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class PatternTableGenerator {
+
+    /**
+     * the resource of the table.
+     */
+    static final String TABLE_RESOURCE = "/pattern-types.bin";
+
+    static final int HASH_SEED = ChessType.values().length;
+
+    /**
+     * the length of the window a pattern is recognized in.
+     */
+    static final int PATTERN_MAX_LENGTH = GomokuConst.CONSECUTIVE_NUM + 1;
+
+    static final int HASH_SEED_POW = (int) Math.pow(HASH_SEED, PATTERN_MAX_LENGTH);
+
+    /**
+     * the max length of a line in the table, the line through a point within
+     * the consecutive number of it.
+     */
+    static final int LINE_MAX_LENGTH = 2 * GomokuConst.CONSECUTIVE_NUM + 1;
+
+    /**
+     * the bound of the hash of a line, and the size of the table of a chess
+     * type.
+     */
+    static final int LINE_HASH_BOUND = 2 * (int) Math.pow(HASH_SEED, LINE_MAX_LENGTH);
+
+    private final PatternType[] blackPatternMap = new PatternType[2 * HASH_SEED_POW];
+
+    private final PatternType[] whitePatternMap = new PatternType[2 * HASH_SEED_POW];
+
+    /**
+     * @return the ordinals of the best patterns of the black lines, then of the
+     *         white lines, by the hash of the line.
+     */
+    public byte[] generate() {
+        byte[] table = new byte[2 * LINE_HASH_BOUND];
+        this.fillTable(table, 0, ChessType.BLACK, new ChessType[LINE_MAX_LENGTH], 0, 1);
+        this.fillTable(table, LINE_HASH_BOUND, ChessType.WHITE, new ChessType[LINE_MAX_LENGTH], 0, 1);
+        return table;
+    }
+
+    private void fillTable(byte[] table, int offset, ChessType consideredChessType, ChessType[] line, int length,
+            int hashCode) {
+        PatternType patternType = PatternType.OTHERS;
+        if (length <= PATTERN_MAX_LENGTH) {
+            patternType = this.getPatternType(Arrays.copyOf(line, length), consideredChessType);
+        } else {
+            for (int i = 0; i + PATTERN_MAX_LENGTH <= length; ++i) {
+                PatternType newPatternType = this.getPatternType(
+                        Arrays.copyOfRange(line, i, i + PATTERN_MAX_LENGTH), consideredChessType);
+                if (newPatternType.compareTo(patternType) > 0) {
+                    patternType = newPatternType;
+                }
+            }
+        }
+        table[offset + hashCode] = (byte) patternType.ordinal();
+        if (length == LINE_MAX_LENGTH) {
+            return;
+        }
+        for (ChessType chessType : ChessType.values()) {
+            line[length] = chessType;
+            this.fillTable(table, offset, consideredChessType, line, length + 1,
+                    hashCode * HASH_SEED + chessType.ordinal());
+        }
+    }
+
+    /**
+     * 
+     * recognize the pattern of a window, the windows are remembered by their
+     * hash.
+     * 
+     * @param pattern
+     *            the window, at most {@link #PATTERN_MAX_LENGTH} long.
+     * @param consideredChessType
+     *            the chess type whose pattern is recognized.
+     * @return the pattern.
+     */
+    PatternType getPatternType(ChessType[] pattern, ChessType consideredChessType) {
+        Preconditions.checkArgument(ChessType.EMPTY != consideredChessType);
+        Preconditions.checkArgument(pattern.length <= PATTERN_MAX_LENGTH);
+
+        PatternType[] patternMap = ChessType.BLACK == consideredChessType ? this.blackPatternMap
+                : this.whitePatternMap;
+        int patternHashCode = hashPatternList(pattern, 0, pattern.length);
+
+        PatternType bestPatternType = patternMap[patternHashCode];
+        if (null != bestPatternType) {
+            return bestPatternType;
+        }
+
+        // five chess in a row
+        if (isFive(pattern, consideredChessType)) {
+            patternMap[patternHashCode] = PatternType.FIVE;
+            return PatternType.FIVE;
+        }
+        // open four
+        int openPatternLength = isOpenPattern(pattern, consideredChessType);
+        if (openPatternLength == 4) {
+            patternMap[patternHashCode] = PatternType.OPEN_FOUR;
+            return PatternType.OPEN_FOUR;
+        }
+
+        // others
+        bestPatternType = PatternType.OTHERS;
+        for (int i = 0; i < pattern.length; ++i) {
+            if (pattern[i] != ChessType.EMPTY) {
+                continue;
+            }
+            for (ChessType newChessType : Arrays.asList(ChessType.BLACK, ChessType.WHITE)) {
+                ChessType[] newPattern = Arrays.copyOf(pattern, pattern.length);
+                newPattern[i] = newChessType;
+                PatternType newPatternType = getPatternType(newPattern, consideredChessType);
+                switch (newPatternType) {
+                case FIVE:
+                    if (PatternType.HALF_OPEN_FOUR.compareTo(bestPatternType) > 0) {
+                        bestPatternType = PatternType.HALF_OPEN_FOUR;
+                    }
+                    break;
+                case OPEN_FOUR: // ..ooo. .oo.o.
+                    if (openPatternLength == 3) {
+                        if (PatternType.OPEN_THREE.compareTo(bestPatternType) > 0) {
+                            bestPatternType = PatternType.OPEN_THREE;
+                        }
+                    } else {
+                        if (PatternType.SPACED_OPEN_THREE.compareTo(bestPatternType) > 0) {
+                            bestPatternType = PatternType.SPACED_OPEN_THREE;
+                        }
+                    }
+                    break;
+                case HALF_OPEN_FOUR:
+                    if (PatternType.HALF_OPEN_THREE.compareTo(bestPatternType) > 0) {
+                        bestPatternType = PatternType.HALF_OPEN_THREE;
+                    }
+                    break;
+                case OPEN_THREE: // -> ...oo. ..o.o.
+                case SPACED_OPEN_THREE: // -> .oo... .o..o. ..o.o.
+                    if (openPatternLength == 2) {
+                        if (PatternType.OPEN_TWO.compareTo(bestPatternType) > 0) {
+                            bestPatternType = PatternType.OPEN_TWO;
+                        }
+                        break;
+                    }
+                    Pair<Integer, Integer> spacedOpenTwo = isSpacedOpenPattern(pattern, consideredChessType);
+                    Preconditions.checkNotNull(spacedOpenTwo);
+                    Preconditions.checkArgument(spacedOpenTwo.getKey() == 2);
+                    Preconditions.checkArgument(spacedOpenTwo.getValue() == 1 || spacedOpenTwo.getValue() == 2);
+                    if (spacedOpenTwo.getValue() == 1) {
+                        if (PatternType.ONE_SPACED_OPEN_TWO.compareTo(bestPatternType) > 0) {
+                            bestPatternType = PatternType.ONE_SPACED_OPEN_TWO;
+                        }
+                    } else {
+                        if (PatternType.TWO_SPACED_OPEN_TWO.compareTo(bestPatternType) > 0) {
+                            bestPatternType = PatternType.TWO_SPACED_OPEN_TWO;
+                        }
+                    }
+                    break;
+                case HALF_OPEN_THREE:
+                    if (PatternType.HALF_OPEN_TWO.compareTo(bestPatternType) > 0) {
+                        bestPatternType = PatternType.HALF_OPEN_TWO;
+                    }
+                    break;
+                default:
+                }
+            }
+        }
+        patternMap[patternHashCode] = bestPatternType;
+        return bestPatternType;
+    }
+
+    private static final boolean isFive(ChessType[] pattern, ChessType chessType) {
+        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
+        for (Pair<ChessType, Integer> pair : analyzed) {
+            if (pair.getKey() == chessType && pair.getValue() >= GomokuConst.CONSECUTIVE_NUM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final int isOpenPattern(ChessType[] pattern, ChessType chessType) {
+        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
+        if (analyzed.size() != 3) {
+            return 0;
+        }
+        if (analyzed.get(0).getKey() == ChessType.EMPTY && analyzed.get(1).getKey() == chessType
+                && analyzed.get(2).getKey() == ChessType.EMPTY) {
+            return analyzed.get(1).getValue();
+        }
+        return 0;
+    }
+
+    private static final Pair<Integer, Integer> isSpacedOpenPattern(ChessType[] pattern, ChessType chessType) {
+        List<Pair<ChessType, Integer>> analyzed = analyzePattern(pattern);
+        if (analyzed.size() != 5) {
+            return null;
+        }
+        if (analyzed.get(0).getKey() == ChessType.EMPTY && analyzed.get(1).getKey() == chessType
+                && analyzed.get(2).getKey() == ChessType.EMPTY && analyzed.get(3).getKey() == chessType
+                && analyzed.get(4).getKey() == ChessType.EMPTY) {
+            return ImmutablePair.of(analyzed.get(1).getValue() + analyzed.get(3).getValue(),
+                    analyzed.get(2).getValue());
+        }
+        return null;
+    }
+
+    private static final List<Pair<ChessType, Integer>> analyzePattern(ChessType[] pattern) {
+        List<Pair<ChessType, Integer>> analyzed = new ArrayList<>();
+        int count = 0;
+        ChessType lastType = null;
+        for (ChessType chessType : pattern) {
+            if (chessType == lastType) {
+                ++count;
+            } else {
+                if (count > 0) {
+                    analyzed.add(ImmutablePair.of(lastType, count));
+                }
+                count = 1;
+            }
+            lastType = chessType;
+        }
+        analyzed.add(ImmutablePair.of(lastType, count));
+        return analyzed;
+    }
+
+    static final int hashPatternList(ChessType[] pattern, int fromIndex, int toIndex) {
+        int hash = 1;
+        for (int i = fromIndex; i < toIndex; ++i) {
+            hash = hash * HASH_SEED + pattern[i].ordinal();
+        }
+        return hash;
+    }
+
+    /**
+     * 
+     * write the table to a file.
+     * 
+     * @param args
+     *            the file.
+     * @throws IOException
+     *             if the file can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Preconditions.checkArgument(args.length == 1, "the table file is required");
+        Path path = Paths.get(args[0]);
+        if (null != path.getParent()) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, new PatternTableGenerator().generate());
+    }
+
+}
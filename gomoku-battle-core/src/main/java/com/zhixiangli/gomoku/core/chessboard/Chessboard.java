@@ -5,6 +5,7 @@ package com.zhixiangli.gomoku.core.chessboard;
 
 import java.awt.Point;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -15,23 +16,95 @@ import com.zhixiangli.gomoku.core.common.GomokuConst;
 /**
  * the data structure of chessboard.
  * 
+ * every line of the chessboard (rows, columns, diagonals and anti-diagonals)
+ * is kept as a bitset per chess type, so a single int holds all the stones of
+ * one color along a line. the lines follow the order of
+ * {@link GomokuConst#DIRECTIONS}, and the bit of a point in a line is given by
+ * {@link #getLineOffset(int, int, int)}.
+ * 
+ * every line is kept as a base 3 code of its chess types too, the first point
+ * of the line is the most significant digit. a segment of a line is read from
+ * the code by {@link #getLineCode(int, int, int, int, int)} without visiting
+ * its points.
+ * 
+ * a zobrist key of the stones is maintained along with the bitsets, so that
+ * positions can be identified without scanning the chessboard.
+ * 
  * @author lizhixiang
  *
  */
 public class Chessboard implements Cloneable {
 
     /**
-     * chessboard.
+     * the number of lines in each direction.
+     */
+    private static final int[] LINE_NUM = { GomokuConst.CHESSBOARD_SIZE, GomokuConst.CHESSBOARD_SIZE,
+            2 * GomokuConst.CHESSBOARD_SIZE - 1, 2 * GomokuConst.CHESSBOARD_SIZE - 1 };
+
+    /**
+     * the first line index of each direction.
+     */
+    private static final int[] LINE_BASE = { 0, LINE_NUM[0], LINE_NUM[0] + LINE_NUM[1],
+            LINE_NUM[0] + LINE_NUM[1] + LINE_NUM[2] };
+
+    /**
+     * the number of lines of a chess type.
+     */
+    private static final int LINE_TOTAL = LINE_BASE[3] + LINE_NUM[3];
+
+    /**
+     * the powers of 3, the weights of the digits of the line codes.
+     */
+    private static final int[] POW3 = new int[GomokuConst.CHESSBOARD_SIZE + 1];
+
+    static {
+        POW3[0] = 1;
+        for (int i = 1; i < POW3.length; ++i) {
+            POW3[i] = 3 * POW3[i - 1];
+        }
+    }
+
+    /**
+     * fixed seed, so that zobrist keys are the same in every process.
      */
-    private ChessType[][] chessboard;
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+    /**
+     * zobrist random numbers, black first and then white.
+     */
+    private static final long[] ZOBRIST = new Random(ZOBRIST_SEED)
+            .longs(2 * GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE).toArray();
+
+    /**
+     * line bitsets, black lines first and then white lines.
+     */
+    private int[] lines;
+
+    /**
+     * base 3 codes of the lines, the digit of a point is the ordinal of its chess
+     * type.
+     */
+    private int[] lineCodes;
+
+    /**
+     * the number of stones on the chessboard.
+     */
+    private int stoneCount;
+
+    /**
+     * zobrist key of the stones.
+     */
+    private long zobristKey;
 
     /**
      * init an empty chessboard.
      */
     public Chessboard() {
         Preconditions.checkArgument(GomokuConst.CHESSBOARD_SIZE > 0);
-        this.chessboard = new ChessType[GomokuConst.CHESSBOARD_SIZE][GomokuConst.CHESSBOARD_SIZE];
-        this.clear();
+        Preconditions.checkArgument(GomokuConst.CHESSBOARD_SIZE < Integer.SIZE);
+        Preconditions.checkArgument(Math.pow(3, GomokuConst.CHESSBOARD_SIZE) < Integer.MAX_VALUE);
+        this.lines = new int[2 * LINE_TOTAL];
+        this.lineCodes = new int[LINE_TOTAL];
     }
 
     public Chessboard(String strs) {
@@ -43,7 +116,7 @@ public class Chessboard implements Cloneable {
             for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
                 ChessType chessType = ChessType.getChessType(rows[i].charAt(j));
                 Preconditions.checkNotNull(chessType);
-                this.chessboard[i][j] = chessType;
+                this.setChess(i, j, chessType);
             }
         }
     }
@@ -53,11 +126,10 @@ public class Chessboard implements Cloneable {
      * clear the chessboard.
      */
     public void clear() {
-        for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
-            for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
-                this.chessboard[row][column] = ChessType.EMPTY;
-            }
-        }
+        Arrays.fill(this.lines, 0);
+        Arrays.fill(this.lineCodes, 0);
+        this.stoneCount = 0;
+        this.zobristKey = 0;
     }
 
     /**
@@ -71,21 +143,252 @@ public class Chessboard implements Cloneable {
      * @return chess type.
      */
     public ChessType getChess(int row, int column) {
-        return this.chessboard[row][column];
+        int bit = 1 << column;
+        if ((this.lines[LINE_BASE[1] + row] & bit) != 0) {
+            return ChessType.BLACK;
+        }
+        if ((this.lines[LINE_TOTAL + LINE_BASE[1] + row] & bit) != 0) {
+            return ChessType.WHITE;
+        }
+        return ChessType.EMPTY;
     }
 
     public ChessType getChess(Point p) {
-        return this.chessboard[p.x][p.y];
+        return this.getChess(p.x, p.y);
     }
 
     public void setChess(int row, int column, ChessType chessType) {
-        this.chessboard[row][column] = chessType;
+        ChessType oldChessType = this.getChess(row, column);
+        if (oldChessType == chessType) {
+            return;
+        }
+        if (ChessType.EMPTY != oldChessType) {
+            this.flipLines(row, column, oldChessType);
+            this.zobristKey ^= getZobristKey(row, column, oldChessType);
+            --this.stoneCount;
+        }
+        if (ChessType.EMPTY != chessType) {
+            this.flipLines(row, column, chessType);
+            this.zobristKey ^= getZobristKey(row, column, chessType);
+            ++this.stoneCount;
+        }
+        this.addLineCodes(row, column, chessType.ordinal() - oldChessType.ordinal());
     }
 
     public void setChess(Point point, ChessType chessType) {
         this.setChess(point.x, point.y, chessType);
     }
 
+    public boolean isEmpty(int row, int column) {
+        int bit = 1 << column;
+        return ((this.lines[LINE_BASE[1] + row] | this.lines[LINE_TOTAL + LINE_BASE[1] + row]) & bit) == 0;
+    }
+
+    public boolean isEmpty(Point point) {
+        return this.isEmpty(point.x, point.y);
+    }
+
+    /**
+     * @return true if there is no stone on the chessboard.
+     */
+    public boolean isEmpty() {
+        return this.stoneCount == 0;
+    }
+
+    /**
+     * @return true if every position has a stone.
+     */
+    public boolean isFull() {
+        return this.stoneCount == GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE;
+    }
+
+    /**
+     * @return the number of stones on the chessboard.
+     */
+    public int getStoneCount() {
+        return this.stoneCount;
+    }
+
+    /**
+     * @return zobrist key of the stones, equal chessboards have equal keys.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * 
+     * get the zobrist random number of a stone.
+     * 
+     * @param row
+     *            row index.
+     * @param column
+     *            column index.
+     * @param chessType
+     *            black or white.
+     * @return the number xor-ed into the key when the stone is put or removed.
+     */
+    public static long getZobristKey(int row, int column, ChessType chessType) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        int index = row * GomokuConst.CHESSBOARD_SIZE + column;
+        return ChessType.BLACK == chessType ? ZOBRIST[index]
+                : ZOBRIST[GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE + index];
+    }
+
+    /**
+     * 
+     * get the stones of a chess type along a line.
+     * 
+     * @param chessType
+     *            black or white.
+     * @param row
+     *            row index of a point on the line.
+     * @param column
+     *            column index of a point on the line.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return bitset of the line, the bit of a point is
+     *         {@link #getLineOffset(int, int, int)}.
+     */
+    public int getLine(ChessType chessType, int row, int column, int direction) {
+        Preconditions.checkArgument(ChessType.EMPTY != chessType);
+        return this.lines[lineIndex(chessType, row, column, direction)];
+    }
+
+    /**
+     * 
+     * get the base 3 code of a segment of a line, the first point of the
+     * segment is the most significant digit, and the digit of a point is the
+     * ordinal of its chess type.
+     * 
+     * @param row
+     *            row index of a point on the line.
+     * @param column
+     *            column index of a point on the line.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @param fromOffset
+     *            the offset of the first point of the segment, see
+     *            {@link #getLineOffset(int, int, int)}.
+     * @param length
+     *            the number of points of the segment.
+     * @return the code of the segment, less than 3^length.
+     */
+    public int getLineCode(int row, int column, int direction, int fromOffset, int length) {
+        return this.lineCodes[lineIndex(ChessType.BLACK, row, column, direction)]
+                / POW3[GomokuConst.CHESSBOARD_SIZE - fromOffset - length] % POW3[length];
+    }
+
+    /**
+     * 
+     * get the first offset of the line of a direction inside the chessboard.
+     * 
+     * @param row
+     *            row index of a point on the line.
+     * @param column
+     *            column index of a point on the line.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return the offset of the first point of the line.
+     */
+    public static int getLineFirstOffset(int row, int column, int direction) {
+        switch (direction) {
+        case 2:
+            return Math.max(0, column - row);
+        case 3:
+            return Math.max(0, row + column - GomokuConst.CHESSBOARD_SIZE + 1);
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * 
+     * get the last offset of the line of a direction inside the chessboard.
+     * 
+     * @param row
+     *            row index of a point on the line.
+     * @param column
+     *            column index of a point on the line.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return the offset of the last point of the line.
+     */
+    public static int getLineLastOffset(int row, int column, int direction) {
+        switch (direction) {
+        case 2:
+            return Math.min(GomokuConst.CHESSBOARD_SIZE - 1, GomokuConst.CHESSBOARD_SIZE - 1 + column - row);
+        case 3:
+            return Math.min(GomokuConst.CHESSBOARD_SIZE - 1, row + column);
+        default:
+            return GomokuConst.CHESSBOARD_SIZE - 1;
+        }
+    }
+
+    /**
+     * 
+     * get the bit of a point in the line of a direction.
+     * 
+     * @param row
+     *            row index.
+     * @param column
+     *            column index.
+     * @param direction
+     *            the index of the direction in {@link GomokuConst#DIRECTIONS}.
+     * @return the bit of the point, which increases along the direction.
+     */
+    public static int getLineOffset(int row, int column, int direction) {
+        return 0 == direction ? row : column;
+    }
+
+    /**
+     * 
+     * get the index of a direction in {@link GomokuConst#DIRECTIONS}.
+     * 
+     * @param direction
+     *            direction.
+     * @return index of the direction.
+     */
+    public static int getDirectionIndex(Point direction) {
+        for (int i = 0; i < GomokuConst.DIRECTIONS.length; ++i) {
+            if (GomokuConst.DIRECTIONS[i].equals(direction)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown direction: " + direction);
+    }
+
+    private void flipLines(int row, int column, ChessType chessType) {
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            this.lines[lineIndex(chessType, row, column, direction)] ^= 1 << getLineOffset(row, column, direction);
+        }
+    }
+
+    private void addLineCodes(int row, int column, int digit) {
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            this.lineCodes[lineIndex(ChessType.BLACK, row, column, direction)] += digit
+                    * POW3[GomokuConst.CHESSBOARD_SIZE - 1 - getLineOffset(row, column, direction)];
+        }
+    }
+
+    private static int lineIndex(ChessType chessType, int row, int column, int direction) {
+        int line;
+        switch (direction) {
+        case 0:
+            line = column;
+            break;
+        case 1:
+            line = row;
+            break;
+        case 2:
+            line = row - column + GomokuConst.CHESSBOARD_SIZE - 1;
+            break;
+        default:
+            line = row + column;
+        }
+        return (ChessType.BLACK == chessType ? 0 : LINE_TOTAL) + LINE_BASE[direction] + line;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -93,10 +396,7 @@ public class Chessboard implements Cloneable {
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Arrays.deepHashCode(chessboard);
-        return result;
+        return Long.hashCode(zobristKey);
     }
 
     /*
@@ -116,7 +416,10 @@ public class Chessboard implements Cloneable {
             return false;
         }
         Chessboard other = (Chessboard) obj;
-        if (!Arrays.deepEquals(chessboard, other.chessboard)) {
+        if (zobristKey != other.zobristKey || stoneCount != other.stoneCount) {
+            return false;
+        }
+        if (!Arrays.equals(lines, other.lines)) {
             return false;
         }
         return true;
@@ -129,16 +432,14 @@ public class Chessboard implements Cloneable {
      */
     @Override
     public Chessboard clone() {
-        Chessboard clonedChessboard = new Chessboard();
-        for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
-            for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
-                ChessType chessType = chessboard[row][column];
-                if (ChessType.EMPTY != chessType) {
-                    clonedChessboard.setChess(row, column, chessType);
-                }
-            }
+        try {
+            Chessboard clonedChessboard = (Chessboard) super.clone();
+            clonedChessboard.lines = this.lines.clone();
+            clonedChessboard.lineCodes = this.lineCodes.clone();
+            return clonedChessboard;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
         }
-        return clonedChessboard;
     }
 
     /*
@@ -151,7 +452,7 @@ public class Chessboard implements Cloneable {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
             for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
-                sb.append(chessboard[i][j].getChessChar());
+                sb.append(getChess(i, j).getChessChar());
             }
             sb.append(StringUtils.LF);
         }
@@ -4,9 +4,11 @@
 package com.zhixiangli.gomoku.core.analysis;
 
 import java.awt.Point;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Assert;
@@ -15,6 +17,7 @@ import org.junit.Test;
 
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
 import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
 
 /**
  * @author zhixiangli
@@ -71,18 +74,49 @@ public class GlobalAnalyserTest {
         this.chessboard.setChess(6, 5, ChessType.WHITE);
         this.chessboard.setChess(6, 8, ChessType.WHITE);
         Point blackPoint = new Point(4, 3);
-        Map<PatternType, Integer> counter = GlobalAnalyser.getPatternStatistics(chessboard, blackPoint,
-                ChessType.BLACK);
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        GlobalAnalyser.getPatternStatistics(chessboard, blackPoint.x, blackPoint.y, ChessType.BLACK, counter);
         Assert.assertEquals(ChessType.EMPTY, chessboard.getChess(blackPoint));
 
         for (PatternType patternType : Arrays.asList(PatternType.FIVE, PatternType.OPEN_FOUR,
                 PatternType.HALF_OPEN_FOUR, PatternType.HALF_OPEN_THREE)) {
-            Assert.assertEquals(counter.getOrDefault(patternType, 0).intValue(), 1);
+            Assert.assertEquals(counter[patternType.ordinal()], 1);
         }
         for (PatternType patternType : Arrays.asList(PatternType.OPEN_THREE, PatternType.SPACED_OPEN_THREE,
                 PatternType.OPEN_TWO, PatternType.ONE_SPACED_OPEN_TWO, PatternType.TWO_SPACED_OPEN_TWO,
                 PatternType.HALF_OPEN_TWO)) {
-            Assert.assertEquals(counter.getOrDefault(patternType, 0).intValue(), 0);
+            Assert.assertEquals(counter[patternType.ordinal()], 0);
+        }
+    }
+
+    @Test
+    public void getPatternStatisticsOfLines() {
+        Random random = new Random(1);
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        for (int n = 0; n < 100; ++n) {
+            this.chessboard.clear();
+            for (int i = 0; i < 80; ++i) {
+                this.chessboard.setChess(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                        random.nextInt(GomokuConst.CHESSBOARD_SIZE), ChessType.values()[random.nextInt(3)]);
+            }
+            int x = random.nextInt(GomokuConst.CHESSBOARD_SIZE), y = random.nextInt(GomokuConst.CHESSBOARD_SIZE);
+            ChessType chessType = random.nextBoolean() ? ChessType.BLACK : ChessType.WHITE;
+            GlobalAnalyser.getPatternStatistics(this.chessboard, x, y, chessType, counter);
+
+            // the lines copied out of the chessboard.
+            int[] expected = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+            this.chessboard.setChess(x, y, chessType);
+            for (Point direction : GomokuConst.DIRECTIONS) {
+                List<ChessType> pattern = new ArrayList<>();
+                for (int i = -GomokuConst.CONSECUTIVE_NUM; i <= GomokuConst.CONSECUTIVE_NUM; ++i) {
+                    if (GameReferee.isInChessboard(x + direction.x * i, y + direction.y * i)) {
+                        pattern.add(this.chessboard.getChess(x + direction.x * i, y + direction.y * i));
+                    }
+                }
+                ++expected[PatternRecognizer.getBestPatternType(pattern.toArray(new ChessType[0]), chessType)
+                        .ordinal()];
+            }
+            Assert.assertArrayEquals(expected, counter);
         }
     }
 
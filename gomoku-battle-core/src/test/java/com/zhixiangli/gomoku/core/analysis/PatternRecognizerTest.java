@@ -7,10 +7,14 @@ import static com.zhixiangli.gomoku.core.chessboard.ChessType.BLACK;
 import static com.zhixiangli.gomoku.core.chessboard.ChessType.EMPTY;
 import static com.zhixiangli.gomoku.core.chessboard.ChessType.WHITE;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
 
 /**
  * @author zhixiangli
@@ -73,4 +77,24 @@ public class PatternRecognizerTest {
                 .getBestPatternType(new ChessType[] { WHITE, BLACK, EMPTY, BLACK, EMPTY, EMPTY, WHITE, BLACK }, BLACK));
     }
 
+    @Test
+    public void getBestPatternTypeOfChessboard() {
+        // a column longer than the max length of a line in the table.
+        Chessboard chessboard = new Chessboard();
+        ChessType[] column = { WHITE, EMPTY, BLACK, EMPTY, EMPTY, BLACK, WHITE, BLACK, EMPTY, EMPTY, EMPTY, BLACK,
+                BLACK, EMPTY, WHITE };
+        for (int i = 0; i < column.length; ++i) {
+            chessboard.setChess(i, 3, column[i]);
+        }
+        for (int i = 0; i < column.length; ++i) {
+            for (int range : new int[] { GomokuConst.CONSECUTIVE_NUM, GomokuConst.CHESSBOARD_SIZE }) {
+                ChessType[] line = Arrays.copyOfRange(column, Math.max(0, i - range),
+                        Math.min(column.length, i + range + 1));
+                line[i - Math.max(0, i - range)] = BLACK;
+                Assert.assertEquals(PatternRecognizer.getBestPatternType(line, BLACK),
+                        PatternRecognizer.getBestPatternType(chessboard, i, 3, 0, range, BLACK));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.core.analysis;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class PatternTableGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generate() throws Exception {
+        byte[] table = new PatternTableGenerator().generate();
+        Assert.assertEquals(2 * PatternTableGenerator.LINE_HASH_BOUND, table.length);
+
+        Path path = this.folder.getRoot().toPath().resolve("table").resolve("pattern-types.bin");
+        PatternTableGenerator.main(new String[] { path.toString() });
+        Assert.assertArrayEquals(table, Files.readAllBytes(path));
+
+        // every line of the table agrees with its windows.
+        Random random = new Random(0);
+        ChessType[] chessTypes = ChessType.values();
+        for (int t = 0; t < 10000; ++t) {
+            ChessType[] line = new ChessType[1 + random.nextInt(PatternTableGenerator.LINE_MAX_LENGTH)];
+            for (int i = 0; i < line.length; ++i) {
+                line[i] = chessTypes[random.nextInt(chessTypes.length)];
+            }
+            for (ChessType chessType : new ChessType[] { ChessType.BLACK, ChessType.WHITE }) {
+                PatternType expected = PatternType.OTHERS;
+                for (int i = 0; i + PatternTableGenerator.PATTERN_MAX_LENGTH <= Math.max(line.length,
+                        PatternTableGenerator.PATTERN_MAX_LENGTH); ++i) {
+                    PatternType patternType = PatternRecognizer.getPatternType(Arrays.copyOfRange(line, i,
+                            Math.min(line.length, i + PatternTableGenerator.PATTERN_MAX_LENGTH)), chessType);
+                    if (patternType.compareTo(expected) > 0) {
+                        expected = patternType;
+                    }
+                }
+                Assert.assertEquals(expected, PatternRecognizer.getBestPatternType(line, chessType));
+                int offset = ChessType.BLACK == chessType ? 0 : PatternTableGenerator.LINE_HASH_BOUND;
+                Assert.assertEquals(expected.ordinal(),
+                        table[offset + PatternTableGenerator.hashPatternList(line, 0, line.length)]);
+            }
+        }
+    }
+
+}
@@ -3,10 +3,17 @@
  */
 package com.zhixiangli.gomoku.core.chessboard;
 
+import java.awt.Point;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
 /**
  * 
  * @author lizhixiang
@@ -39,4 +46,130 @@ public class ChessboardTest {
         Assert.assertEquals(ChessType.EMPTY, this.chessboard.getChess(0, 11));
     }
 
+    @Test
+    public void cloneAndEquals() {
+        this.chessboard.setChess(7, 7, ChessType.BLACK);
+        this.chessboard.setChess(7, 8, ChessType.WHITE);
+        Chessboard clonedChessboard = this.chessboard.clone();
+        Assert.assertEquals(this.chessboard, clonedChessboard);
+        Assert.assertEquals(this.chessboard.hashCode(), clonedChessboard.hashCode());
+        Assert.assertEquals(this.chessboard.toString(), clonedChessboard.toString());
+
+        clonedChessboard.setChess(7, 8, ChessType.BLACK);
+        Assert.assertNotEquals(this.chessboard, clonedChessboard);
+        Assert.assertEquals(ChessType.WHITE, this.chessboard.getChess(7, 8));
+
+        clonedChessboard.setChess(7, 8, ChessType.WHITE);
+        Assert.assertEquals(this.chessboard, clonedChessboard);
+        Assert.assertEquals(this.chessboard, new Chessboard(this.chessboard.toString()));
+    }
+
+    @Test
+    public void emptyAndFull() {
+        Assert.assertTrue(this.chessboard.isEmpty());
+        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
+            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+                Assert.assertTrue(this.chessboard.isEmpty(i, j));
+                this.chessboard.setChess(i, j, (i + j) % 2 == 0 ? ChessType.BLACK : ChessType.WHITE);
+                Assert.assertFalse(this.chessboard.isEmpty(i, j));
+                Assert.assertEquals(i * GomokuConst.CHESSBOARD_SIZE + j + 1, this.chessboard.getStoneCount());
+            }
+        }
+        Assert.assertTrue(this.chessboard.isFull());
+        this.chessboard.setChess(0, 0, ChessType.EMPTY);
+        Assert.assertFalse(this.chessboard.isFull());
+        Assert.assertFalse(this.chessboard.isEmpty());
+    }
+
+    @Test
+    public void getLine() {
+        // anti-diagonal through (10, 4).
+        for (int i = 0; i < 4; ++i) {
+            this.chessboard.setChess(10 - i, 4 + i, ChessType.WHITE);
+        }
+        this.chessboard.setChess(6, 8, ChessType.BLACK);
+        int direction = Chessboard.getDirectionIndex(new Point(-1, 1));
+        int line = this.chessboard.getLine(ChessType.WHITE, 8, 6, direction);
+        Assert.assertEquals(0xF << Chessboard.getLineOffset(10, 4, direction), line);
+        Assert.assertEquals(1 << Chessboard.getLineOffset(6, 8, direction),
+                this.chessboard.getLine(ChessType.BLACK, 10, 4, direction));
+        Assert.assertEquals(4, GlobalAnalyser.getConsecutiveCount(this.chessboard, new Point(9, 5), direction));
+
+        // a full row.
+        for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+            this.chessboard.setChess(14, j, ChessType.BLACK);
+        }
+        Assert.assertEquals(GomokuConst.CHESSBOARD_SIZE,
+                GlobalAnalyser.getConsecutiveCount(this.chessboard, new Point(14, 0), new Point(0, 1)));
+        Assert.assertEquals(GomokuConst.CHESSBOARD_SIZE,
+                GlobalAnalyser.getConsecutiveCount(this.chessboard, new Point(14, 14), new Point(0, 1)));
+        Assert.assertEquals(1, GlobalAnalyser.getConsecutiveCount(this.chessboard, new Point(14, 14), new Point(1, 0)));
+    }
+
+    @Test
+    public void getLineCode() {
+        Random random = new Random(0);
+        for (int n = 0; n < 1000; ++n) {
+            this.chessboard.setChess(random.nextInt(GomokuConst.CHESSBOARD_SIZE),
+                    random.nextInt(GomokuConst.CHESSBOARD_SIZE), ChessType.values()[random.nextInt(3)]);
+        }
+        Chessboard clonedChessboard = this.chessboard.clone();
+        for (int row = 0; row < GomokuConst.CHESSBOARD_SIZE; ++row) {
+            for (int column = 0; column < GomokuConst.CHESSBOARD_SIZE; ++column) {
+                for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+                    Point d = GomokuConst.DIRECTIONS[direction];
+                    int offset = Chessboard.getLineOffset(row, column, direction);
+                    int first = Chessboard.getLineFirstOffset(row, column, direction);
+                    int last = Chessboard.getLineLastOffset(row, column, direction);
+                    // the points of the line inside the chessboard, read one by one.
+                    int code = 0;
+                    for (int i = first - offset; i <= last - offset; ++i) {
+                        Assert.assertTrue(GameReferee.isInChessboard(row + d.x * i, column + d.y * i));
+                        code = 3 * code + this.chessboard.getChess(row + d.x * i, column + d.y * i).ordinal();
+                    }
+                    Assert.assertFalse(GameReferee.isInChessboard(row + d.x * (first - offset - 1),
+                            column + d.y * (first - offset - 1)));
+                    Assert.assertFalse(GameReferee.isInChessboard(row + d.x * (last - offset + 1),
+                            column + d.y * (last - offset + 1)));
+                    Assert.assertEquals(code,
+                            this.chessboard.getLineCode(row, column, direction, first, last - first + 1));
+                    Assert.assertEquals(code,
+                            clonedChessboard.getLineCode(row, column, direction, first, last - first + 1));
+                    Assert.assertEquals(this.chessboard.getChess(row, column).ordinal(),
+                            this.chessboard.getLineCode(row, column, direction, offset, 1));
+                }
+            }
+        }
+        this.chessboard.clear();
+        Assert.assertEquals(0, this.chessboard.getLineCode(7, 7, 0, 0, GomokuConst.CHESSBOARD_SIZE));
+    }
+
+    @Test
+    public void getZobristKey() {
+        Assert.assertEquals(0, this.chessboard.getZobristKey());
+        this.chessboard.setChess(7, 7, ChessType.BLACK);
+        this.chessboard.setChess(8, 8, ChessType.WHITE);
+        this.chessboard.setChess(6, 6, ChessType.BLACK);
+
+        // transposition.
+        Chessboard transposedChessboard = new Chessboard();
+        transposedChessboard.setChess(6, 6, ChessType.BLACK);
+        transposedChessboard.setChess(8, 8, ChessType.WHITE);
+        transposedChessboard.setChess(7, 7, ChessType.BLACK);
+        Assert.assertEquals(this.chessboard.getZobristKey(), transposedChessboard.getZobristKey());
+        Assert.assertEquals(this.chessboard.getZobristKey(), this.chessboard.clone().getZobristKey());
+
+        // colors matter.
+        transposedChessboard.setChess(8, 8, ChessType.BLACK);
+        Assert.assertNotEquals(this.chessboard.getZobristKey(), transposedChessboard.getZobristKey());
+
+        // undo restores the key.
+        transposedChessboard.setChess(8, 8, ChessType.EMPTY);
+        transposedChessboard.setChess(8, 8, ChessType.WHITE);
+        Assert.assertEquals(this.chessboard.getZobristKey(), transposedChessboard.getZobristKey());
+
+        this.chessboard.clear();
+        Assert.assertEquals(0, this.chessboard.getZobristKey());
+    }
+
 }
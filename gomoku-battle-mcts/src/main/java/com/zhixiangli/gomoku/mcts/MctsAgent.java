@@ -0,0 +1,50 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts;
+
+import java.awt.Point;
+
+import com.zhixiangli.gomoku.console.ConsoleAgent;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+import com.zhixiangli.gomoku.core.common.GomokuFormatter;
+import com.zhixiangli.gomoku.mcts.algorithm.MonteCarloTreeSearch;
+import com.zhixiangli.gomoku.mcts.common.MctsOptions;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class MctsAgent extends ConsoleAgent {
+
+    private MctsOptions mctsOptions;
+
+    private MonteCarloTreeSearch monteCarloTreeSearch;
+
+    public MctsAgent() {
+        this(new MctsOptions());
+    }
+
+    public MctsAgent(MctsOptions mctsOptions) {
+        this.mctsOptions = mctsOptions;
+        this.monteCarloTreeSearch = new MonteCarloTreeSearch(mctsOptions.getThreadNum());
+    }
+
+    @Override
+    protected Point next(String sgf, ChessType chessType) {
+        Chessboard chessboard = GomokuFormatter.toChessboard(sgf);
+        if (chessboard.isEmpty()) {
+            return new Point(GomokuConst.CHESSBOARD_SIZE / 2, GomokuConst.CHESSBOARD_SIZE / 2);
+        }
+        return this.monteCarloTreeSearch.search(chessboard, chessType,
+                System.currentTimeMillis() + this.mctsOptions.getSearchTimeMillis(), this.mctsOptions.getPlayoutNum());
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConsoleAgent agent = new MctsAgent(MctsOptions.parse(args));
+        agent.start();
+    }
+
+}
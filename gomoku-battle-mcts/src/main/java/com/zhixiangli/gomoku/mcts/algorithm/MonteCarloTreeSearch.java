@@ -0,0 +1,210 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * monte carlo tree search by uct.
+ * 
+ * the threads share the tree, a thread adds virtual losses to the nodes on its
+ * path, so that the others are led to other paths. the subtree of the position
+ * after the moves of both sides is kept for the next search.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class MonteCarloTreeSearch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonteCarloTreeSearch.class);
+
+    private ExecutorService pool;
+
+    private int threadNum;
+
+    private TreeNode root;
+
+    private Chessboard rootChessboard;
+
+    /**
+     * 
+     * @param threadNum
+     *            the number of search threads.
+     */
+    public MonteCarloTreeSearch(int threadNum) {
+        Preconditions.checkArgument(threadNum > 0);
+        this.threadNum = threadNum;
+        this.pool = Executors.newFixedThreadPool(threadNum,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mcts-%d").build());
+    }
+
+    /**
+     * 
+     * search until the deadline or the max number of playouts.
+     * 
+     * @param chessboard
+     *            the current chessboard, it is not empty.
+     * @param chessType
+     *            the chess type to put.
+     * @param deadline
+     *            the search stops when System.currentTimeMillis() passes it.
+     * @param maxPlayoutNum
+     *            the max number of playouts, 0 means no limit.
+     * @return the most visited move, or the center point if there is no
+     *         candidate.
+     */
+    public Point search(Chessboard chessboard, ChessType chessType, long deadline, int maxPlayoutNum) {
+        Preconditions.checkArgument(!chessboard.isEmpty());
+        Preconditions.checkArgument(maxPlayoutNum >= 0);
+        this.root = this.reuseRoot(chessboard, chessType);
+        this.rootChessboard = chessboard.clone();
+        int reusedVisitNum = this.root.getVisitNum();
+        this.root.expand(this.rootChessboard.clone());
+
+        AtomicInteger playoutNum = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(this.threadNum);
+        for (int i = 0; i < this.threadNum; ++i) {
+            workers.add(this.pool.submit(() -> {
+                Chessboard newChessboard = this.rootChessboard.clone();
+                while (System.currentTimeMillis() < deadline
+                        && (0 == maxPlayoutNum || playoutNum.getAndIncrement() < maxPlayoutNum)) {
+                    this.playout(newChessboard);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException | ExecutionException e) {
+                LOGGER.error("monte carlo tree search error: {}", e);
+            }
+        }
+
+        TreeNode bestChild = this.root.getBestChild();
+        if (null == bestChild) {
+            // there is no empty point around the stones, the chessboard is full.
+            LOGGER.warn("monte carlo tree search has no candidate.");
+            return new Point(GomokuConst.CHESSBOARD_SIZE / 2, GomokuConst.CHESSBOARD_SIZE / 2);
+        }
+        LOGGER.info("monte carlo tree search playouts: {}, reused: {}, best point: {}, visits: {}, win rate: {}",
+                this.root.getVisitNum() - reusedVisitNum, reusedVisitNum, bestChild.getMove(),
+                bestChild.getVisitNum(), bestChild.getWinRate());
+        return bestChild.getMove();
+    }
+
+    /**
+     * @return the root of the last search.
+     */
+    TreeNode getRoot() {
+        return this.root;
+    }
+
+    /**
+     * 
+     * select a path by uct, expand its leaf, and roll out from it.
+     * 
+     * @param chessboard
+     *            the chessboard of the root, it is restored on return.
+     */
+    private void playout(Chessboard chessboard) {
+        List<TreeNode> path = new ArrayList<>();
+        TreeNode node = this.root;
+        path.add(node);
+        try {
+            while (!node.isTerminal()) {
+                if (!node.isExpanded()) {
+                    // a leaf is expanded on its second visit, most leaves are visited once.
+                    if (0 == node.getVisitNum()) {
+                        break;
+                    }
+                    node.expand(chessboard);
+                }
+                TreeNode child = node.selectChild();
+                if (null == child) {
+                    break;
+                }
+                node = child;
+                node.addVirtualLoss();
+                chessboard.setChess(node.getMove(), node.getChessType());
+                path.add(node);
+            }
+            ChessType winner = node.isTerminal() ? node.getTerminalWinner()
+                    : PatternPolicy.rollout(chessboard, GameReferee.nextChessType(node.getChessType()),
+                            path.size() > 1 ? path.get(path.size() - 2).getMove() : null, node.getMove(),
+                            ThreadLocalRandom.current());
+            for (TreeNode pathNode : path) {
+                pathNode.update(winner);
+            }
+        } finally {
+            for (int i = path.size() - 1; i > 0; --i) {
+                path.get(i).removeVirtualLoss();
+                chessboard.setChess(path.get(i).getMove(), ChessType.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * 
+     * find the node of the chessboard in the last tree, by the moves put since
+     * the last search.
+     * 
+     * @return the node, or a new root if it is not in the tree.
+     */
+    private TreeNode reuseRoot(Chessboard chessboard, ChessType chessType) {
+        TreeNode newRoot = new TreeNode(null, GameReferee.nextChessType(chessType), -1);
+        if (null == this.root) {
+            return newRoot;
+        }
+        Map<Point, ChessType> moves = new HashMap<>();
+        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
+            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+                if (this.rootChessboard.getChess(i, j) == chessboard.getChess(i, j)) {
+                    continue;
+                }
+                if (!this.rootChessboard.isEmpty(i, j)) {
+                    // it is another game.
+                    return newRoot;
+                }
+                moves.put(new Point(i, j), chessboard.getChess(i, j));
+            }
+        }
+        TreeNode node = this.root;
+        while (!moves.isEmpty()) {
+            TreeNode child = null;
+            for (Map.Entry<Point, ChessType> move : moves.entrySet()) {
+                child = node.getChild(move.getKey(), move.getValue());
+                if (null != child) {
+                    break;
+                }
+            }
+            if (null == child) {
+                return newRoot;
+            }
+            moves.remove(child.getMove());
+            node = child;
+        }
+        return GameReferee.nextChessType(node.getChessType()) == chessType ? node : newRoot;
+    }
+
+}
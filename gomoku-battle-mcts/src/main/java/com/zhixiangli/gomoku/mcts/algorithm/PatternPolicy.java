@@ -0,0 +1,242 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.algorithm;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.analysis.PatternType;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+import com.zhixiangli.gomoku.mcts.common.MctsConst;
+
+/**
+ * the moves of the tree and of the rollouts, biased by the patterns both sides
+ * make on a point.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class PatternPolicy {
+
+    /**
+     * 
+     * @param chessboard
+     *            the current chessboard.
+     * @param chessType
+     *            the chess type to put.
+     * @return the five of the chess type, or the blocks of the fives of the
+     *         other, or else the candidates of the best weights.
+     */
+    public static Point[] getCandidates(Chessboard chessboard, ChessType chessType) {
+        Point[] points = GlobalAnalyser.getEmptyPointsAround(chessboard, MctsConst.AROUND_CHILDREN_RANGE);
+        double[] weights = new double[points.length];
+        List<Point> blocks = new ArrayList<>();
+        int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+        for (int i = 0; i < points.length; ++i) {
+            GlobalAnalyser.getPatternStatistics(chessboard, points[i].x, points[i].y, chessType, counter);
+            if (counter[PatternType.FIVE.ordinal()] > 0) {
+                return new Point[] { points[i] };
+            }
+            weights[i] = getWeight(counter);
+            GlobalAnalyser.getPatternStatistics(chessboard, points[i].x, points[i].y,
+                    GameReferee.nextChessType(chessType), counter);
+            if (counter[PatternType.FIVE.ordinal()] > 0) {
+                blocks.add(points[i]);
+            }
+            weights[i] += getWeight(counter);
+        }
+        if (!blocks.isEmpty()) {
+            return blocks.toArray(new Point[0]);
+        }
+        Integer[] indexes = new Integer[points.length];
+        Arrays.setAll(indexes, i -> i);
+        Arrays.sort(indexes, (a, b) -> Double.compare(weights[b], weights[a]));
+        return Arrays.stream(indexes).limit(MctsConst.MAX_CHILDREN_NUM).map(i -> points[i]).toArray(Point[]::new);
+    }
+
+    /**
+     * 
+     * play the game to the end. a five is always put and a five of the other is
+     * always blocked, the other moves are sampled by their weights.
+     * 
+     * @param chessboard
+     *            the chessboard, it is restored on return.
+     * @param chessType
+     *            the chess type to put.
+     * @param lastMove
+     *            the last move of the chess type, or null.
+     * @param otherLastMove
+     *            the last move of the other chess type, or null.
+     * @param random
+     *            the random of the thread.
+     * @return the winner, empty for a draw.
+     */
+    public static ChessType rollout(Chessboard chessboard, ChessType chessType, Point lastMove, Point otherLastMove,
+            Random random) {
+        List<Point> moves = new ArrayList<>();
+        RolloutCandidates candidates = new RolloutCandidates(chessboard);
+        try {
+            for (int step = 0; step < MctsConst.MAX_ROLLOUT_MOVES && !candidates.isEmpty(); ++step) {
+                if (null != getFivePointThrough(chessboard, lastMove, chessType)) {
+                    return chessType;
+                }
+                Point move = getFivePointThrough(chessboard, otherLastMove, GameReferee.nextChessType(chessType));
+                if (null == move) {
+                    move = candidates.sample(chessboard, chessType, random);
+                }
+                chessboard.setChess(move, chessType);
+                moves.add(move);
+                candidates.put(chessboard, move);
+                if (GameReferee.isWin(chessboard, move)) {
+                    return chessType;
+                }
+                lastMove = otherLastMove;
+                otherLastMove = move;
+                chessType = GameReferee.nextChessType(chessType);
+            }
+            return ChessType.EMPTY;
+        } finally {
+            for (Point move : moves) {
+                chessboard.setChess(move, ChessType.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * @return the weight of the patterns counted by their ordinals.
+     */
+    private static double getWeight(int[] counter) {
+        double weight = 0;
+        for (int i = 0; i < counter.length; ++i) {
+            weight += MctsConst.PATTERN_WEIGHT[i] * counter[i];
+        }
+        return weight;
+    }
+
+    /**
+     * @return an empty point where the chess type puts a five through the stone,
+     *         or null.
+     */
+    private static Point getFivePointThrough(Chessboard chessboard, Point stone, ChessType chessType) {
+        if (null == stone) {
+            return null;
+        }
+        for (int direction = 0; direction < GomokuConst.DIRECTIONS.length; ++direction) {
+            Point vector = GomokuConst.DIRECTIONS[direction];
+            for (int step = -GomokuConst.CONSECUTIVE_NUM + 1; step < GomokuConst.CONSECUTIVE_NUM; ++step) {
+                Point five = new Point(stone.x + vector.x * step, stone.y + vector.y * step);
+                if (!GameReferee.isInChessboard(five) || !chessboard.isEmpty(five)) {
+                    continue;
+                }
+                chessboard.setChess(five, chessType);
+                int count = GlobalAnalyser.getConsecutiveCount(chessboard, five, direction);
+                chessboard.setChess(five, ChessType.EMPTY);
+                if (count >= GomokuConst.CONSECUTIVE_NUM) {
+                    return five;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the empty points next to the stones, kept up to date as a rollout puts.
+     * the buffers of the sampling are reused by every move of the rollout.
+     */
+    private static class RolloutCandidates {
+
+        private final Point[] samples = new Point[MctsConst.ROLLOUT_SAMPLE_NUM];
+
+        private final double[] weights = new double[MctsConst.ROLLOUT_SAMPLE_NUM];
+
+        private final int[] counter = new int[GlobalAnalyser.PATTERN_TYPE_NUM];
+
+        private final List<Point> points = new ArrayList<>();
+
+        /**
+         * the index of a point in the list, or -1.
+         */
+        private final int[] indexes = new int[GomokuConst.CHESSBOARD_SIZE * GomokuConst.CHESSBOARD_SIZE];
+
+        RolloutCandidates(Chessboard chessboard) {
+            Arrays.fill(this.indexes, -1);
+            for (Point point : GlobalAnalyser.getEmptyPointsAround(chessboard, 1)) {
+                this.add(point);
+            }
+        }
+
+        void put(Chessboard chessboard, Point move) {
+            this.remove(move);
+            for (int i = move.x - 1; i <= move.x + 1; ++i) {
+                for (int j = move.y - 1; j <= move.y + 1; ++j) {
+                    if (GameReferee.isInChessboard(i, j) && chessboard.isEmpty(i, j)) {
+                        this.add(new Point(i, j));
+                    }
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return this.points.isEmpty();
+        }
+
+        /**
+         * @return one of a few random candidates, chosen in proportion to their
+         *         weights.
+         */
+        Point sample(Chessboard chessboard, ChessType chessType, Random random) {
+            double totalWeight = 0;
+            for (int i = 0; i < this.samples.length; ++i) {
+                Point sample = this.points.get(random.nextInt(this.points.size()));
+                this.samples[i] = sample;
+                GlobalAnalyser.getPatternStatistics(chessboard, sample.x, sample.y, chessType, this.counter);
+                this.weights[i] = 1 + getWeight(this.counter);
+                GlobalAnalyser.getPatternStatistics(chessboard, sample.x, sample.y,
+                        GameReferee.nextChessType(chessType), this.counter);
+                this.weights[i] += getWeight(this.counter);
+                totalWeight += this.weights[i];
+            }
+            double r = random.nextDouble() * totalWeight;
+            for (int i = 0; i < this.samples.length; ++i) {
+                r -= this.weights[i];
+                if (r < 0) {
+                    return this.samples[i];
+                }
+            }
+            return this.samples[this.samples.length - 1];
+        }
+
+        private void add(Point point) {
+            int key = point.x * GomokuConst.CHESSBOARD_SIZE + point.y;
+            if (this.indexes[key] < 0) {
+                this.indexes[key] = this.points.size();
+                this.points.add(point);
+            }
+        }
+
+        private void remove(Point point) {
+            int key = point.x * GomokuConst.CHESSBOARD_SIZE + point.y;
+            int index = this.indexes[key];
+            if (index < 0) {
+                return;
+            }
+            // move the last point into the hole.
+            Point last = this.points.remove(this.points.size() - 1);
+            if (index < this.points.size()) {
+                this.points.set(index, last);
+                this.indexes[last.x * GomokuConst.CHESSBOARD_SIZE + last.y] = index;
+            }
+            this.indexes[key] = -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.algorithm;
+
+import java.awt.Point;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.zhixiangli.gomoku.core.analysis.GameReferee;
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.mcts.common.MctsConst;
+
+/**
+ * a node of the search tree, the position after a move.
+ * 
+ * the statistics are from the perspective of the chess type which has put the
+ * move, a win scores 2, a draw scores 1. they are updated by search threads
+ * without locks, only the expansion is synchronized.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class TreeNode {
+
+    private static final int WIN_SCORE = 2;
+
+    private static final int DRAW_SCORE = 1;
+
+    private final Point move;
+
+    private final ChessType chessType;
+
+    /**
+     * the score of the chess type if the move ends the game, or -1.
+     */
+    private final int terminalScore;
+
+    private volatile TreeNode[] children;
+
+    private final AtomicInteger visitNum = new AtomicInteger();
+
+    private final AtomicLong score = new AtomicLong();
+
+    private final AtomicInteger virtualLossNum = new AtomicInteger();
+
+    /**
+     * 
+     * @param move
+     *            the move, null for the root of a new game.
+     * @param chessType
+     *            the chess type which has put the move.
+     * @param terminalScore
+     *            the score of the chess type if the move ends the game, or -1.
+     */
+    TreeNode(Point move, ChessType chessType, int terminalScore) {
+        this.move = move;
+        this.chessType = chessType;
+        this.terminalScore = terminalScore;
+    }
+
+    /**
+     * 
+     * create the children by the candidates of the policy, it is done once even
+     * if threads race for it.
+     * 
+     * @param chessboard
+     *            the chessboard of the node.
+     */
+    void expand(Chessboard chessboard) {
+        if (null != this.children) {
+            return;
+        }
+        synchronized (this) {
+            if (null != this.children) {
+                return;
+            }
+            ChessType nextChessType = GameReferee.nextChessType(this.chessType);
+            Point[] moves = PatternPolicy.getCandidates(chessboard, nextChessType);
+            TreeNode[] newChildren = new TreeNode[moves.length];
+            for (int i = 0; i < moves.length; ++i) {
+                chessboard.setChess(moves[i], nextChessType);
+                int childTerminalScore = GameReferee.isWin(chessboard, moves[i]) ? WIN_SCORE
+                        : chessboard.isFull() ? DRAW_SCORE : -1;
+                chessboard.setChess(moves[i], ChessType.EMPTY);
+                newChildren[i] = new TreeNode(moves[i], nextChessType, childTerminalScore);
+            }
+            this.children = newChildren;
+        }
+    }
+
+    /**
+     * 
+     * @return the child of the best uct value, or null if there is none. the
+     *         visits of the other threads count as losses.
+     */
+    TreeNode selectChild() {
+        TreeNode[] nodes = this.children;
+        double logVisitNum = Math.log(Math.max(1, this.visitNum.get() + this.virtualLossNum.get()));
+        TreeNode bestChild = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (TreeNode child : nodes) {
+            // a win ends the game, there is no need to look further.
+            if (WIN_SCORE == child.terminalScore) {
+                return child;
+            }
+            int childVisitNum = child.visitNum.get() + child.virtualLossNum.get();
+            // the children are ordered by the policy, the unvisited one of the best
+            // weight is taken first.
+            double value = 0 == childVisitNum ? Double.MAX_VALUE
+                    : child.score.get() / (double) (WIN_SCORE * childVisitNum)
+                            + MctsConst.EXPLORATION * Math.sqrt(logVisitNum / childVisitNum);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * @return the most visited child, or null if it is not expanded.
+     */
+    TreeNode getBestChild() {
+        TreeNode[] nodes = this.children;
+        if (null == nodes) {
+            return null;
+        }
+        TreeNode bestChild = null;
+        for (TreeNode child : nodes) {
+            if (WIN_SCORE == child.terminalScore) {
+                return child;
+            }
+            if (null == bestChild || child.visitNum.get() > bestChild.visitNum.get()) {
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * @return the child of the move put by the chess type, or null.
+     */
+    TreeNode getChild(Point point, ChessType chessType) {
+        TreeNode[] nodes = this.children;
+        if (null == nodes || GameReferee.nextChessType(this.chessType) != chessType) {
+            return null;
+        }
+        for (TreeNode child : nodes) {
+            if (child.move.equals(point)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    void addVirtualLoss() {
+        this.virtualLossNum.addAndGet(MctsConst.VIRTUAL_LOSS);
+    }
+
+    void removeVirtualLoss() {
+        this.virtualLossNum.addAndGet(-MctsConst.VIRTUAL_LOSS);
+    }
+
+    /**
+     * 
+     * add the result of a playout.
+     * 
+     * @param winner
+     *            the chess type which has won, empty for a draw.
+     */
+    void update(ChessType winner) {
+        this.score.addAndGet(winner == this.chessType ? WIN_SCORE : ChessType.EMPTY == winner ? DRAW_SCORE : 0);
+        this.visitNum.incrementAndGet();
+    }
+
+    boolean isExpanded() {
+        return null != this.children;
+    }
+
+    boolean isTerminal() {
+        return this.terminalScore >= 0;
+    }
+
+    /**
+     * @return the winner if the node is terminal, empty for a draw.
+     */
+    ChessType getTerminalWinner() {
+        return WIN_SCORE == this.terminalScore ? this.chessType : ChessType.EMPTY;
+    }
+
+    /**
+     * @return the move
+     */
+    public Point getMove() {
+        return move;
+    }
+
+    /**
+     * @return the chessType
+     */
+    public ChessType getChessType() {
+        return chessType;
+    }
+
+    public int getVisitNum() {
+        return this.visitNum.get();
+    }
+
+    /**
+     * @return the average score of the chess type in [0, 1].
+     */
+    public double getWinRate() {
+        int num = this.visitNum.get();
+        return 0 == num ? 0 : this.score.get() / (double) (WIN_SCORE * num);
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.common;
+
+import com.zhixiangli.gomoku.core.analysis.GlobalAnalyser;
+import com.zhixiangli.gomoku.core.analysis.PatternType;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class MctsConst {
+
+    /**
+     * the exploration constant of uct.
+     */
+    public static final double EXPLORATION = 0.5;
+
+    /**
+     * the number of losses a thread adds to the nodes it is visiting, so that
+     * the other threads visit other nodes.
+     */
+    public static final int VIRTUAL_LOSS = 3;
+
+    /**
+     * the max number of children of a node, the candidates of the best pattern
+     * weights.
+     */
+    public static final int MAX_CHILDREN_NUM = 20;
+
+    /**
+     * the range around the stones where the children are.
+     */
+    public static final int AROUND_CHILDREN_RANGE = 2;
+
+    /**
+     * the number of candidates a rollout move is chosen from.
+     */
+    public static final int ROLLOUT_SAMPLE_NUM = 8;
+
+    /**
+     * a rollout longer than this is a draw.
+     */
+    public static final int MAX_ROLLOUT_MOVES = 60;
+
+    /**
+     * the default wall-clock budget of a move.
+     */
+    public static final long SEARCH_TIME_MILLIS = 5000;
+
+    /**
+     * the weight of a point is 1 plus the weights of the patterns both sides
+     * make on it. indexed by the ordinal of the pattern.
+     */
+    public static final double[] PATTERN_WEIGHT = new double[GlobalAnalyser.PATTERN_TYPE_NUM];
+
+    static {
+        PATTERN_WEIGHT[PatternType.FIVE.ordinal()] = 1e6;
+
+        PATTERN_WEIGHT[PatternType.OPEN_FOUR.ordinal()] = 1e4;
+
+        PATTERN_WEIGHT[PatternType.HALF_OPEN_FOUR.ordinal()] = 2e2;
+
+        PATTERN_WEIGHT[PatternType.OPEN_THREE.ordinal()] = 2e2;
+        PATTERN_WEIGHT[PatternType.SPACED_OPEN_THREE.ordinal()] = 1e2;
+
+        PATTERN_WEIGHT[PatternType.HALF_OPEN_THREE.ordinal()] = 2e1;
+
+        PATTERN_WEIGHT[PatternType.OPEN_TWO.ordinal()] = 2e1;
+        PATTERN_WEIGHT[PatternType.ONE_SPACED_OPEN_TWO.ordinal()] = 1e1;
+        PATTERN_WEIGHT[PatternType.TWO_SPACED_OPEN_TWO.ordinal()] = 5e0;
+
+        PATTERN_WEIGHT[PatternType.HALF_OPEN_TWO.ordinal()] = 2e0;
+
+        PATTERN_WEIGHT[PatternType.OTHERS.ordinal()] = 0.0;
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.common;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * options of the monte carlo tree search agent.
+ * 
+ * @author zhixiangli
+ *
+ */
+public class MctsOptions {
+
+    public static final String SEARCH_TIME = "time";
+
+    public static final String PLAYOUT_NUM = "playouts";
+
+    public static final String THREAD_NUM = "threads";
+
+    /**
+     * wall-clock budget of a move.
+     */
+    private long searchTimeMillis = MctsConst.SEARCH_TIME_MILLIS;
+
+    /**
+     * the max number of playouts of a move, 0 means no limit.
+     */
+    private int playoutNum = 0;
+
+    private int threadNum = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 
+     * parse the command line options of the agent.
+     * 
+     * @param args
+     *            command line arguments.
+     * @return options, the default value is used if an option is absent.
+     * @throws ParseException
+     *             if the arguments are invalid.
+     */
+    public static MctsOptions parse(String[] args) throws ParseException {
+        Options options = new Options();
+        options.addOption(SEARCH_TIME, true, "search time of a move in milliseconds");
+        options.addOption(PLAYOUT_NUM, true, "the max number of playouts of a move, 0 means no limit");
+        options.addOption(THREAD_NUM, true, "the number of search threads");
+        CommandLine cmd = new DefaultParser().parse(options, args);
+
+        MctsOptions mctsOptions = new MctsOptions();
+        mctsOptions.setSearchTimeMillis(
+                NumberUtils.toLong(cmd.getOptionValue(SEARCH_TIME), mctsOptions.getSearchTimeMillis()));
+        mctsOptions.setPlayoutNum(NumberUtils.toInt(cmd.getOptionValue(PLAYOUT_NUM), mctsOptions.getPlayoutNum()));
+        mctsOptions.setThreadNum(NumberUtils.toInt(cmd.getOptionValue(THREAD_NUM), mctsOptions.getThreadNum()));
+        return mctsOptions;
+    }
+
+    /**
+     * @return the searchTimeMillis
+     */
+    public long getSearchTimeMillis() {
+        return searchTimeMillis;
+    }
+
+    /**
+     * @param searchTimeMillis
+     *            the searchTimeMillis to set
+     */
+    public void setSearchTimeMillis(long searchTimeMillis) {
+        Preconditions.checkArgument(searchTimeMillis > 0);
+        this.searchTimeMillis = searchTimeMillis;
+    }
+
+    /**
+     * @return the playoutNum
+     */
+    public int getPlayoutNum() {
+        return playoutNum;
+    }
+
+    /**
+     * @param playoutNum
+     *            the playoutNum to set
+     */
+    public void setPlayoutNum(int playoutNum) {
+        Preconditions.checkArgument(playoutNum >= 0);
+        this.playoutNum = playoutNum;
+    }
+
+    /**
+     * @return the threadNum
+     */
+    public int getThreadNum() {
+        return threadNum;
+    }
+
+    /**
+     * @param threadNum
+     *            the threadNum to set
+     */
+    public void setThreadNum(int threadNum) {
+        Preconditions.checkArgument(threadNum > 0);
+        this.threadNum = threadNum;
+    }
+
+}
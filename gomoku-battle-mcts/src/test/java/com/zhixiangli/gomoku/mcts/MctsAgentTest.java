@@ -0,0 +1,41 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts;
+
+import java.awt.Point;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.mcts.common.MctsOptions;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class MctsAgentTest {
+
+    private MctsAgent agent;
+
+    @Before
+    public void setUp() throws Exception {
+        MctsOptions mctsOptions = new MctsOptions();
+        mctsOptions.setSearchTimeMillis(2000);
+        mctsOptions.setThreadNum(2);
+        this.agent = new MctsAgent(mctsOptions);
+    }
+
+    @Test
+    public void next() {
+        Assert.assertEquals(new Point(7, 7), this.agent.next("", ChessType.BLACK));
+
+        // white blocks the open three of black.
+        Point point = this.agent.next("B[77];W[88];B[76];W[98];B[75]", ChessType.WHITE);
+        Assert.assertTrue(new Point(7, 4).equals(point) || new Point(7, 8).equals(point)
+                || new Point(7, 3).equals(point) || new Point(7, 9).equals(point));
+    }
+
+}
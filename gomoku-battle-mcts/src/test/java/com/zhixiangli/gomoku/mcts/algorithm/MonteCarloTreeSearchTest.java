@@ -0,0 +1,88 @@
+/**
+ * 
+ */
+package com.zhixiangli.gomoku.mcts.algorithm;
+
+import java.awt.Point;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zhixiangli.gomoku.core.chessboard.ChessType;
+import com.zhixiangli.gomoku.core.chessboard.Chessboard;
+import com.zhixiangli.gomoku.core.common.GomokuConst;
+
+/**
+ * @author zhixiangli
+ *
+ */
+public class MonteCarloTreeSearchTest {
+
+    private MonteCarloTreeSearch monteCarloTreeSearch;
+
+    private Chessboard chessboard;
+
+    @Before
+    public void setUp() throws Exception {
+        this.monteCarloTreeSearch = new MonteCarloTreeSearch(2);
+
+        // a half open four of black in row 7.
+        this.chessboard = new Chessboard();
+        for (int i = 3; i < 7; ++i) {
+            this.chessboard.setChess(7, i, ChessType.BLACK);
+        }
+        this.chessboard.setChess(7, 2, ChessType.WHITE);
+        this.chessboard.setChess(8, 8, ChessType.WHITE);
+        this.chessboard.setChess(9, 9, ChessType.WHITE);
+    }
+
+    @Test
+    public void search() {
+        Chessboard newChessboard = this.chessboard.clone();
+        Assert.assertEquals(new Point(7, 7), this.monteCarloTreeSearch.search(newChessboard, ChessType.BLACK,
+                System.currentTimeMillis() + 10000, 100));
+        Assert.assertEquals(this.chessboard, newChessboard);
+
+        Assert.assertEquals(new Point(7, 7), this.monteCarloTreeSearch.search(newChessboard, ChessType.WHITE,
+                System.currentTimeMillis() + 10000, 100));
+        Assert.assertEquals(this.chessboard, newChessboard);
+    }
+
+    @Test
+    public void searchWithoutCandidate() {
+        // a full chessboard without five, the runs are at most two long.
+        this.chessboard.clear();
+        for (int i = 0; i < GomokuConst.CHESSBOARD_SIZE; ++i) {
+            for (int j = 0; j < GomokuConst.CHESSBOARD_SIZE; ++j) {
+                this.chessboard.setChess(i, j, (i + 2 * j) % 4 < 2 ? ChessType.BLACK : ChessType.WHITE);
+            }
+        }
+        Chessboard newChessboard = this.chessboard.clone();
+        Assert.assertEquals(new Point(GomokuConst.CHESSBOARD_SIZE / 2, GomokuConst.CHESSBOARD_SIZE / 2),
+                this.monteCarloTreeSearch.search(newChessboard, ChessType.BLACK, System.currentTimeMillis() + 10000,
+                        10));
+        Assert.assertNull(this.monteCarloTreeSearch.getRoot().getBestChild());
+        Assert.assertEquals(this.chessboard, newChessboard);
+    }
+
+    @Test
+    public void searchWithPlayoutNum() {
+        // white blocks the four.
+        Point point = this.monteCarloTreeSearch.search(this.chessboard, ChessType.WHITE,
+                System.currentTimeMillis() + 10000, 200);
+        Assert.assertEquals(200, this.monteCarloTreeSearch.getRoot().getVisitNum());
+
+        // the tree after the moves of both sides is reused.
+        this.chessboard.setChess(point, ChessType.WHITE);
+        TreeNode child = this.monteCarloTreeSearch.getRoot().getBestChild();
+        Point reply = new Point(6, 6);
+        this.chessboard.setChess(reply, ChessType.BLACK);
+        this.monteCarloTreeSearch.search(this.chessboard, ChessType.WHITE, System.currentTimeMillis() + 10000, 100);
+        TreeNode root = this.monteCarloTreeSearch.getRoot();
+        Assert.assertEquals(reply, root.getMove());
+        Assert.assertTrue(root.getVisitNum() >= 100);
+        Assert.assertNotNull(child.getChild(reply, ChessType.BLACK));
+    }
+
+}